@@ -0,0 +1,111 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.CurrencyEntity;
+import guru.qa.niffler.data.repository.CurrencyRepository;
+import guru.qa.niffler.grpc.CalculateRequest;
+import guru.qa.niffler.grpc.CalculateResponse;
+import guru.qa.niffler.grpc.CurrencyValues;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of CalculateRate.
+ * `listScan` reproduces the previous path (fresh `findAll()` list + two linear scans) without the DB round trip,
+ * so the real difference in production is larger than what is measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CalculateRateBenchmark {
+
+  private List<CurrencyEntity> entities;
+  private GrpcCurrencyService grpcCurrencyService;
+  private CalculateRequest request;
+
+  @Setup
+  public void setUp() {
+    entities = List.of(
+        currency(guru.qa.niffler.data.CurrencyValues.RUB, 0.015),
+        currency(guru.qa.niffler.data.CurrencyValues.KZT, 0.0021),
+        currency(guru.qa.niffler.data.CurrencyValues.EUR, 1.08),
+        currency(guru.qa.niffler.data.CurrencyValues.USD, 1.0)
+    );
+    CurrencyRepository repository = (CurrencyRepository) Proxy.newProxyInstance(
+        CurrencyRepository.class.getClassLoader(),
+        new Class[]{CurrencyRepository.class},
+        (proxy, method, args) -> "findAll".equals(method.getName()) ? entities : null
+    );
+    CurrencyRatesHolder holder = new CurrencyRatesHolder(repository);
+    holder.init();
+    grpcCurrencyService = new GrpcCurrencyService(holder);
+    request = CalculateRequest.newBuilder()
+        .setAmount(150.0)
+        .setSpendCurrency(CurrencyValues.RUB)
+        .setDesiredCurrency(CurrencyValues.KZT)
+        .build();
+  }
+
+  @Benchmark
+  public BigDecimal listScan() {
+    List<CurrencyEntity> currencyRates = new ArrayList<>(entities);
+    BigDecimal spendInUsd = BigDecimal.valueOf(request.getAmount())
+        .multiply(courseForCurrency(request.getSpendCurrency(), currencyRates));
+    return spendInUsd.divide(
+        courseForCurrency(request.getDesiredCurrency(), currencyRates),
+        2,
+        RoundingMode.HALF_UP
+    );
+  }
+
+  @Benchmark
+  public void snapshot(Blackhole blackhole) {
+    grpcCurrencyService.calculateRate(request, new BlackholeObserver(blackhole));
+  }
+
+  private static BigDecimal courseForCurrency(CurrencyValues currency, List<CurrencyEntity> currencyRates) {
+    return BigDecimal.valueOf(
+        currencyRates.stream()
+            .filter(cr -> cr.getCurrency().name().equals(currency.name()))
+            .findFirst()
+            .orElseThrow()
+            .getCurrencyRate()
+    );
+  }
+
+  private static CurrencyEntity currency(guru.qa.niffler.data.CurrencyValues currency, double rate) {
+    CurrencyEntity entity = new CurrencyEntity();
+    entity.setCurrency(currency);
+    entity.setCurrencyRate(rate);
+    return entity;
+  }
+
+  private record BlackholeObserver(Blackhole blackhole) implements StreamObserver<CalculateResponse> {
+    @Override
+    public void onNext(CalculateResponse value) {
+      blackhole.consume(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      throw new IllegalStateException(t);
+    }
+
+    @Override
+    public void onCompleted() {
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package guru.qa.niffler.config;
+
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@EnableScheduling
+@Configuration
+public class NifflerCurrencyServiceConfig {
+
+  /**
+   * With `spring.threads.virtual.enabled` gRPC calls are executed on virtual threads instead of the default cached pool
+   */
+  @Bean
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public GrpcServerConfigurer virtualThreadsGrpcServerConfigurer() {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("grpc-server-");
+    executor.setVirtualThreads(true);
+    return serverBuilder -> serverBuilder.executor(executor);
+  }
+}
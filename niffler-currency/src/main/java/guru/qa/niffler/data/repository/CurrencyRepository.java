@@ -3,8 +3,10 @@ package guru.qa.niffler.data.repository;
 import guru.qa.niffler.data.CurrencyEntity;
 import guru.qa.niffler.data.CurrencyValues;
 import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,4 +14,10 @@ public interface CurrencyRepository extends JpaRepository<CurrencyEntity, UUID>
 
   @Nonnull
   Optional<CurrencyEntity> findByCurrency(@Nonnull CurrencyValues currency);
+
+  @Nonnull
+  List<CurrencyEntity> findByOrderById(@Nonnull Limit limit);
+
+  @Nonnull
+  List<CurrencyEntity> findByIdGreaterThanOrderById(@Nonnull UUID id, @Nonnull Limit limit);
 }
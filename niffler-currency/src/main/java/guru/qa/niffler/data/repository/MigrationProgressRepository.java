@@ -0,0 +1,7 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.data.MigrationProgressEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MigrationProgressRepository extends JpaRepository<MigrationProgressEntity, String> {
+}
@@ -0,0 +1,64 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.CurrencyEntity;
+import guru.qa.niffler.grpc.Currency;
+import guru.qa.niffler.grpc.CurrencyResponse;
+import guru.qa.niffler.grpc.CurrencyValues;
+import jakarta.annotation.Nonnull;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the `currency` table, indexed by {@link CurrencyValues#getNumber()}.
+ * Built once per refresh, so conversion does no lookups beyond an array read.
+ */
+public final class CurrencyRates {
+
+  private static final int SIZE = CurrencyValues.KZT.getNumber() + 1;
+
+  private final double[] rates;
+  private final BigDecimal[] courses;
+  private final CurrencyResponse allCurrencies;
+
+  private CurrencyRates(double[] rates, BigDecimal[] courses, CurrencyResponse allCurrencies) {
+    this.rates = rates;
+    this.courses = courses;
+    this.allCurrencies = allCurrencies;
+  }
+
+  public static @Nonnull CurrencyRates fromEntities(@Nonnull List<CurrencyEntity> currencies) {
+    double[] rates = new double[SIZE];
+    BigDecimal[] courses = new BigDecimal[SIZE];
+    CurrencyResponse.Builder response = CurrencyResponse.newBuilder();
+    for (CurrencyEntity currency : currencies) {
+      CurrencyValues grpcCurrency = CurrencyValues.valueOf(currency.getCurrency().name());
+      rates[grpcCurrency.getNumber()] = currency.getCurrencyRate();
+      courses[grpcCurrency.getNumber()] = BigDecimal.valueOf(currency.getCurrencyRate());
+      response.addAllCurrencies(Currency.newBuilder()
+          .setCurrency(grpcCurrency)
+          .setCurrencyRate(currency.getCurrencyRate())
+          .build());
+    }
+    return new CurrencyRates(rates, courses, response.build());
+  }
+
+  public @Nonnull BigDecimal course(@Nonnull CurrencyValues currency) {
+    BigDecimal course = currency == CurrencyValues.UNRECOGNIZED
+        ? null
+        : courses[currency.getNumber()];
+    if (course == null) {
+      throw new IllegalArgumentException("No currency rate for: " + currency);
+    }
+    return course;
+  }
+
+  public @Nonnull CurrencyResponse allCurrencies() {
+    return allCurrencies;
+  }
+
+  public boolean sameRatesAs(@Nonnull CurrencyRates other) {
+    return Arrays.equals(rates, other.rates);
+  }
+}
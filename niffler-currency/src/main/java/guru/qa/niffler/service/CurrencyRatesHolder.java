@@ -0,0 +1,77 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.repository.CurrencyRepository;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+
+@Component
+public class CurrencyRatesHolder {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CurrencyRatesHolder.class);
+
+  private final CurrencyRepository currencyRepository;
+  private final Set<Consumer<CurrencyRates>> listeners = new CopyOnWriteArraySet<>();
+
+  private volatile CurrencyRates rates;
+
+  @Autowired
+  public CurrencyRatesHolder(CurrencyRepository currencyRepository) {
+    this.currencyRepository = currencyRepository;
+  }
+
+  @PostConstruct
+  public void init() {
+    refresh();
+  }
+
+  public @Nonnull CurrencyRates rates() {
+    return rates;
+  }
+
+  /**
+   * Listener is called with the current snapshot immediately and then with every new one, from the thread that published it
+   */
+  public synchronized void subscribe(@Nonnull Consumer<CurrencyRates> listener) {
+    listeners.add(listener);
+    listener.accept(rates);
+  }
+
+  public void unsubscribe(@Nonnull Consumer<CurrencyRates> listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Re-reads the `currency` table and swaps the snapshot only when some rate has changed.
+   *
+   * @return true if a new snapshot was published
+   */
+  @Scheduled(
+      initialDelayString = "${niffler-currency.rates.refresh-interval:PT1M}",
+      fixedDelayString = "${niffler-currency.rates.refresh-interval:PT1M}"
+  )
+  public synchronized boolean refresh() {
+    CurrencyRates fresh = CurrencyRates.fromEntities(currencyRepository.findAll());
+    if (rates == null || !rates.sameRatesAs(fresh)) {
+      rates = fresh;
+      LOG.info("### Currency rates snapshot refreshed: {}", fresh.allCurrencies().getAllCurrenciesCount());
+      for (Consumer<CurrencyRates> listener : listeners) {
+        try {
+          listener.accept(fresh);
+        } catch (RuntimeException e) {
+          LOG.warn("### Error while notifying currency rates listener", e);
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+}
@@ -2,62 +2,65 @@ package guru.qa.niffler.service;
 
 
 import com.google.protobuf.Empty;
-import guru.qa.niffler.data.CurrencyEntity;
-import guru.qa.niffler.data.repository.CurrencyRepository;
+import guru.qa.niffler.grpc.CalculateRatesRequest;
+import guru.qa.niffler.grpc.CalculateRatesResponse;
 import guru.qa.niffler.grpc.CalculateRequest;
 import guru.qa.niffler.grpc.CalculateResponse;
-import guru.qa.niffler.grpc.Currency;
 import guru.qa.niffler.grpc.CurrencyResponse;
 import guru.qa.niffler.grpc.CurrencyValues;
 import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import jakarta.annotation.Nonnull;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.List;
+import java.util.function.Consumer;
 
 @GrpcService
 public class GrpcCurrencyService extends NifflerCurrencyServiceGrpc.NifflerCurrencyServiceImplBase {
 
   private static final Logger LOG = LoggerFactory.getLogger(GrpcCurrencyService.class);
 
-  private final CurrencyRepository currencyRepository;
+  private final CurrencyRatesHolder currencyRatesHolder;
 
   @Autowired
-  public GrpcCurrencyService(CurrencyRepository currencyRepository) {
-    this.currencyRepository = currencyRepository;
+  public GrpcCurrencyService(CurrencyRatesHolder currencyRatesHolder) {
+    this.currencyRatesHolder = currencyRatesHolder;
   }
 
-  @Transactional(readOnly = true)
   @Override
   public void getAllCurrencies(Empty request, StreamObserver<CurrencyResponse> responseObserver) {
-    CurrencyResponse response = CurrencyResponse.newBuilder()
-        .addAllAllCurrencies(currencyRepository.findAll().stream()
-            .map(e -> Currency.newBuilder()
-                .setCurrency(CurrencyValues.valueOf(e.getCurrency().name()))
-                .setCurrencyRate(e.getCurrencyRate())
-                .build()
-            ).toList()
-        ).build();
-
-    responseObserver.onNext(response);
+    responseObserver.onNext(currencyRatesHolder.rates().allCurrencies());
     responseObserver.onCompleted();
   }
 
-  @Transactional(readOnly = true)
+  @Override
+  public void subscribeRates(Empty request, StreamObserver<CurrencyResponse> responseObserver) {
+    final ServerCallStreamObserver<CurrencyResponse> serverObserver = (ServerCallStreamObserver<CurrencyResponse>) responseObserver;
+    final Consumer<CurrencyRates> listener = rates -> {
+      if (!serverObserver.isCancelled()) {
+        serverObserver.onNext(rates.allCurrencies());
+      }
+    };
+    serverObserver.setOnCancelHandler(() -> {
+      currencyRatesHolder.unsubscribe(listener);
+      LOG.info("### Currency rates subscription cancelled");
+    });
+    currencyRatesHolder.subscribe(listener);
+  }
+
   @Override
   public void calculateRate(CalculateRequest request, StreamObserver<CalculateResponse> responseObserver) {
     BigDecimal result = convertSpendTo(
         request.getAmount(),
         request.getSpendCurrency(),
         request.getDesiredCurrency(),
-        currencyRepository.findAll()
+        currencyRatesHolder.rates()
     );
 
     responseObserver.onNext(CalculateResponse.newBuilder()
@@ -66,31 +69,37 @@ public class GrpcCurrencyService extends NifflerCurrencyServiceGrpc.NifflerCurre
     responseObserver.onCompleted();
   }
 
+  @Override
+  public void calculateRates(CalculateRatesRequest request, StreamObserver<CalculateRatesResponse> responseObserver) {
+    final CurrencyRates currencyRates = currencyRatesHolder.rates();
+    CalculateRatesResponse.Builder response = CalculateRatesResponse.newBuilder();
+    for (CalculateRequest calculateRequest : request.getRequestsList()) {
+      response.addResponses(CalculateResponse.newBuilder()
+          .setCalculatedAmount(convertSpendTo(
+              calculateRequest.getAmount(),
+              calculateRequest.getSpendCurrency(),
+              calculateRequest.getDesiredCurrency(),
+              currencyRates
+          ).doubleValue())
+          .build());
+    }
+    responseObserver.onNext(response.build());
+    responseObserver.onCompleted();
+  }
+
   @Nonnull
   BigDecimal convertSpendTo(double spend,
                             @Nonnull CurrencyValues spendCurrency,
                             @Nonnull CurrencyValues desiredCurrency,
-                            @Nonnull List<CurrencyEntity> currencyRates) {
+                            @Nonnull CurrencyRates currencyRates) {
     BigDecimal spendInUsd = spendCurrency == CurrencyValues.USD
         ? BigDecimal.valueOf(spend)
-        : BigDecimal.valueOf(spend).multiply(courseForCurrency(spendCurrency, currencyRates));
+        : BigDecimal.valueOf(spend).multiply(currencyRates.course(spendCurrency));
 
     return spendInUsd.divide(
-        courseForCurrency(desiredCurrency, currencyRates),
+        currencyRates.course(desiredCurrency),
         2,
         RoundingMode.HALF_UP
     );
   }
-
-  private @Nonnull
-  BigDecimal courseForCurrency(@Nonnull CurrencyValues currency,
-                               @Nonnull List<CurrencyEntity> currencyRates) {
-    return BigDecimal.valueOf(
-        currencyRates.stream()
-            .filter(cr -> cr.getCurrency().name().equals(currency.name()))
-            .findFirst()
-            .orElseThrow()
-            .getCurrencyRate()
-    );
-  }
 }
@@ -1,47 +1,131 @@
 package guru.qa.niffler.service;
 
 import guru.qa.niffler.data.CurrencyEntity;
+import guru.qa.niffler.data.MigrationProgressEntity;
 import guru.qa.niffler.data.repository.CurrencyRepository;
-import jakarta.annotation.PostConstruct;
+import guru.qa.niffler.data.repository.MigrationProgressRepository;
+import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Date;
 import java.util.List;
+import java.util.function.Predicate;
 
+/**
+ * Data migrations run in background after the service is ready. Currencies are read in chunks ordered by id,
+ * every chunk is committed together with its last id in `migration_progress`, so an interrupted migration
+ * continues from there on next start and a completed one never runs again.
+ */
 @Component
 public class MigrationService {
 
   private static final Logger LOG = LoggerFactory.getLogger(MigrationService.class);
 
   private final CurrencyRepository currencyRepository;
+  private final MigrationProgressRepository migrationProgressRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int chunkSize;
+  private final List<CurrencyMigration> migrations = List.of(
+      new CurrencyMigration("V2__currency_symbols", this::addCurrencySymbol)
+  );
 
   @Autowired
-  public MigrationService(CurrencyRepository currencyRepository) {
+  public MigrationService(CurrencyRepository currencyRepository,
+                          MigrationProgressRepository migrationProgressRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${niffler-currency.migrations.enabled:true}") boolean enabled,
+                          @Value("${niffler-currency.migrations.chunk-size:100}") int chunkSize) {
     this.currencyRepository = currencyRepository;
+    this.migrationProgressRepository = migrationProgressRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.chunkSize = chunkSize;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateInBackground() {
+    if (enabled) {
+      Thread.ofVirtual().name("migrations").start(this::migrate);
+    }
   }
 
   /**
-   * only for V2__currency_symbols.sql
+   * Runs not completed migrations one by one, blocks until all of them are done or failed
    */
-  @Transactional
-  @PostConstruct
-  public void addCurrencySymbols() {
-    List<CurrencyEntity> currencies = currencyRepository.findAll();
+  public void migrate() {
+    for (CurrencyMigration migration : migrations) {
+      try {
+        boolean completed;
+        do {
+          completed = Boolean.TRUE.equals(transactionTemplate.execute(status -> migrateChunk(migration)));
+        } while (!completed);
+      } catch (Exception e) {
+        LOG.error("### Migration {} stopped, it will be resumed on next start", migration.name(), e);
+      }
+    }
+  }
+
+  /**
+   * @return true if migration is completed
+   */
+  private boolean migrateChunk(@Nonnull CurrencyMigration migration) {
+    MigrationProgressEntity progress = migrationProgressRepository.findById(migration.name())
+        .orElseGet(() -> {
+          MigrationProgressEntity created = new MigrationProgressEntity();
+          created.setName(migration.name());
+          return created;
+        });
+    if (progress.isCompleted()) {
+      return true;
+    }
+    List<CurrencyEntity> currencies = progress.getLastId() == null
+        ? currencyRepository.findByOrderById(Limit.of(chunkSize))
+        : currencyRepository.findByIdGreaterThanOrderById(progress.getLastId(), Limit.of(chunkSize));
+    int changed = 0;
     for (CurrencyEntity currency : currencies) {
-      if (currency.getSymbol() == null) {
-        try {
-          ClassPathResource svg = new ClassPathResource(currency.getCurrency().symbolResource);
-          currency.setSymbol(svg.getContentAsByteArray());
-          currencyRepository.save(currency);
-          LOG.info("### Currency symbol added: {}", currency.getId());
-        } catch (Exception e) {
-          LOG.error("### Error while adding symbol for Currency :{}", currency.getId());
-        }
+      if (migration.step().test(currency)) {
+        changed++;
       }
     }
+    if (!currencies.isEmpty()) {
+      progress.setLastId(currencies.getLast().getId());
+    }
+    progress.setProcessed(progress.getProcessed() + currencies.size());
+    progress.setCompleted(currencies.size() < chunkSize);
+    progress.setUpdatedAt(new Date());
+    migrationProgressRepository.save(progress);
+    LOG.info("### Migration {}: {} currencies processed, {} changed in last chunk{}",
+        migration.name(), progress.getProcessed(), changed, progress.isCompleted() ? ", completed" : "");
+    return progress.isCompleted();
+  }
+
+  /**
+   * only for V2__currency_symbols.sql
+   */
+  boolean addCurrencySymbol(@Nonnull CurrencyEntity currency) {
+    if (currency.getSymbol() == null) {
+      try {
+        ClassPathResource svg = new ClassPathResource(currency.getCurrency().symbolResource);
+        currency.setSymbol(svg.getContentAsByteArray());
+        return true;
+      } catch (Exception e) {
+        LOG.error("### Error while adding symbol for Currency :{}", currency.getId());
+      }
+    }
+    return false;
+  }
+
+  private record CurrencyMigration(@Nonnull String name, @Nonnull Predicate<CurrencyEntity> step) {
   }
 }
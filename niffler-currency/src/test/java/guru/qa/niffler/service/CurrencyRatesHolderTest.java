@@ -0,0 +1,71 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.CurrencyEntity;
+import guru.qa.niffler.data.repository.CurrencyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static guru.qa.niffler.data.CurrencyValues.RUB;
+import static guru.qa.niffler.data.CurrencyValues.USD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyRatesHolderTest {
+
+  @Test
+  void refreshShouldKeepSnapshotWhenRatesAreUnchanged(@Mock CurrencyRepository currencyRepository) {
+    when(currencyRepository.findAll())
+        .thenReturn(List.of(currency(RUB, 0.015), currency(USD, 1.0)));
+
+    CurrencyRatesHolder holder = new CurrencyRatesHolder(currencyRepository);
+    holder.init();
+    CurrencyRates initial = holder.rates();
+
+    assertFalse(holder.refresh());
+    assertSame(initial, holder.rates());
+  }
+
+  @Test
+  void refreshShouldPublishSnapshotWhenRateIsChanged(@Mock CurrencyRepository currencyRepository) {
+    when(currencyRepository.findAll())
+        .thenReturn(List.of(currency(RUB, 0.015), currency(USD, 1.0)))
+        .thenReturn(List.of(currency(RUB, 0.011), currency(USD, 1.0)));
+
+    CurrencyRatesHolder holder = new CurrencyRatesHolder(currencyRepository);
+    holder.init();
+
+    assertTrue(holder.refresh());
+    assertEquals(BigDecimal.valueOf(0.011), holder.rates().course(guru.qa.niffler.grpc.CurrencyValues.RUB));
+  }
+
+  @Test
+  void courseShouldFailForUnknownCurrency(@Mock CurrencyRepository currencyRepository) {
+    when(currencyRepository.findAll())
+        .thenReturn(List.of(currency(USD, 1.0)));
+
+    CurrencyRatesHolder holder = new CurrencyRatesHolder(currencyRepository);
+    holder.init();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> holder.rates().course(guru.qa.niffler.grpc.CurrencyValues.KZT));
+    assertThrows(IllegalArgumentException.class,
+        () -> holder.rates().course(guru.qa.niffler.grpc.CurrencyValues.UNSPECIFIED));
+  }
+
+  private static CurrencyEntity currency(guru.qa.niffler.data.CurrencyValues currency, double rate) {
+    CurrencyEntity entity = new CurrencyEntity();
+    entity.setCurrency(currency);
+    entity.setCurrencyRate(rate);
+    return entity;
+  }
+}
@@ -2,12 +2,19 @@ package guru.qa.niffler.service;
 
 import guru.qa.niffler.data.CurrencyEntity;
 import guru.qa.niffler.data.repository.CurrencyRepository;
+import guru.qa.niffler.grpc.CalculateRatesRequest;
+import guru.qa.niffler.grpc.CalculateRatesResponse;
+import guru.qa.niffler.grpc.CalculateRequest;
+import guru.qa.niffler.grpc.CalculateResponse;
+import io.grpc.stub.StreamObserver;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -20,12 +27,13 @@ import static guru.qa.niffler.data.CurrencyValues.KZT;
 import static guru.qa.niffler.data.CurrencyValues.RUB;
 import static guru.qa.niffler.data.CurrencyValues.USD;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 class GrpcCurrencyServiceTest {
 
   GrpcCurrencyService grpcCurrencyService;
-  List<CurrencyEntity> testCurrencies;
+  CurrencyRates testCurrencyRates;
 
   @BeforeEach
   void setUp(@Mock CurrencyRepository currencyRepository) {
@@ -42,13 +50,16 @@ class GrpcCurrencyServiceTest {
     kzt.setCurrency(KZT);
     kzt.setCurrencyRate(0.0021);
 
-    testCurrencies = List.of(rub, kzt, eur, usd);
+    List<CurrencyEntity> testCurrencies = List.of(rub, kzt, eur, usd);
+    testCurrencyRates = CurrencyRates.fromEntities(testCurrencies);
 
     lenient()
         .when(currencyRepository.findAll())
         .thenReturn(testCurrencies);
 
-    grpcCurrencyService = new GrpcCurrencyService(currencyRepository);
+    CurrencyRatesHolder currencyRatesHolder = new CurrencyRatesHolder(currencyRepository);
+    currencyRatesHolder.init();
+    grpcCurrencyService = new GrpcCurrencyService(currencyRatesHolder);
   }
 
 
@@ -69,8 +80,33 @@ class GrpcCurrencyServiceTest {
                       double expectedResult) {
 
     BigDecimal result = grpcCurrencyService.convertSpendTo(spend, spendCurrency,
-        desiredCurrency, testCurrencies);
+        desiredCurrency, testCurrencyRates);
 
     Assertions.assertEquals(expectedResult, result.doubleValue());
   }
-}
\ No newline at end of file
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void calculateRatesShouldKeepRequestOrder(@Mock StreamObserver<CalculateRatesResponse> responseObserver) {
+    CalculateRatesRequest request = CalculateRatesRequest.newBuilder()
+        .addAllRequests(convertSpendTo()
+            .map(Arguments::get)
+            .map(args -> CalculateRequest.newBuilder()
+                .setAmount((double) args[0])
+                .setSpendCurrency((guru.qa.niffler.grpc.CurrencyValues) args[1])
+                .setDesiredCurrency((guru.qa.niffler.grpc.CurrencyValues) args[2])
+                .build())
+            .toList())
+        .build();
+
+    grpcCurrencyService.calculateRates(request, responseObserver);
+
+    ArgumentCaptor<CalculateRatesResponse> captor = ArgumentCaptor.forClass(CalculateRatesResponse.class);
+    verify(responseObserver).onNext(captor.capture());
+    verify(responseObserver).onCompleted();
+    Assertions.assertEquals(
+        convertSpendTo().map(args -> (double) args.get()[3]).toList(),
+        captor.getValue().getResponsesList().stream().map(CalculateResponse::getCalculatedAmount).toList()
+    );
+  }
+}
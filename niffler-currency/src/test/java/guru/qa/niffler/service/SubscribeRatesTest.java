@@ -0,0 +1,113 @@
+package guru.qa.niffler.service;
+
+import com.google.protobuf.Empty;
+import guru.qa.niffler.data.CurrencyEntity;
+import guru.qa.niffler.data.repository.CurrencyRepository;
+import guru.qa.niffler.grpc.Currency;
+import guru.qa.niffler.grpc.CurrencyResponse;
+import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static guru.qa.niffler.data.CurrencyValues.RUB;
+import static guru.qa.niffler.data.CurrencyValues.USD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SubscribeRatesTest {
+
+  @Mock
+  private CurrencyRepository currencyRepository;
+
+  private CurrencyRatesHolder currencyRatesHolder;
+  private Server server;
+  private ManagedChannel channel;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(currencyRepository.findAll())
+        .thenReturn(List.of(currency(RUB, 0.015), currency(USD, 1.0)));
+    currencyRatesHolder = new CurrencyRatesHolder(currencyRepository);
+    currencyRatesHolder.init();
+
+    final String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+        .directExecutor()
+        .addService(new GrpcCurrencyService(currencyRatesHolder))
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+  }
+
+  @AfterEach
+  void tearDown() {
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void subscribeRatesShouldPushSnapshotOnConnectAndOnChange() throws Exception {
+    BlockingQueue<CurrencyResponse> received = new LinkedBlockingQueue<>();
+    NifflerCurrencyServiceGrpc.newStub(channel).subscribeRates(Empty.getDefaultInstance(), new StreamObserver<>() {
+      @Override
+      public void onNext(CurrencyResponse value) {
+        received.add(value);
+      }
+
+      @Override
+      public void onError(Throwable t) {
+      }
+
+      @Override
+      public void onCompleted() {
+      }
+    });
+
+    CurrencyResponse initial = received.poll(5, TimeUnit.SECONDS);
+    assertNotNull(initial);
+    assertEquals(0.015, rateOf(initial, guru.qa.niffler.grpc.CurrencyValues.RUB));
+
+    currencyRatesHolder.refresh();
+    assertNull(received.poll(200, TimeUnit.MILLISECONDS), "unchanged rates should not be pushed");
+
+    when(currencyRepository.findAll())
+        .thenReturn(List.of(currency(RUB, 0.011), currency(USD, 1.0)));
+    currencyRatesHolder.refresh();
+
+    CurrencyResponse changed = received.poll(5, TimeUnit.SECONDS);
+    assertNotNull(changed);
+    assertEquals(0.011, rateOf(changed, guru.qa.niffler.grpc.CurrencyValues.RUB));
+  }
+
+  private static double rateOf(CurrencyResponse response, guru.qa.niffler.grpc.CurrencyValues currency) {
+    return response.getAllCurrenciesList().stream()
+        .filter(c -> c.getCurrency() == currency)
+        .findFirst()
+        .map(Currency::getCurrencyRate)
+        .orElseThrow();
+  }
+
+  private static CurrencyEntity currency(guru.qa.niffler.data.CurrencyValues currency, double rate) {
+    CurrencyEntity entity = new CurrencyEntity();
+    entity.setCurrency(currency);
+    entity.setCurrencyRate(rate);
+    return entity;
+  }
+}
@@ -52,11 +52,11 @@ public class UserEntity implements Serializable {
   @Column()
   private String surname;
 
-  @Column(name = "photo", columnDefinition = "bytea")
-  private byte[] photo;
+  @Column(name = "avatar_hash", length = 64)
+  private String avatarHash;
 
-  @Column(name = "photo_small", columnDefinition = "bytea")
-  private byte[] photoSmall;
+  @Column(name = "avatar_small_hash", length = 64)
+  private String avatarSmallHash;
 
   @OneToMany(mappedBy = "requester", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
   private List<FriendshipEntity> friendshipRequests = new ArrayList<>();
@@ -138,8 +138,8 @@ public class UserRepositoryJdbc implements UserRepository {
         user.setCurrency(CurrencyValues.valueOf(resultSet.getString("currency")));
         user.setFirstname(resultSet.getString("firstname"));
         user.setSurname(resultSet.getString("surname"));
-        user.setPhoto(resultSet.getBytes("photo"));
-        user.setPhotoSmall(resultSet.getBytes("photo_small"));
+        user.setAvatarHash(resultSet.getString("avatar_hash"));
+        user.setAvatarSmallHash(resultSet.getString("avatar_small_hash"));
       } else {
         return Optional.empty();
       }
@@ -211,8 +211,8 @@ public class UserRepositoryJdbc implements UserRepository {
               "currency = ?, " +
               "firstname = ?, " +
               "surname = ?, " +
-              "photo = ?, " +
-              "photo_small = ? " +
+              "avatar_hash = ?, " +
+              "avatar_small_hash = ? " +
               "WHERE id = ? ");
 
            PreparedStatement friendsPs = conn.prepareStatement(
@@ -224,8 +224,8 @@ public class UserRepositoryJdbc implements UserRepository {
         usersPs.setString(1, user.getCurrency().name());
         usersPs.setString(2, user.getFirstname());
         usersPs.setString(3, user.getSurname());
-        usersPs.setBytes(4, user.getPhoto());
-        usersPs.setBytes(5, user.getPhotoSmall());
+        usersPs.setString(4, user.getAvatarHash());
+        usersPs.setString(5, user.getAvatarSmallHash());
         usersPs.setObject(6, user.getId());
         usersPs.executeUpdate();
 
@@ -173,14 +173,14 @@ public class UserRepositorySpringJdbc implements UserRepository {
               "currency = ?, " +
               "firstname = ?, " +
               "surname = ?, " +
-              "photo = ?, " +
-              "photo_small = ? " +
+              "avatar_hash = ?, " +
+              "avatar_small_hash = ? " +
               "WHERE id = ? ",
           user.getCurrency().name(),
           user.getFirstname(),
           user.getSurname(),
-          user.getPhoto(),
-          user.getPhotoSmall(),
+          user.getAvatarHash(),
+          user.getAvatarSmallHash(),
           user.getId());
 
       userdataJdbcTemplate.batchUpdate("INSERT INTO friendship (requester_id, addressee_id, status) " +
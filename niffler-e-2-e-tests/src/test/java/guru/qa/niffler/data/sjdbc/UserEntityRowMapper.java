@@ -20,8 +20,8 @@ public class UserEntityRowMapper implements RowMapper<UserEntity> {
     user.setCurrency(CurrencyValues.valueOf(rs.getString("currency")));
     user.setFirstname(rs.getString("firstname"));
     user.setSurname(rs.getString("surname"));
-    user.setPhoto(rs.getBytes("photo"));
-    user.setPhotoSmall(rs.getBytes("photo_small"));
+    user.setAvatarHash(rs.getString("avatar_hash"));
+    user.setAvatarSmallHash(rs.getString("avatar_small_hash"));
     return user;
   }
 }
@@ -73,8 +73,8 @@ public class DatabaseCreateUserExtension extends AbstractCreateUserExtension {
         userdataUser.getFirstname(),
         userdataUser.getSurname(),
         CurrencyValues.valueOf(userdataUser.getCurrency().name()),
-        userdataUser.getPhoto() != null ? new String(userdataUser.getPhoto()) : null,
-        userdataUser.getPhotoSmall() != null ? new String(userdataUser.getPhotoSmall()) : null,
+        null,
+        null,
         null,
         new TestData(password)
     );
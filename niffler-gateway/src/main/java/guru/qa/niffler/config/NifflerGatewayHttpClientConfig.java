@@ -0,0 +1,73 @@
+package guru.qa.niffler.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.ManagedHttpClientConnectionFactory;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Keep-alive connection pool shared by all REST calls of the gateway.
+ * Pool state is published as `httpcomponents.httpclient.pool.*` metrics, new TCP connections are counted
+ * by `http.client.connections.created`, so its ratio to `http.client.requests` count shows how often connections are reused.
+ */
+@Configuration
+public class NifflerGatewayHttpClientConfig {
+
+  private static final String POOL_NAME = "niffler-gateway";
+
+  @Bean(destroyMethod = "close")
+  public PoolingHttpClientConnectionManager httpClientConnectionManager(
+      @Value("${niffler-gateway.http-client.max-connections:200}") int maxConnections,
+      @Value("${niffler-gateway.http-client.max-connections-per-route:50}") int maxConnectionsPerRoute,
+      @Value("${niffler-gateway.http-client.connect-timeout:PT2S}") Duration connectTimeout,
+      @Value("${niffler-gateway.http-client.read-timeout:PT30S}") Duration readTimeout,
+      @Value("${niffler-gateway.http-client.time-to-live:PT5M}") Duration timeToLive,
+      MeterRegistry meterRegistry) {
+    final Counter connectionsCreated = Counter.builder("http.client.connections.created")
+        .tag("httpclient", POOL_NAME)
+        .register(meterRegistry);
+    PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(maxConnections)
+        .setMaxConnPerRoute(maxConnectionsPerRoute)
+        .setDefaultConnectionConfig(ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(connectTimeout))
+            .setSocketTimeout(Timeout.of(readTimeout))
+            .setTimeToLive(TimeValue.of(timeToLive))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+            .build())
+        .setConnectionFactory(socket -> {
+          connectionsCreated.increment();
+          return ManagedHttpClientConnectionFactory.INSTANCE.createConnection(socket);
+        })
+        .build();
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+    return connectionManager;
+  }
+
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpClientConnectionManager,
+                                        @Value("${niffler-gateway.http-client.connection-request-timeout:PT5S}") Duration connectionRequestTimeout,
+                                        @Value("${niffler-gateway.http-client.idle-timeout:PT30S}") Duration idleTimeout) {
+    return HttpClients.custom()
+        .setConnectionManager(httpClientConnectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+            .build())
+        .evictIdleConnections(TimeValue.of(idleTimeout))
+        .disableCookieManagement()
+        .build();
+  }
+}
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -33,6 +34,7 @@ public class SecurityConfigLocal {
         .authorizeHttpRequests(customizer ->
             customizer.requestMatchers(
                     antMatcher("/api/session/current"),
+                    antMatcher(HttpMethod.GET, "/api/avatars/**"),
                     antMatcher("/swagger-ui/**"),
                     antMatcher("/v3/api-docs/**"),
                     antMatcher("/actuator/health"),
@@ -0,0 +1,29 @@
+package guru.qa.niffler.controller;
+
+import guru.qa.niffler.service.api.RestAvatarClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/avatars")
+public class AvatarController {
+
+  private final RestAvatarClient restAvatarClient;
+
+  @Autowired
+  public AvatarController(RestAvatarClient restAvatarClient) {
+    this.restAvatarClient = restAvatarClient;
+  }
+
+  @GetMapping("/{hash:[0-9a-f]{64}}")
+  public ResponseEntity<byte[]> avatar(@PathVariable String hash,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    return restAvatarClient.avatar(hash, ifNoneMatch);
+  }
+}
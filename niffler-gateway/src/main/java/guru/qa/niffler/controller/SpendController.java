@@ -2,12 +2,16 @@ package guru.qa.niffler.controller;
 
 import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.DataFilterValues;
+import guru.qa.niffler.model.ExportFormat;
 import guru.qa.niffler.model.SpendJson;
 import guru.qa.niffler.service.UserDataClient;
 import guru.qa.niffler.service.api.RestSpendClient;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,7 +25,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -52,6 +58,21 @@ public class SpendController {
     return restSpendClient.getSpends(username, filterPeriod, filterCurrency);
   }
 
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportSpends(@AuthenticationPrincipal Jwt principal,
+                                                           @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                           @RequestParam(required = false) DataFilterValues filterPeriod,
+                                                           @RequestParam(required = false) CurrencyValues filterCurrency) {
+    String username = principal.getClaim("sub");
+    return ResponseEntity.ok()
+        .contentType(format.mediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(format.fileName(username), StandardCharsets.UTF_8)
+            .build()
+            .toString())
+        .body(out -> restSpendClient.exportSpends(username, format, filterPeriod, filterCurrency, out));
+  }
+
   @PostMapping("/add")
   @ResponseStatus(HttpStatus.CREATED)
   public SpendJson addSpend(@Valid @RequestBody SpendJson spend,
@@ -1,6 +1,7 @@
 package guru.qa.niffler.controller;
 
 import guru.qa.niffler.model.UserJson;
+import guru.qa.niffler.service.UserCurrencyCache;
 import guru.qa.niffler.service.UserDataClient;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -25,16 +26,21 @@ public class UserController {
   private static final Logger LOG = LoggerFactory.getLogger(UserController.class);
 
   private final UserDataClient userDataClient;
+  private final UserCurrencyCache userCurrencyCache;
 
   @Autowired
-  public UserController(UserDataClient userDataClient) {
+  public UserController(UserDataClient userDataClient,
+                        UserCurrencyCache userCurrencyCache) {
     this.userDataClient = userDataClient;
+    this.userCurrencyCache = userCurrencyCache;
   }
 
   @GetMapping("/current")
   public UserJson currentUser(@AuthenticationPrincipal Jwt principal) {
     String username = principal.getClaim("sub");
-    return userDataClient.currentUser(username);
+    UserJson user = userDataClient.currentUser(username);
+    userCurrencyCache.put(username, user.currency());
+    return user;
   }
 
   @GetMapping("/all")
@@ -48,6 +54,8 @@ public class UserController {
   public UserJson updateUserInfo(@AuthenticationPrincipal Jwt principal,
                                  @Valid @RequestBody UserJson user) {
     String username = principal.getClaim("sub");
-    return userDataClient.updateUserInfo(user.addUsername(username));
+    UserJson updated = userDataClient.updateUserInfo(user.addUsername(username));
+    userCurrencyCache.put(username, updated.currency());
+    return updated;
   }
 }
@@ -51,7 +51,7 @@ public class SpendGraphqlController {
   public SpendJson addSpend(@Valid @Argument SpendInput spend,
                             @AuthenticationPrincipal Jwt principal) {
     String username = principal.getClaim("sub");
-    CurrencyValues userCurrency = userDataClient.currentUser(username).currency();
+    CurrencyValues userCurrency = userDataClient.currentUserCurrency(username).currency();
     if (userCurrency != spend.currency()) {
       throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Spending currency should be same with user currency");
     }
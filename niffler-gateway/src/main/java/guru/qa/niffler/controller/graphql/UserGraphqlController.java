@@ -6,6 +6,7 @@ import guru.qa.niffler.ex.TooManySubQueriesException;
 import guru.qa.niffler.model.UserJson;
 import guru.qa.niffler.model.graphql.UpdateUserInfoInput;
 import guru.qa.niffler.model.graphql.UserJsonGQL;
+import guru.qa.niffler.service.UserCurrencyCache;
 import guru.qa.niffler.service.UserDataClient;
 import jakarta.annotation.Nonnull;
 import jakarta.validation.Valid;
@@ -25,10 +26,13 @@ import java.util.stream.Collectors;
 public class UserGraphqlController {
 
   private final UserDataClient userDataClient;
+  private final UserCurrencyCache userCurrencyCache;
 
   @Autowired
-  public UserGraphqlController(UserDataClient userDataClient) {
+  public UserGraphqlController(UserDataClient userDataClient,
+                               UserCurrencyCache userCurrencyCache) {
     this.userDataClient = userDataClient;
+    this.userCurrencyCache = userCurrencyCache;
   }
 
   @SchemaMapping(typeName = "User", field = "friends")
@@ -45,6 +49,7 @@ public class UserGraphqlController {
     checkSubQueries(env, 2, "friends", "invitations");
     String username = principal.getClaim("sub");
     UserJson userJson = userDataClient.currentUser(username);
+    userCurrencyCache.put(username, userJson.currency());
     return UserJsonGQL.fromUserJson(userJson);
   }
 
@@ -60,7 +65,7 @@ public class UserGraphqlController {
   public UserJsonGQL updateUser(@AuthenticationPrincipal Jwt principal,
                                 @Argument @Valid UpdateUserInfoInput input) {
     String username = principal.getClaim("sub");
-    return UserJsonGQL.fromUserJson(userDataClient.updateUserInfo(new UserJson(
+    UserJson updated = userDataClient.updateUserInfo(new UserJson(
         null,
         username,
         input.firstname(),
@@ -70,7 +75,9 @@ public class UserGraphqlController {
         input.photo(),
         null,
         null
-    )));
+    ));
+    userCurrencyCache.put(username, updated.currency());
+    return UserJsonGQL.fromUserJson(updated);
   }
 
   @MutationMapping
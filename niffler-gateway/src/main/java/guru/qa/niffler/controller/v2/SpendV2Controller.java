@@ -3,6 +3,7 @@ package guru.qa.niffler.controller.v2;
 import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.DataFilterValues;
 import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.model.SpendsSliceJson;
 import guru.qa.niffler.service.api.RestSpendClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -35,4 +36,15 @@ public class SpendV2Controller {
     String username = principal.getClaim("sub");
     return restSpendClient.getSpends(username, pageable, filterPeriod, filterCurrency, searchQuery);
   }
+
+  @GetMapping(value = "/all", params = "cursor")
+  public SpendsSliceJson getSpends(@AuthenticationPrincipal Jwt principal,
+                                   @RequestParam String cursor,
+                                   @RequestParam(defaultValue = "20") int size,
+                                   @RequestParam(required = false) DataFilterValues filterPeriod,
+                                   @RequestParam(required = false) CurrencyValues filterCurrency,
+                                   @RequestParam(required = false) String searchQuery) {
+    String username = principal.getClaim("sub");
+    return restSpendClient.getSpends(username, cursor, size, filterPeriod, filterCurrency, searchQuery);
+  }
 }
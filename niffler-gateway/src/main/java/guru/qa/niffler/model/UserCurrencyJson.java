@@ -0,0 +1,23 @@
+package guru.qa.niffler.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.Nonnull;
+import jaxb.userdata.UserCurrencyResponse;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserCurrencyJson(
+    @JsonProperty("id")
+    UUID id,
+    @JsonProperty("currency")
+    CurrencyValues currency) {
+
+  public static @Nonnull UserCurrencyJson fromJaxb(@Nonnull UserCurrencyResponse response) {
+    return new UserCurrencyJson(
+        response.getId() != null ? UUID.fromString(response.getId()) : null,
+        CurrencyValues.valueOf(response.getCurrency().name())
+    );
+  }
+}
@@ -7,22 +7,50 @@ import guru.qa.niffler.model.StatisticV2Json;
 import guru.qa.niffler.service.api.RestSpendClient;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 @Component
 public class StatisticAggregator {
 
   private final RestSpendClient restSpendClient;
   private final UserDataClient userDataClient;
+  private final UserCurrencyCache userCurrencyCache;
+  private final ExecutorService speculativeExecutor;
 
   @Autowired
   public StatisticAggregator(RestSpendClient restSpendClient,
-                             UserDataClient userDataClient) {
+                             UserDataClient userDataClient,
+                             UserCurrencyCache userCurrencyCache) {
+    this(
+        restSpendClient,
+        userDataClient,
+        userCurrencyCache,
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("speculative-statistic-", 0).factory())
+    );
+  }
+
+  StatisticAggregator(RestSpendClient restSpendClient,
+                      UserDataClient userDataClient,
+                      UserCurrencyCache userCurrencyCache,
+                      ExecutorService speculativeExecutor) {
     this.restSpendClient = restSpendClient;
     this.userDataClient = userDataClient;
+    this.userCurrencyCache = userCurrencyCache;
+    this.speculativeExecutor = speculativeExecutor;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    speculativeExecutor.shutdownNow();
   }
 
   public @Nonnull
@@ -30,10 +58,9 @@ public class StatisticAggregator {
                                              @Nullable CurrencyValues userCurrency,
                                              @Nullable CurrencyValues filterCurrency,
                                              @Nullable DataFilterValues filterPeriod) {
-    userCurrency = userCurrency == null
-        ? userDataClient.currentUser(username).currency()
-        : userCurrency;
-    return restSpendClient.statistic(username, userCurrency, filterCurrency, filterPeriod);
+    return userCurrency != null
+        ? restSpendClient.statistic(username, userCurrency, filterCurrency, filterPeriod)
+        : inUserCurrency(username, currency -> restSpendClient.statistic(username, currency, filterCurrency, filterPeriod));
   }
 
   public @Nonnull
@@ -41,9 +68,53 @@ public class StatisticAggregator {
                                            @Nullable CurrencyValues statCurrency,
                                            @Nullable CurrencyValues filterCurrency,
                                            @Nullable DataFilterValues filterPeriod) {
-    statCurrency = statCurrency == null
-        ? userDataClient.currentUser(username).currency()
-        : statCurrency;
-    return restSpendClient.statisticV2(username, statCurrency, filterCurrency, filterPeriod);
+    return statCurrency != null
+        ? restSpendClient.statisticV2(username, statCurrency, filterCurrency, filterPeriod)
+        : inUserCurrency(username, currency -> restSpendClient.statisticV2(username, currency, filterCurrency, filterPeriod));
+  }
+
+  /**
+   * A fresh cached currency saves the userdata call. An expired one is used as a guess: statistic is requested
+   * in parallel with the user and kept if the currency didn't change, so only a changed or unknown currency costs two serial hops.
+   */
+  private @Nonnull <T> T inUserCurrency(@Nonnull String username,
+                                        @Nonnull Function<CurrencyValues, T> statistic) {
+    final UserCurrencyCache.CachedCurrency cached = userCurrencyCache.get(username);
+    if (cached != null && cached.fresh()) {
+      return statistic.apply(cached.currency());
+    }
+    if (cached == null) {
+      return statistic.apply(currentUserCurrency(username));
+    }
+    final CompletableFuture<T> speculative = CompletableFuture.supplyAsync(
+        () -> statistic.apply(cached.currency()),
+        speculativeExecutor
+    );
+    final CompletableFuture<CurrencyValues> actualCurrency = CompletableFuture.supplyAsync(
+        () -> currentUserCurrency(username),
+        speculativeExecutor
+    );
+    return join(actualCurrency.thenCompose(
+        currency -> currency == cached.currency()
+            ? speculative
+            : CompletableFuture.supplyAsync(() -> statistic.apply(currency), speculativeExecutor)
+    ));
+  }
+
+  private @Nonnull CurrencyValues currentUserCurrency(@Nonnull String username) {
+    final CurrencyValues currency = userDataClient.currentUserCurrency(username).currency();
+    userCurrencyCache.put(username, currency);
+    return currency;
+  }
+
+  private static @Nonnull <T> T join(@Nonnull CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
   }
 }
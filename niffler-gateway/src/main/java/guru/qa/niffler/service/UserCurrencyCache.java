@@ -0,0 +1,80 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.model.CurrencyValues;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of user currencies, filled by every user read or update passing through the gateway.
+ * Entries older than `ttl` are not trusted but kept as a guess until evicted, see {@link StatisticAggregator}.
+ */
+@Component
+public class UserCurrencyCache {
+
+  private static final String CACHE_NAME = "user-currency";
+
+  private final Duration ttl;
+  private final Clock clock;
+  private final Map<String, Entry> entries;
+  private final Counter hits;
+  private final Counter expired;
+  private final Counter misses;
+
+  @Autowired
+  public UserCurrencyCache(@Value("${niffler-gateway.user-currency.cache.ttl:PT10S}") Duration ttl,
+                           @Value("${niffler-gateway.user-currency.cache.max-size:10000}") int maxSize,
+                           MeterRegistry meterRegistry) {
+    this(ttl, maxSize, meterRegistry, Clock.systemUTC());
+  }
+
+  UserCurrencyCache(Duration ttl, int maxSize, MeterRegistry meterRegistry, Clock clock) {
+    this.ttl = ttl;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxSize;
+      }
+    };
+    this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+    this.expired = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "expired").register(meterRegistry);
+    this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+  }
+
+  public synchronized @Nullable
+  CachedCurrency get(@Nonnull String username) {
+    Entry entry = entries.get(username);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    final boolean fresh = clock.instant().isBefore(entry.expiresAt());
+    (fresh ? hits : expired).increment();
+    return new CachedCurrency(entry.currency(), fresh);
+  }
+
+  public synchronized void put(@Nonnull String username, @Nullable CurrencyValues currency) {
+    if (currency == null) {
+      entries.remove(username);
+    } else {
+      entries.put(username, new Entry(currency, clock.instant().plus(ttl)));
+    }
+  }
+
+  public record CachedCurrency(@Nonnull CurrencyValues currency, boolean fresh) {
+  }
+
+  private record Entry(@Nonnull CurrencyValues currency, @Nonnull Instant expiresAt) {
+  }
+}
@@ -1,5 +1,6 @@
 package guru.qa.niffler.service;
 
+import guru.qa.niffler.model.UserCurrencyJson;
 import guru.qa.niffler.model.UserJson;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -13,6 +14,12 @@ public interface UserDataClient {
   @Nonnull
   UserJson currentUser(@Nonnull String username);
 
+  /**
+   * Id and currency only, for call sites that don't need the rest of the user and its photo
+   */
+  @Nonnull
+  UserCurrencyJson currentUserCurrency(@Nonnull String username);
+
   @Nonnull
   UserJson updateUserInfo(@Nonnull UserJson user);
 
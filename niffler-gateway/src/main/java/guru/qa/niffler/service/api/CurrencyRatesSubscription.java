@@ -0,0 +1,73 @@
+package guru.qa.niffler.service.api;
+
+import guru.qa.niffler.grpc.Currency;
+import guru.qa.niffler.grpc.CurrencyRatesSubscriber;
+import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc.NifflerCurrencyServiceStub;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Keeps {@link GrpcCurrencyClient} currencies hot with SubscribeRates stream, see {@link CurrencyRatesSubscriber}
+ */
+@Component
+@ConditionalOnProperty(prefix = "niffler-currency.rates", name = "subscribe", havingValue = "true", matchIfMissing = true)
+public class CurrencyRatesSubscription implements SmartLifecycle, CurrencyRatesSubscriber.Listener {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CurrencyRatesSubscription.class);
+
+  private final GrpcCurrencyClient grpcCurrencyClient;
+  private final Duration reconnectDelay;
+
+  private NifflerCurrencyServiceStub nifflerCurrencyServiceStub;
+  private CurrencyRatesSubscriber subscriber;
+
+  @Autowired
+  public CurrencyRatesSubscription(GrpcCurrencyClient grpcCurrencyClient,
+                                   @Value("${niffler-currency.rates.reconnect-delay:PT5S}") Duration reconnectDelay) {
+    this.grpcCurrencyClient = grpcCurrencyClient;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  @GrpcClient("grpcCurrencyClient")
+  public void setNifflerCurrencyServiceStub(NifflerCurrencyServiceStub nifflerCurrencyServiceStub) {
+    this.nifflerCurrencyServiceStub = nifflerCurrencyServiceStub;
+  }
+
+  @Override
+  public void start() {
+    subscriber = new CurrencyRatesSubscriber(nifflerCurrencyServiceStub, this, reconnectDelay);
+    subscriber.start();
+  }
+
+  @Override
+  public void stop() {
+    if (subscriber != null) {
+      subscriber.stop();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return subscriber != null && subscriber.isRunning();
+  }
+
+  @Override
+  public void onRates(List<Currency> currencies) {
+    grpcCurrencyClient.onRatesPushed(currencies);
+  }
+
+  @Override
+  public void onLost(Throwable cause) {
+    LOG.warn("### Currency rates subscription lost: {}", cause == null ? "completed by server" : cause.getMessage());
+    grpcCurrencyClient.onRatesSubscriptionLost();
+  }
+}
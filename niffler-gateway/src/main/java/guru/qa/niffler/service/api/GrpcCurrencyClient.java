@@ -2,6 +2,7 @@ package guru.qa.niffler.service.api;
 
 
 import com.google.protobuf.Empty;
+import guru.qa.niffler.grpc.Currency;
 import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc;
 import guru.qa.niffler.model.CurrencyJson;
 import io.grpc.StatusRuntimeException;
@@ -24,8 +25,14 @@ public class GrpcCurrencyClient {
   @GrpcClient("grpcCurrencyClient")
   private NifflerCurrencyServiceGrpc.NifflerCurrencyServiceBlockingStub nifflerCurrencyServiceStub;
 
+  private volatile List<CurrencyJson> subscribedCurrencies;
+
   public @Nonnull
   List<CurrencyJson> getAllCurrencies() {
+    List<CurrencyJson> currencies = subscribedCurrencies;
+    if (currencies != null) {
+      return currencies;
+    }
     try {
       return nifflerCurrencyServiceStub.getAllCurrencies(EMPTY).getAllCurrenciesList()
           .stream()
@@ -36,4 +43,14 @@ public class GrpcCurrencyClient {
       throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The gRPC operation was cancelled", e);
     }
   }
+
+  void onRatesPushed(@Nonnull List<Currency> currencies) {
+    subscribedCurrencies = currencies.stream()
+        .map(CurrencyJson::fromGrpcMessage)
+        .toList();
+  }
+
+  void onRatesSubscriptionLost() {
+    subscribedCurrencies = null;
+  }
 }
@@ -0,0 +1,60 @@
+package guru.qa.niffler.service.api;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+/**
+ * Avatars are always read over REST, even with SOAP userdata client: they are raw bytes with HTTP caching headers
+ */
+@Component
+public class RestAvatarClient {
+
+  private static final List<String> PROXIED_HEADERS = List.of(
+      HttpHeaders.CONTENT_TYPE,
+      HttpHeaders.ETAG,
+      HttpHeaders.CACHE_CONTROL
+  );
+
+  private final RestTemplate restTemplate;
+  private final String nifflerUserdataApiUri;
+
+  @Autowired
+  public RestAvatarClient(RestTemplate restTemplate,
+                          @Value("${niffler-userdata.base-uri}") String nifflerUserdataBaseUri) {
+    this.restTemplate = restTemplate;
+    this.nifflerUserdataApiUri = nifflerUserdataBaseUri + "/internal";
+  }
+
+  public @Nonnull
+  ResponseEntity<byte[]> avatar(@Nonnull String hash, @Nullable String ifNoneMatch) {
+    HttpHeaders requestHeaders = new HttpHeaders();
+    if (ifNoneMatch != null) {
+      requestHeaders.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+    }
+    ResponseEntity<byte[]> response = restTemplate.exchange(
+        nifflerUserdataApiUri + "/avatars/{hash}",
+        HttpMethod.GET,
+        new HttpEntity<>(requestHeaders),
+        byte[].class,
+        hash
+    );
+    HttpHeaders responseHeaders = new HttpHeaders();
+    for (String header : PROXIED_HEADERS) {
+      List<String> values = response.getHeaders().get(header);
+      if (values != null) {
+        responseHeaders.put(header, values);
+      }
+    }
+    return new ResponseEntity<>(response.getBody(), responseHeaders, response.getStatusCode());
+  }
+}
@@ -4,7 +4,9 @@ import guru.qa.niffler.ex.NoRestResponseException;
 import guru.qa.niffler.model.CategoryJson;
 import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.DataFilterValues;
+import guru.qa.niffler.model.ExportFormat;
 import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.model.SpendsSliceJson;
 import guru.qa.niffler.model.StatisticJson;
 import guru.qa.niffler.model.StatisticV2Json;
 import guru.qa.niffler.model.page.RestPage;
@@ -14,9 +16,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
@@ -122,6 +126,49 @@ public class RestSpendClient {
     ).orElseThrow(() -> new NoRestResponseException("No REST Page<SpendJson> response is given [/v2/spends/all/ Route]"));
   }
 
+  public @Nonnull
+  SpendsSliceJson getSpends(@Nonnull String username,
+                            @Nonnull String cursor,
+                            int size,
+                            @Nullable DataFilterValues filterPeriod,
+                            @Nullable CurrencyValues filterCurrency,
+                            @Nullable String searchQuery) {
+    return Optional.ofNullable(
+        restTemplate.getForObject(
+            nifflerSpendApiUri + "/v2/spends/all?username={username}&cursor={cursor}&size={size}&from={from}&to={to}&filterCurrency={filterCurrency}&searchQuery={searchQuery}",
+            SpendsSliceJson.class,
+            username,
+            cursor,
+            size,
+            filterPeriod != null ? dateFormat(filterDate(filterPeriod)) : null,
+            filterPeriod != null ? dateFormat(new Date()) : null,
+            filterCurrency != null ? filterCurrency.name() : null,
+            searchQuery
+        )
+    ).orElseThrow(() -> new NoRestResponseException("No REST SpendsSliceJson response is given [/v2/spends/all/ Route]"));
+  }
+
+  /**
+   * Copies the export of niffler-spend to `out` as it arrives, the body is never buffered
+   */
+  public void exportSpends(@Nonnull String username,
+                           @Nonnull ExportFormat format,
+                           @Nullable DataFilterValues filterPeriod,
+                           @Nullable CurrencyValues filterCurrency,
+                           @Nonnull OutputStream out) {
+    restTemplate.execute(
+        nifflerSpendApiUri + "/spends/export?username={username}&format={format}&from={from}&to={to}&filterCurrency={filterCurrency}",
+        HttpMethod.GET,
+        null,
+        response -> response.getBody().transferTo(out),
+        username,
+        format.name(),
+        filterPeriod != null ? dateFormat(filterDate(filterPeriod)) : null,
+        filterPeriod != null ? dateFormat(new Date()) : null,
+        filterCurrency != null ? filterCurrency.name() : null
+    );
+  }
+
   public @Nonnull
   SpendJson addSpend(@Nonnull SpendJson spend) {
     return Optional.ofNullable(
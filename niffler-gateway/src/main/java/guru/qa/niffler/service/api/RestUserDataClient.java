@@ -1,6 +1,7 @@
 package guru.qa.niffler.service.api;
 
 import guru.qa.niffler.ex.NoRestResponseException;
+import guru.qa.niffler.model.UserCurrencyJson;
 import guru.qa.niffler.model.UserJson;
 import guru.qa.niffler.model.page.RestPage;
 import guru.qa.niffler.service.UserDataClient;
@@ -44,6 +45,18 @@ public class RestUserDataClient implements UserDataClient {
     ).orElseThrow(() -> new NoRestResponseException("No REST UserJson response is given [/users/current/ Route]"));
   }
 
+  @Nonnull
+  @Override
+  public UserCurrencyJson currentUserCurrency(@Nonnull String username) {
+    return Optional.ofNullable(
+        restTemplate.getForObject(
+            nifflerUserdataApiUri + "/users/currency?username={username}",
+            UserCurrencyJson.class,
+            username
+        )
+    ).orElseThrow(() -> new NoRestResponseException("No REST UserCurrencyJson response is given [/users/currency/ Route]"));
+  }
+
   @Nonnull
   @Override
   public UserJson updateUserInfo(@Nonnull UserJson user) {
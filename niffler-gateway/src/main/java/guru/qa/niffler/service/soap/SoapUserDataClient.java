@@ -1,6 +1,7 @@
 package guru.qa.niffler.service.soap;
 
 import guru.qa.niffler.ex.NoSoapResponseException;
+import guru.qa.niffler.model.UserCurrencyJson;
 import guru.qa.niffler.model.UserJson;
 import guru.qa.niffler.service.UserDataClient;
 import jakarta.annotation.Nonnull;
@@ -15,6 +16,8 @@ import jaxb.userdata.FriendsRequest;
 import jaxb.userdata.RemoveFriendRequest;
 import jaxb.userdata.SendInvitationRequest;
 import jaxb.userdata.UpdateUserRequest;
+import jaxb.userdata.UserCurrencyRequest;
+import jaxb.userdata.UserCurrencyResponse;
 import jaxb.userdata.UserResponse;
 import jaxb.userdata.UsersResponse;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -43,6 +46,17 @@ public class SoapUserDataClient extends WebServiceGatewaySupport implements User
     return UserJson.fromJaxb(response.getUser());
   }
 
+  @Override
+  public @Nonnull
+  UserCurrencyJson currentUserCurrency(@Nonnull String username) {
+    UserCurrencyRequest request = new UserCurrencyRequest();
+    request.setUsername(username);
+
+    UserCurrencyResponse response = sendAndReceive(UserCurrencyResponse.class, request);
+
+    return UserCurrencyJson.fromJaxb(response);
+  }
+
   @Override
   public @Nonnull
   UserJson updateUserInfo(@Nonnull UserJson user) {
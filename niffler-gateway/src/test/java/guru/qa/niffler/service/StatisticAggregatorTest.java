@@ -0,0 +1,111 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.StatisticV2Json;
+import guru.qa.niffler.model.UserCurrencyJson;
+import guru.qa.niffler.service.api.RestSpendClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticAggregatorTest {
+
+  private static final StatisticV2Json STATISTIC_IN_RUB = new StatisticV2Json(100.0, CurrencyValues.RUB, List.of());
+  private static final StatisticV2Json STATISTIC_IN_USD = new StatisticV2Json(1.0, CurrencyValues.USD, List.of());
+
+  private final ExecutorService speculativeExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().factory());
+
+  private RestSpendClient restSpendClient;
+  private UserDataClient userDataClient;
+  private UserCurrencyCache userCurrencyCache;
+  private StatisticAggregator statisticAggregator;
+
+  @BeforeEach
+  void setUp(@Mock RestSpendClient restSpendClient,
+             @Mock UserDataClient userDataClient,
+             @Mock UserCurrencyCache userCurrencyCache) {
+    this.restSpendClient = restSpendClient;
+    this.userDataClient = userDataClient;
+    this.userCurrencyCache = userCurrencyCache;
+    this.statisticAggregator = new StatisticAggregator(restSpendClient, userDataClient, userCurrencyCache, speculativeExecutor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    statisticAggregator.shutdown();
+  }
+
+  @Test
+  void freshCurrencyShouldSaveUserdataCall() {
+    when(userCurrencyCache.get("dima")).thenReturn(new UserCurrencyCache.CachedCurrency(CurrencyValues.RUB, true));
+    when(restSpendClient.statisticV2("dima", CurrencyValues.RUB, null, null)).thenReturn(STATISTIC_IN_RUB);
+
+    assertSame(STATISTIC_IN_RUB, statisticAggregator.enrichStatisticRequestV2("dima", null, null, null));
+    verify(userDataClient, never()).currentUserCurrency(anyString());
+  }
+
+  @Test
+  void unknownCurrencyShouldBeRequestedBeforeStatistic() {
+    when(userDataClient.currentUserCurrency("dima")).thenReturn(new UserCurrencyJson(null, CurrencyValues.USD));
+    when(restSpendClient.statisticV2("dima", CurrencyValues.USD, null, null)).thenReturn(STATISTIC_IN_USD);
+
+    assertSame(STATISTIC_IN_USD, statisticAggregator.enrichStatisticRequestV2("dima", null, null, null));
+    verify(userCurrencyCache).put("dima", CurrencyValues.USD);
+  }
+
+  @Test
+  void expiredUnchangedCurrencyShouldKeepSpeculativeStatistic() {
+    when(userCurrencyCache.get("dima")).thenReturn(new UserCurrencyCache.CachedCurrency(CurrencyValues.RUB, false));
+    when(userDataClient.currentUserCurrency("dima")).thenReturn(new UserCurrencyJson(null, CurrencyValues.RUB));
+    when(restSpendClient.statisticV2("dima", CurrencyValues.RUB, null, null)).thenReturn(STATISTIC_IN_RUB);
+
+    assertSame(STATISTIC_IN_RUB, statisticAggregator.enrichStatisticRequestV2("dima", null, null, null));
+    verify(restSpendClient).statisticV2("dima", CurrencyValues.RUB, null, null);
+    verify(userCurrencyCache).put("dima", CurrencyValues.RUB);
+  }
+
+  @Test
+  void expiredChangedCurrencyShouldRefetchStatistic() {
+    when(userCurrencyCache.get("dima")).thenReturn(new UserCurrencyCache.CachedCurrency(CurrencyValues.RUB, false));
+    when(userDataClient.currentUserCurrency("dima")).thenReturn(new UserCurrencyJson(null, CurrencyValues.USD));
+    when(restSpendClient.statisticV2("dima", CurrencyValues.RUB, null, null)).thenReturn(STATISTIC_IN_RUB);
+    when(restSpendClient.statisticV2("dima", CurrencyValues.USD, null, null)).thenReturn(STATISTIC_IN_USD);
+
+    assertSame(STATISTIC_IN_USD, statisticAggregator.enrichStatisticRequestV2("dima", null, null, null));
+    // speculative statistic in the outdated currency is requested concurrently and discarded
+    verify(restSpendClient, timeout(1000)).statisticV2("dima", CurrencyValues.RUB, null, null);
+    verify(userCurrencyCache).put("dima", CurrencyValues.USD);
+  }
+
+  @Test
+  void requestedCurrencyShouldSkipCache() {
+    when(restSpendClient.statistic("dima", CurrencyValues.EUR, null, null)).thenReturn(List.of());
+
+    assertEquals(List.of(), statisticAggregator.enrichStatisticRequest("dima", CurrencyValues.EUR, null, null));
+    verify(userCurrencyCache, never()).get(anyString());
+  }
+
+  @Test
+  void speculativeExecutorShouldBeClosedOnShutdown() {
+    statisticAggregator.shutdown();
+
+    assertTrue(speculativeExecutor.isShutdown());
+  }
+}
@@ -0,0 +1,64 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.model.CurrencyValues;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UserCurrencyCacheTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private MutableClock clock;
+  private UserCurrencyCache userCurrencyCache;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    userCurrencyCache = new UserCurrencyCache(Duration.ofSeconds(10), 2, meterRegistry, clock);
+  }
+
+  @Test
+  void expiredCurrencyShouldBeKeptAsGuess() {
+    assertNull(userCurrencyCache.get("dima"));
+
+    userCurrencyCache.put("dima", CurrencyValues.USD);
+    assertEquals(new UserCurrencyCache.CachedCurrency(CurrencyValues.USD, true), userCurrencyCache.get("dima"));
+
+    clock.advance(Duration.ofSeconds(10));
+    assertEquals(new UserCurrencyCache.CachedCurrency(CurrencyValues.USD, false), userCurrencyCache.get("dima"));
+
+    userCurrencyCache.put("dima", CurrencyValues.EUR);
+    assertEquals(new UserCurrencyCache.CachedCurrency(CurrencyValues.EUR, true), userCurrencyCache.get("dima"));
+
+    assertEquals(2.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+    assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "expired").counter().count());
+    assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  void unknownCurrencyShouldRemoveEntry() {
+    userCurrencyCache.put("dima", CurrencyValues.USD);
+    userCurrencyCache.put("dima", null);
+
+    assertNull(userCurrencyCache.get("dima"));
+  }
+
+  @Test
+  void leastRecentlyUsedUserShouldBeEvicted() {
+    userCurrencyCache.put("dima", CurrencyValues.USD);
+    userCurrencyCache.put("duck", CurrencyValues.EUR);
+    userCurrencyCache.get("dima");
+    userCurrencyCache.put("barsik", CurrencyValues.KZT);
+
+    assertEquals(CurrencyValues.USD, userCurrencyCache.get("dima").currency());
+    assertNull(userCurrencyCache.get("duck"));
+    assertEquals(CurrencyValues.KZT, userCurrencyCache.get("barsik").currency());
+  }
+}
@@ -0,0 +1,96 @@
+package guru.qa.niffler.grpc;
+
+import com.google.protobuf.Empty;
+import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc.NifflerCurrencyServiceStub;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SubscribeRates stream client of niffler-spend and niffler-gateway: passes every pushed snapshot to the listener
+ * and reconnects after `reconnectDelay` while it is running.
+ */
+public class CurrencyRatesSubscriber {
+
+  private static final Empty EMPTY = Empty.getDefaultInstance();
+
+  private final NifflerCurrencyServiceStub stub;
+  private final Listener listener;
+  private final Duration reconnectDelay;
+  private final ScheduledExecutorService reconnectExecutor = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("currency-rates-subscription").daemon().factory()
+  );
+
+  private volatile ClientCallStreamObserver<Empty> call;
+  private volatile boolean running;
+
+  public CurrencyRatesSubscriber(NifflerCurrencyServiceStub stub, Listener listener, Duration reconnectDelay) {
+    this.stub = stub;
+    this.listener = listener;
+    this.reconnectDelay = reconnectDelay;
+  }
+
+  public void start() {
+    running = true;
+    subscribe();
+  }
+
+  public void stop() {
+    running = false;
+    reconnectExecutor.shutdownNow();
+    ClientCallStreamObserver<Empty> current = call;
+    if (current != null) {
+      current.cancel("Application is stopping", null);
+    }
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void subscribe() {
+    stub.subscribeRates(EMPTY, new ClientResponseObserver<Empty, CurrencyResponse>() {
+      @Override
+      public void beforeStart(ClientCallStreamObserver<Empty> requestStream) {
+        call = requestStream;
+      }
+
+      @Override
+      public void onNext(CurrencyResponse value) {
+        listener.onRates(value.getAllCurrenciesList());
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        resubscribe(t);
+      }
+
+      @Override
+      public void onCompleted() {
+        resubscribe(null);
+      }
+    });
+  }
+
+  private void resubscribe(Throwable cause) {
+    listener.onLost(cause);
+    if (running) {
+      reconnectExecutor.schedule(this::subscribe, reconnectDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  public interface Listener {
+
+    void onRates(List<Currency> currencies);
+
+    /**
+     * @param cause stream error, or null if the stream was completed by server
+     */
+    void onLost(Throwable cause);
+  }
+}
@@ -0,0 +1,32 @@
+package guru.qa.niffler.load;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * Stand-in for a Niffler service whose requests mostly wait on a downstream call,
+ * as the gateway does on RestTemplate, SOAP and gRPC clients
+ */
+@SpringBootApplication
+public class BlockingServiceApplication {
+
+  @RestController
+  static class BlockingController {
+
+    private final Duration downstreamLatency;
+
+    BlockingController(@Value("${niffler-load.downstream-latency:PT0.05S}") Duration downstreamLatency) {
+      this.downstreamLatency = downstreamLatency;
+    }
+
+    @GetMapping("/blocking")
+    public String blocking() throws InterruptedException {
+      Thread.sleep(downstreamLatency);
+      return "OK";
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package guru.qa.niffler.load;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load: every worker is a virtual thread sending the same request again as soon as the previous one completes,
+ * so the client itself never limits concurrency. Only requests completed after the warmup are measured.
+ */
+final class LoadGenerator {
+
+  private static final int MAX_LATENCY_MILLIS = 60_000;
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+
+  @Nonnull
+  LoadResult run(@Nonnull String name,
+                 @Nonnull HttpRequest request,
+                 int concurrency,
+                 @Nonnull Duration warmup,
+                 @Nonnull Duration duration) throws InterruptedException {
+    final long measureFrom = System.nanoTime() + warmup.toNanos();
+    final long measureTo = measureFrom + duration.toNanos();
+    final LongAdder requests = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final AtomicLongArray latencies = new AtomicLongArray(MAX_LATENCY_MILLIS + 1);
+
+    List<Thread> workers = new ArrayList<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      workers.add(Thread.ofVirtual().name("load-", i).start(() -> {
+        long started;
+        while ((started = System.nanoTime()) < measureTo) {
+          boolean success;
+          try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+          } catch (IOException e) {
+            success = false;
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          final long finished = System.nanoTime();
+          if (started >= measureFrom && finished <= measureTo) {
+            requests.increment();
+            if (!success) {
+              errors.increment();
+            }
+            latencies.incrementAndGet((int) Math.min(TimeUnit.NANOSECONDS.toMillis(finished - started), MAX_LATENCY_MILLIS));
+          }
+        }
+      }));
+    }
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return new LoadResult(
+        name,
+        concurrency,
+        requests.sum(),
+        errors.sum(),
+        duration,
+        percentile(latencies, requests.sum(), 0.5),
+        percentile(latencies, requests.sum(), 0.99)
+    );
+  }
+
+  private static long percentile(@Nonnull AtomicLongArray latencies, long count, double percentile) {
+    final long rank = (long) Math.ceil(count * percentile);
+    long seen = 0;
+    for (int millis = 0; millis < latencies.length(); millis++) {
+      seen += latencies.get(millis);
+      if (seen >= rank && seen > 0) {
+        return millis;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,26 @@
+package guru.qa.niffler.load;
+
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+
+public record LoadResult(@Nonnull String name,
+                         int concurrency,
+                         long requests,
+                         long errors,
+                         @Nonnull Duration duration,
+                         long p50Millis,
+                         long p99Millis) {
+
+  public double throughput() {
+    return requests * 1000.0 / duration.toMillis();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%s: concurrency %d, %d requests, %d errors, %.0f req/s, p50 %d ms, p99 %d ms",
+        name, concurrency, requests, errors, throughput(), p50Millis, p99Millis
+    );
+  }
+}
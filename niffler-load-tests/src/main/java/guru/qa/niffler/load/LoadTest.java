@@ -0,0 +1,91 @@
+package guru.qa.niffler.load;
+
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Throughput at high concurrency with and without virtual threads, arguments are `key=value` pairs:
+ * <ul>
+ *   <li>without `url` {@link BlockingServiceApplication} is started twice, with `spring.threads.virtual.enabled` false and true;</li>
+ *   <li>with `url` a running service is loaded, start it once per mode with `SPRING_THREADS_VIRTUAL_ENABLED=false|true`;
+ *   `authorization` is sent as the Authorization header, e.g. `authorization="Bearer ..."` for niffler-gateway.</li>
+ * </ul>
+ * Common arguments: `concurrency` (1000), `warmup` (PT5S), `duration` (PT20S) and `downstream-latency` (PT0.05S) of the stand-in service.
+ */
+public class LoadTest {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+  public static void main(String[] args) throws InterruptedException {
+    final Map<String, String> arguments = parse(args);
+    final int concurrency = Integer.parseInt(arguments.getOrDefault("concurrency", "1000"));
+    final Duration warmup = Duration.parse(arguments.getOrDefault("warmup", "PT5S"));
+    final Duration duration = Duration.parse(arguments.getOrDefault("duration", "PT20S"));
+    final LoadGenerator loadGenerator = new LoadGenerator();
+
+    final String url = arguments.get("url");
+    if (url != null) {
+      HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+      if (arguments.containsKey("authorization")) {
+        request.header("Authorization", arguments.get("authorization"));
+      }
+      LOG.info("### {}", loadGenerator.run(url, request.build(), concurrency, warmup, duration));
+      return;
+    }
+
+    final String downstreamLatency = arguments.getOrDefault("downstream-latency", "PT0.05S");
+    LoadResult platform = loadStandIn(loadGenerator, false, downstreamLatency, concurrency, warmup, duration);
+    LoadResult virtual = loadStandIn(loadGenerator, true, downstreamLatency, concurrency, warmup, duration);
+    LOG.info("### Downstream latency {}", downstreamLatency);
+    LOG.info("### {}", platform);
+    LOG.info("### {}", virtual);
+    LOG.info("### Virtual threads throughput is x{}", String.format("%.1f", virtual.throughput() / platform.throughput()));
+  }
+
+  private static @Nonnull LoadResult loadStandIn(@Nonnull LoadGenerator loadGenerator,
+                                                 boolean virtualThreads,
+                                                 @Nonnull String downstreamLatency,
+                                                 int concurrency,
+                                                 @Nonnull Duration warmup,
+                                                 @Nonnull Duration duration) throws InterruptedException {
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BlockingServiceApplication.class)
+        .bannerMode(Banner.Mode.OFF)
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + virtualThreads,
+            "niffler-load.downstream-latency=" + downstreamLatency
+        )
+        .run()) {
+      final String port = context.getEnvironment().getRequiredProperty("local.server.port");
+      return loadGenerator.run(
+          virtualThreads ? "virtual threads" : "platform threads",
+          HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + "/blocking")).GET().build(),
+          concurrency,
+          warmup,
+          duration
+      );
+    }
+  }
+
+  private static @Nonnull Map<String, String> parse(@Nonnull String[] args) {
+    Map<String, String> arguments = new HashMap<>();
+    for (String arg : args) {
+      final int separator = arg.indexOf('=');
+      if (separator < 1) {
+        throw new IllegalArgumentException("Argument must be key=value: " + arg);
+      }
+      arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    return arguments;
+  }
+}
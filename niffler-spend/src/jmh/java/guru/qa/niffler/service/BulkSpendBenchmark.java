@@ -0,0 +1,94 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.NifflerSpendApplication;
+import guru.qa.niffler.data.repository.SpendDailyAggregateRepository;
+import guru.qa.niffler.data.repository.SpendRepository;
+import guru.qa.niffler.model.BulkSpendResultJson;
+import guru.qa.niffler.model.CategoryJson;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.SpendJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spends saved per second on the in-memory H2 of the `test` profile: one `saveSpendForUser` call per row
+ * against a single `saveSpendsForUser` call for the whole statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkSpendBenchmark {
+
+  private static final int ROWS = 1000;
+  private static final String USERNAME = "bulk-benchmark";
+
+  private ConfigurableApplicationContext context;
+  private SpendService spendService;
+  private List<SpendJson> spends;
+
+  @Setup
+  public void setUp() {
+    context = new SpringApplicationBuilder(NifflerSpendApplication.class)
+        .web(WebApplicationType.NONE)
+        .profiles("test")
+        .run();
+    spendService = context.getBean(SpendService.class);
+
+    final String[] categories = {"Бар", "Рыбалка", "Обучение", "Продукты"};
+    final long now = System.currentTimeMillis();
+    spends = new ArrayList<>(ROWS);
+    for (int i = 0; i < ROWS; i++) {
+      spends.add(new SpendJson(
+          null,
+          new Date(now - TimeUnit.DAYS.toMillis(i % 30)),
+          new CategoryJson(null, categories[i % categories.length], USERNAME, false),
+          CurrencyValues.RUB,
+          100.0 + i,
+          "Выписка",
+          USERNAME
+      ));
+    }
+  }
+
+  @TearDown(Level.Iteration)
+  public void cleanUp() {
+    context.getBean(SpendRepository.class).deleteAllInBatch();
+    context.getBean(SpendDailyAggregateRepository.class).deleteAllInBatch();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void singleRowSaves(Blackhole blackhole) {
+    for (SpendJson spend : spends) {
+      blackhole.consume(spendService.saveSpendForUser(spend));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public List<BulkSpendResultJson> bulkSave() {
+    return spendService.saveSpendsForUser(spends.iterator());
+  }
+}
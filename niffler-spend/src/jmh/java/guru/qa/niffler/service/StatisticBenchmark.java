@@ -0,0 +1,98 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.data.projection.SumByCategoryInfo;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.StatisticJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Aggregation of dateFrom, total and totalInUserDefaultCurrency over synthetic rows already converted to user currency.
+ * `functionChain` reproduces the previous implementation: three {@link StatisticJson} copies and BigDecimal adds per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticBenchmark {
+
+  @Param({"10000", "100000"})
+  private int rowsCount;
+
+  private StatService statService;
+  private StatisticJson defaultStatistic;
+  private List<SumByCategoryInfo> sortedRows;
+  private List<BigDecimal> rowsInUserCurrency;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    long now = System.currentTimeMillis();
+    sortedRows = new ArrayList<>(rowsCount);
+    rowsInUserCurrency = new ArrayList<>(rowsCount);
+    for (int i = 0; i < rowsCount; i++) {
+      Date spendDate = new Date(now - TimeUnit.MINUTES.toMillis(rowsCount - i));
+      double amount = BigDecimal.valueOf(random.nextInt(1_000_000), 2).doubleValue();
+      sortedRows.add(new SumByCategory("Category " + i, CurrencyValues.RUB, amount, spendDate, spendDate));
+      rowsInUserCurrency.add(BigDecimal.valueOf(amount / 75.0).setScale(2, RoundingMode.HALF_UP));
+    }
+    statService = new StatService(null, null, null, Runnable::run);
+    defaultStatistic = statService.createDefaultStatisticJson(CurrencyValues.RUB, CurrencyValues.USD, new Date(now));
+  }
+
+  @Benchmark
+  public StatisticJson functionChain() {
+    StatisticJson statistic = defaultStatistic;
+    for (int i = 0; i < sortedRows.size(); i++) {
+      final SumByCategoryInfo row = sortedRows.get(i);
+      statistic = totalInUserCurrency(
+          total(
+              dateFrom(
+                  statistic
+              ).apply(row)
+          ).apply(row)
+      ).apply(rowsInUserCurrency.get(i));
+    }
+    return statistic;
+  }
+
+  @Benchmark
+  public StatisticJson singlePass() {
+    return statService.calculateStatistic(defaultStatistic, sortedRows, rowsInUserCurrency);
+  }
+
+  private static Function<SumByCategoryInfo, StatisticJson> dateFrom(StatisticJson statistic) {
+    return row -> (statistic.dateFrom() == null)
+        ? new StatisticJson(row.firstSpendDate(), statistic.dateTo(), statistic.currency(), statistic.total(),
+        statistic.userDefaultCurrency(), statistic.totalInUserDefaultCurrency(), statistic.categoryStatistics())
+        : statistic;
+  }
+
+  private static Function<SumByCategoryInfo, StatisticJson> total(StatisticJson statistic) {
+    return row -> new StatisticJson(statistic.dateFrom(), statistic.dateTo(), statistic.currency(),
+        BigDecimal.valueOf(statistic.total()).add(BigDecimal.valueOf(row.sum())).doubleValue(),
+        statistic.userDefaultCurrency(), statistic.totalInUserDefaultCurrency(), statistic.categoryStatistics());
+  }
+
+  private static Function<BigDecimal, StatisticJson> totalInUserCurrency(StatisticJson statistic) {
+    return spendInUserCurrency -> new StatisticJson(statistic.dateFrom(), statistic.dateTo(), statistic.currency(),
+        statistic.total(), statistic.userDefaultCurrency(),
+        BigDecimal.valueOf(statistic.totalInUserDefaultCurrency()).add(spendInUserCurrency).doubleValue(),
+        statistic.categoryStatistics());
+  }
+}
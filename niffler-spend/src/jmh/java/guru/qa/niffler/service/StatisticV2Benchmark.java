@@ -0,0 +1,159 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.data.projection.SumByCategoryInfo;
+import guru.qa.niffler.model.CurrencyAmount;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.StatisticV2Json;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregation of v2 statistic over synthetic (category, currency) rows, conversion is a fixed rate without gRPC.
+ * `groupingBy` reproduces the previous implementation: wrapper per converted row, HashMap of lists
+ * and an aggregate recalculating its sum by stream on every comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticV2Benchmark {
+
+  private static final double RATE = 0.75;
+
+  @Param({"9", "100"})
+  private int categoriesCount;
+
+  private List<SumByCategoryInfo> rows;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    long now = System.currentTimeMillis();
+    rows = new ArrayList<>();
+    for (int i = 0; i < categoriesCount; i++) {
+      for (CurrencyValues currency : CurrencyValues.values()) {
+        Date first = new Date(now - TimeUnit.DAYS.toMillis(random.nextInt(365)));
+        Date last = new Date(first.getTime() + TimeUnit.DAYS.toMillis(random.nextInt(30)));
+        double amount = BigDecimal.valueOf(random.nextInt(1_000_000), 2).doubleValue();
+        rows.add(new SumByCategory(i == 0 ? "Archived" : "Category " + i, currency, amount, first, last));
+      }
+    }
+  }
+
+  @Benchmark
+  public StatisticV2Json groupingBy() {
+    final CurrencyValues userCurrency = CurrencyValues.RUB;
+    List<BigDecimal> calculated = convert(rows.stream()
+        .filter(row -> row.currency() != userCurrency)
+        .map(row -> new CurrencyAmount(row.sum(), row.currency()))
+        .toList());
+    List<SumByCategoryInfo> inUserCurrency = new ArrayList<>(rows.size());
+    int next = 0;
+    for (SumByCategoryInfo row : rows) {
+      inUserCurrency.add(row.currency() != userCurrency
+          ? new InUserCurrency(row, userCurrency, calculated.get(next++).setScale(2, RoundingMode.HALF_UP).doubleValue())
+          : row);
+    }
+    List<SumByCategoryInfo> result = new ArrayList<>();
+    for (List<SumByCategoryInfo> delegates : inUserCurrency.stream()
+        .collect(Collectors.groupingBy(SumByCategoryInfo::categoryName, HashMap::new, Collectors.toCollection(ArrayList::new)))
+        .values()) {
+      result.add(new Aggregate(delegates));
+    }
+    result.sort(Comparator.comparing((SumByCategoryInfo p) -> !p.categoryName().equals("Archived"))
+        .thenComparing(SumByCategoryInfo::sum).reversed());
+    return new StatisticV2Json(
+        result.stream()
+            .map(SumByCategoryInfo::sum)
+            .map(BigDecimal::valueOf)
+            .reduce(BigDecimal.ZERO, BigDecimal::add)
+            .setScale(2, RoundingMode.HALF_UP)
+            .doubleValue(),
+        userCurrency,
+        result
+    );
+  }
+
+  @Benchmark
+  public StatisticV2Json aggregator() {
+    StatisticV2Aggregator aggregator = new StatisticV2Aggregator(CurrencyValues.RUB);
+    for (SumByCategoryInfo row : rows) {
+      aggregator.add(row);
+    }
+    return aggregator.toStatistic(convert(aggregator.amountsToConvert()));
+  }
+
+  private static List<BigDecimal> convert(List<CurrencyAmount> amounts) {
+    List<BigDecimal> result = new ArrayList<>(amounts.size());
+    for (CurrencyAmount amount : amounts) {
+      result.add(BigDecimal.valueOf(amount.amount() * RATE));
+    }
+    return result;
+  }
+
+  private record InUserCurrency(SumByCategoryInfo delegate,
+                                CurrencyValues currency,
+                                double sum) implements SumByCategoryInfo {
+    @Override
+    public String categoryName() {
+      return delegate.categoryName();
+    }
+
+    @Override
+    public Date firstSpendDate() {
+      return delegate.firstSpendDate();
+    }
+
+    @Override
+    public Date lastSpendDate() {
+      return delegate.lastSpendDate();
+    }
+  }
+
+  private record Aggregate(List<SumByCategoryInfo> delegates) implements SumByCategoryInfo {
+    @Override
+    public String categoryName() {
+      return delegates.getFirst().categoryName();
+    }
+
+    @Override
+    public CurrencyValues currency() {
+      return delegates.getFirst().currency();
+    }
+
+    @Override
+    public double sum() {
+      return BigDecimal.valueOf(
+          delegates.stream().map(SumByCategoryInfo::sum).reduce(0.0, Double::sum)
+      ).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    @Override
+    public Date firstSpendDate() {
+      return Collections.min(delegates.stream().map(SumByCategoryInfo::firstSpendDate).toList());
+    }
+
+    @Override
+    public Date lastSpendDate() {
+      return Collections.max(delegates.stream().map(SumByCategoryInfo::lastSpendDate).toList());
+    }
+  }
+}
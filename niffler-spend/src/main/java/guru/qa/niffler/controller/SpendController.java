@@ -1,11 +1,20 @@
 package guru.qa.niffler.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.qa.niffler.model.BulkSpendResultJson;
 import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.ExportFormat;
 import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.service.SpendExportService;
 import guru.qa.niffler.service.SpendService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -16,7 +25,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.List;
 
@@ -25,10 +38,16 @@ import java.util.List;
 public class SpendController {
 
   private final SpendService spendService;
+  private final SpendExportService spendExportService;
+  private final ObjectMapper objectMapper;
 
   @Autowired
-  public SpendController(SpendService spendService) {
+  public SpendController(SpendService spendService,
+                         SpendExportService spendExportService,
+                         ObjectMapper objectMapper) {
     this.spendService = spendService;
+    this.spendExportService = spendExportService;
+    this.objectMapper = objectMapper;
   }
 
   @GetMapping("/{id}")
@@ -45,12 +64,37 @@ public class SpendController {
     return spendService.getSpendsForUser(username, filterCurrency, from, to);
   }
 
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportSpends(@RequestParam String username,
+                                                           @RequestParam(defaultValue = "CSV") ExportFormat format,
+                                                           @RequestParam(required = false) CurrencyValues filterCurrency,
+                                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") Date from,
+                                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") Date to) {
+    return ResponseEntity.ok()
+        .contentType(format.mediaType())
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(format.fileName(username), StandardCharsets.UTF_8)
+            .build()
+            .toString())
+        .body(out -> spendExportService.exportSpends(username, format, filterCurrency, from, to, out));
+  }
+
   @PostMapping("/add")
   @ResponseStatus(HttpStatus.CREATED)
   public SpendJson addSpend(@RequestBody SpendJson spend) {
     return spendService.saveSpendForUser(spend);
   }
 
+  /**
+   * Body is a JSON array of spends, read element by element instead of being bound to a list
+   */
+  @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public List<BulkSpendResultJson> addSpends(InputStream body) throws IOException {
+    try (MappingIterator<SpendJson> spends = objectMapper.readerFor(SpendJson.class).readValues(body)) {
+      return spendService.saveSpendsForUser(spends);
+    }
+  }
+
   @PatchMapping("/edit")
   public SpendJson editSpend(@RequestBody SpendJson spend) {
     return spendService.editSpendForUser(spend);
@@ -4,6 +4,8 @@ import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.StatisticJson;
 import guru.qa.niffler.service.StatService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -29,7 +31,18 @@ public class StatController {
                                           @RequestParam CurrencyValues userCurrency,
                                           @RequestParam(required = false) CurrencyValues filterCurrency,
                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") Date from,
-                                          @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") Date to) {
-    return statService.getStatistic(username, userCurrency, filterCurrency, from, to);
+                                          @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") Date to,
+                                          @RequestParam(required = false) Integer page,
+                                          @RequestParam(required = false) Integer size) {
+    return statService.getStatistic(username, userCurrency, filterCurrency, from, to, spendsPageable(page, size));
+  }
+
+  /**
+   * Spends of each category are embedded completely, as before paging support, unless the client asks for a page
+   */
+  private static Pageable spendsPageable(Integer page, Integer size) {
+    return size == null
+        ? Pageable.unpaged()
+        : PageRequest.of(page == null ? 0 : page, size);
   }
 }
@@ -2,6 +2,7 @@ package guru.qa.niffler.controller.v2;
 
 import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.model.SpendsSliceJson;
 import guru.qa.niffler.service.SpendService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -35,4 +36,15 @@ public class SpendV2Controller {
                                    @RequestParam(required = false) String searchQuery) {
     return spendService.getSpendsForUser(username, pageable, filterCurrency, from, to, searchQuery);
   }
+
+  @GetMapping(value = "/all", params = "cursor")
+  public SpendsSliceJson getSpends(@RequestParam String username,
+                                   @RequestParam String cursor,
+                                   @RequestParam(defaultValue = "20") int size,
+                                   @RequestParam(required = false) CurrencyValues filterCurrency,
+                                   @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") Date from,
+                                   @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") Date to,
+                                   @RequestParam(required = false) String searchQuery) {
+    return spendService.getSpendsForUser(username, cursor, size, filterCurrency, from, to, searchQuery);
+  }
 }
@@ -0,0 +1,73 @@
+package guru.qa.niffler.data;
+
+import guru.qa.niffler.model.CurrencyValues;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Sum and count of spends of one user in one category and currency per day.
+ * Kept in sync with `spend` by {@link guru.qa.niffler.service.SpendService} in the same transaction.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "spend_daily_aggregate")
+@IdClass(SpendDailyAggregateId.class)
+public class SpendDailyAggregateEntity implements Serializable {
+
+  @Id
+  @Column(nullable = false)
+  private String username;
+
+  @Id
+  @Column(name = "category_id", nullable = false)
+  private UUID categoryId;
+
+  @Id
+  @Column(nullable = false)
+  @Enumerated(EnumType.STRING)
+  private CurrencyValues currency;
+
+  @Id
+  @Column(name = "spend_date", columnDefinition = "DATE", nullable = false)
+  private Date spendDate;
+
+  @Column(nullable = false, precision = 38, scale = 10)
+  private BigDecimal amount;
+
+  @Column(name = "spends_count", nullable = false)
+  private long spendsCount;
+
+  @Override
+  public final boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null) return false;
+    Class<?> oEffectiveClass = o instanceof HibernateProxy ? ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+    Class<?> thisEffectiveClass = this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+    if (thisEffectiveClass != oEffectiveClass) return false;
+    SpendDailyAggregateEntity that = (SpendDailyAggregateEntity) o;
+    return getUsername() != null && Objects.equals(getUsername(), that.getUsername())
+        && getCategoryId() != null && Objects.equals(getCategoryId(), that.getCategoryId())
+        && getCurrency() != null && getCurrency() == that.getCurrency()
+        && getSpendDate() != null && Objects.equals(getSpendDate(), that.getSpendDate());
+  }
+
+  @Override
+  public final int hashCode() {
+    return Objects.hash(username, categoryId, currency, spendDate);
+  }
+}
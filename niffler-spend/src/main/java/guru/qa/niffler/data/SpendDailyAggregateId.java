@@ -0,0 +1,34 @@
+package guru.qa.niffler.data;
+
+import guru.qa.niffler.model.CurrencyValues;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+@Getter
+@Setter
+public class SpendDailyAggregateId implements Serializable {
+
+  private String username;
+  private UUID categoryId;
+  private CurrencyValues currency;
+  private Date spendDate;
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SpendDailyAggregateId that = (SpendDailyAggregateId) o;
+    return Objects.equals(username, that.username) && Objects.equals(categoryId, that.categoryId)
+        && currency == that.currency && Objects.equals(spendDate, that.spendDate);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(username, categoryId, currency, spendDate);
+  }
+}
@@ -9,8 +9,9 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -26,10 +27,13 @@ import static jakarta.persistence.CascadeType.PERSIST;
 @Getter
 @Setter
 @Entity
-@Table(name = "spend")
+@Table(name = "spend", indexes = {
+    @Index(name = "ix_spend_username_spend_date_id", columnList = "username, spend_date desc, id desc"),
+    @Index(name = "ix_spend_username_currency_spend_date_id", columnList = "username, currency, spend_date desc, id desc")
+})
 public class SpendEntity implements Serializable {
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.UUID)
   @Column(name = "id", nullable = false, columnDefinition = "UUID default gen_random_uuid()")
   private UUID id;
 
@@ -49,7 +53,7 @@ public class SpendEntity implements Serializable {
   @Column(nullable = false)
   private String description;
 
-  @OneToOne(fetch = FetchType.EAGER, cascade = PERSIST)
+  @ManyToOne(fetch = FetchType.LAZY, cascade = PERSIST)
   @JoinColumn(name = "category_id", referencedColumnName = "id")
   private CategoryEntity category;
 
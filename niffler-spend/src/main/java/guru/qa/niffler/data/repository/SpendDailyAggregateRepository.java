@@ -0,0 +1,88 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.data.SpendDailyAggregateEntity;
+import guru.qa.niffler.data.SpendDailyAggregateId;
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.model.CurrencyValues;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.TemporalType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.Temporal;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+public interface SpendDailyAggregateRepository extends JpaRepository<SpendDailyAggregateEntity, SpendDailyAggregateId> {
+
+  /**
+   * Atomic upsert: INSERT ... ON CONFLICT DO UPDATE on Postgres, so concurrent first spends of a day are summed up
+   */
+  @Modifying
+  @Query(
+      "insert into SpendDailyAggregateEntity as a (username, categoryId, currency, spendDate, amount, spendsCount) " +
+          "values (:username, :categoryId, :currency, :spendDate, :amount, :spendsCount) " +
+          "on conflict (username, categoryId, currency, spendDate) do update " +
+          "set amount = a.amount + excluded.amount, spendsCount = a.spendsCount + excluded.spendsCount"
+  )
+  void add(
+      @Nonnull String username,
+      @Nonnull UUID categoryId,
+      @Nonnull CurrencyValues currency,
+      @Nonnull @Temporal(TemporalType.DATE) Date spendDate,
+      @Nonnull BigDecimal amount,
+      long spendsCount
+  );
+
+  @Modifying
+  @Query(
+      "update SpendDailyAggregateEntity a set a.amount = a.amount + :amount, a.spendsCount = a.spendsCount + :spendsCount " +
+          "where a.username = :username and a.categoryId = :categoryId and a.currency = :currency and a.spendDate = :spendDate"
+  )
+  int increment(
+      @Nonnull String username,
+      @Nonnull UUID categoryId,
+      @Nonnull CurrencyValues currency,
+      @Nonnull @Temporal(TemporalType.DATE) Date spendDate,
+      @Nonnull BigDecimal amount,
+      long spendsCount
+  );
+
+  @Modifying
+  @Query(
+      "delete from SpendDailyAggregateEntity a " +
+          "where a.username = :username and a.categoryId = :categoryId and a.currency = :currency and a.spendDate = :spendDate " +
+          "and a.spendsCount <= 0"
+  )
+  void deleteEmpty(
+      @Nonnull String username,
+      @Nonnull UUID categoryId,
+      @Nonnull CurrencyValues currency,
+      @Nonnull @Temporal(TemporalType.DATE) Date spendDate
+  );
+
+  @Query(
+      "SELECT new guru.qa.niffler.data.projection.SumByCategory('Archived', a.currency, cast(ROUND(SUM(a.amount), 2) as double), MIN(a.spendDate), MAX(a.spendDate)) from SpendDailyAggregateEntity a join CategoryEntity c on a.categoryId = c.id " +
+          "where a.username = :username and c.archived = true and a.spendDate >= :dateFrom and a.spendDate <= :dateTo " +
+          "group by a.currency"
+  )
+  List<SumByCategory> statisticByArchivedCategory(
+      @Nonnull String username,
+      @Nonnull Date dateFrom,
+      @Nonnull Date dateTo
+  );
+
+  @Query(
+      "SELECT new guru.qa.niffler.data.projection.SumByCategory(c.name, a.currency, cast(ROUND(SUM(a.amount), 2) as double), MIN(a.spendDate), MAX(a.spendDate)) from SpendDailyAggregateEntity a join CategoryEntity c on a.categoryId = c.id " +
+          "where a.username = :username and c.archived = false and a.spendDate >= :dateFrom and a.spendDate <= :dateTo " +
+          "group by c.name, a.currency"
+  )
+  List<SumByCategory> statisticByCategory(
+      @Nonnull String username,
+      @Nonnull Date dateFrom,
+      @Nonnull Date dateTo
+  );
+}
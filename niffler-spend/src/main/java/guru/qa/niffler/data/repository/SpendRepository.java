@@ -1,55 +1,138 @@
 package guru.qa.niffler.data.repository;
 
 import guru.qa.niffler.data.SpendEntity;
-import guru.qa.niffler.data.projection.SumByCategory;
 import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.SpendJson;
 import jakarta.annotation.Nonnull;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface SpendRepository extends JpaRepository<SpendEntity, UUID> {
 
+  /**
+   * Constructor expression for list queries: rows go to {@link SpendJson} without managed entities
+   */
+  String SPEND_JSON = "select new guru.qa.niffler.model.SpendJson(" +
+      "s.id, s.spendDate, c.id, c.name, c.archived, s.currency, s.amount, s.description, s.username) ";
+
+  /**
+   * Search by spend description or category name, each one in its own subquery: Postgres can't serve
+   * an `or` over two joined tables by their trigram indexes
+   */
+  String SEARCH = "and (s.id in (select sd.id from SpendEntity sd where sd.username = :username " +
+      "and lower(sd.description) like lower(concat('%', :searchQuery, '%'))) " +
+      "or c.id in (select sc.id from CategoryEntity sc " +
+      "where lower(sc.name) like lower(concat('%', :searchQuery, '%')))) ";
+
+  String STREAM_FETCH_SIZE = "500";
+
   @Nonnull
   Optional<SpendEntity> findByIdAndUsername(@Nonnull UUID id, @Nonnull String username);
 
+  /**
+   * Page of spends taken from each (currency, category) group separately, archived categories are one group.
+   * Spends inside a group are ordered by date, as they are embedded into statistic.
+   */
+  @Nonnull
+  @Query(
+      nativeQuery = true,
+      value = "select s.* from (" +
+          "select sp.*, row_number() over (" +
+          "partition by sp.currency, case when c.archived then 'Archived' else c.name end " +
+          "order by sp.spend_date, sp.id) as rn " +
+          "from spend sp join category c on sp.category_id = c.id " +
+          "where sp.username = :username and sp.currency in (:currencies) " +
+          "and sp.spend_date >= :dateFrom and sp.spend_date <= :dateTo" +
+          ") s where s.rn > :offset and s.rn <= :offset + :limit " +
+          "order by s.spend_date, s.id"
+  )
+  List<SpendEntity> findPageByCategories(
+      @Nonnull String username,
+      @Nonnull Collection<String> currencies,
+      @Nonnull Date dateFrom,
+      @Nonnull Date dateTo,
+      long offset,
+      int limit
+  );
+
+  @Nonnull
   @Query(
-      "SELECT new guru.qa.niffler.data.projection.SumByCategory('Archived', s.currency, ROUND(SUM(s.amount), 2), MIN(s.spendDate), MAX(s.spendDate))  FROM SpendEntity s join CategoryEntity c on s.category = c " +
-          "where s.username = :username and s.category.archived = true and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
-          "group by s.currency"
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "order by s.spendDate desc"
   )
-  List<SumByCategory> statisticByArchivedCategory(
+  List<SpendJson> findAllSpends(
       @Nonnull String username,
       @Nonnull Date dateFrom,
       @Nonnull Date dateTo
   );
 
+  @Nonnull
   @Query(
-      "SELECT new guru.qa.niffler.data.projection.SumByCategory(c.name, s.currency, ROUND(SUM(s.amount), 2), MIN(s.spendDate), MAX(s.spendDate))  from SpendEntity s join CategoryEntity c on s.category = c " +
-          "where s.username = :username and s.category.archived = false and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
-          "group by c.name, s.currency"
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.currency = :currency " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "order by s.spendDate desc"
   )
-  List<SumByCategory> statisticByCategory(
+  List<SpendJson> findAllSpends(
       @Nonnull String username,
+      @Nonnull CurrencyValues currency,
       @Nonnull Date dateFrom,
       @Nonnull Date dateTo
   );
 
+  /**
+   * Forward-only cursor over spends, must be consumed and closed inside a transaction
+   */
   @Nonnull
-  List<SpendEntity> findAllByUsernameAndSpendDateGreaterThanEqualAndSpendDateLessThanEqualOrderBySpendDateDesc(
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+      @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query(
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "order by s.spendDate desc, s.id desc"
+  )
+  Stream<SpendJson> streamAllSpends(
       @Nonnull String username,
       @Nonnull Date dateFrom,
       @Nonnull Date dateTo
   );
 
+  /**
+   * Forward-only cursor over spends, must be consumed and closed inside a transaction
+   */
   @Nonnull
-  List<SpendEntity> findAllByUsernameAndCurrencyAndSpendDateGreaterThanEqualAndSpendDateLessThanEqualOrderBySpendDateDesc(
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+      @QueryHint(name = HINT_READ_ONLY, value = "true")
+  })
+  @Query(
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.currency = :currency " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "order by s.spendDate desc, s.id desc"
+  )
+  Stream<SpendJson> streamAllSpends(
       @Nonnull String username,
       @Nonnull CurrencyValues currency,
       @Nonnull Date dateFrom,
@@ -58,13 +141,56 @@ public interface SpendRepository extends JpaRepository<SpendEntity, UUID> {
 
   @Nonnull
   @Query(
-      "select s from SpendEntity s left join CategoryEntity c on s.category = c " +
+      value = SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "order by s.spendDate desc",
+      countQuery = "select count(s) from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo "
+  )
+  Page<SpendJson> findAll(
+      @Nonnull String username,
+      @Nonnull Date dateFrom,
+      @Nonnull Date dateTo,
+      @Nonnull Pageable pageable
+  );
+
+  @Nonnull
+  @Query(
+      value = SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          SEARCH +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "order by s.spendDate desc",
+      countQuery = "select count(s) from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          SEARCH +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo "
+  )
+  Page<SpendJson> findAll(
+      @Nonnull String username,
+      @Nonnull Date dateFrom,
+      @Nonnull Date dateTo,
+      @Nonnull String searchQuery,
+      @Nonnull Pageable pageable
+  );
+
+  @Nonnull
+  @Query(
+      value = SPEND_JSON + "from SpendEntity s left join s.category c " +
           "where s.username = :username " +
+          "and s.currency = :currency " +
           "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
-          "order by s.spendDate desc "
+          "order by s.spendDate desc",
+      countQuery = "select count(s) from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.currency = :currency " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo "
   )
-  Page<SpendEntity> findAll(
+  Page<SpendJson> findAll(
       @Nonnull String username,
+      @Nonnull CurrencyValues currency,
       @Nonnull Date dateFrom,
       @Nonnull Date dateTo,
       @Nonnull Pageable pageable
@@ -72,53 +198,107 @@ public interface SpendRepository extends JpaRepository<SpendEntity, UUID> {
 
   @Nonnull
   @Query(
-      "select s from SpendEntity s left join CategoryEntity c on s.category = c " +
+      value = SPEND_JSON + "from SpendEntity s left join s.category c " +
           "where s.username = :username " +
-          "and (lower(s.description) like lower(concat('%', :searchQuery, '%')) or lower(c.name) like lower(concat('%', :searchQuery, '%')))" +
+          "and s.currency = :currency " +
+          SEARCH +
           "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
-          "order by s.spendDate desc "
+          "order by s.spendDate desc",
+      countQuery = "select count(s) from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.currency = :currency " +
+          SEARCH +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo "
   )
-  Page<SpendEntity> findAll(
+  Page<SpendJson> findAll(
       @Nonnull String username,
+      @Nonnull CurrencyValues currency,
       @Nonnull Date dateFrom,
       @Nonnull Date dateTo,
       @Nonnull String searchQuery,
       @Nonnull Pageable pageable
   );
 
+  /**
+   * Keyset page: spends strictly after the cursor in (spendDate desc, id desc) order, without count query.
+   * The cursor is compared as a row value, so the seek is a single range of the (username, spend_date desc, id desc) index.
+   */
   @Nonnull
   @Query(
-      "select s from SpendEntity s left join CategoryEntity c on s.category = c " +
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "and (s.spendDate, s.id) < (:cursorDate, :cursorId) " +
+          "order by s.spendDate desc, s.id desc"
+  )
+  List<SpendJson> findAllAfter(
+      @Nonnull String username,
+      @Nonnull Date dateFrom,
+      @Nonnull Date dateTo,
+      @Nonnull Date cursorDate,
+      @Nonnull UUID cursorId,
+      @Nonnull Pageable pageable
+  );
+
+  @Nonnull
+  @Query(
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
+          "where s.username = :username " +
+          SEARCH +
+          "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
+          "and (s.spendDate, s.id) < (:cursorDate, :cursorId) " +
+          "order by s.spendDate desc, s.id desc"
+  )
+  List<SpendJson> findAllAfter(
+      @Nonnull String username,
+      @Nonnull Date dateFrom,
+      @Nonnull Date dateTo,
+      @Nonnull String searchQuery,
+      @Nonnull Date cursorDate,
+      @Nonnull UUID cursorId,
+      @Nonnull Pageable pageable
+  );
+
+  @Nonnull
+  @Query(
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
           "where s.username = :username " +
           "and s.currency = :currency " +
           "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
-          "order by s.spendDate desc "
+          "and (s.spendDate, s.id) < (:cursorDate, :cursorId) " +
+          "order by s.spendDate desc, s.id desc"
   )
-  Page<SpendEntity> findAll(
+  List<SpendJson> findAllAfter(
       @Nonnull String username,
       @Nonnull CurrencyValues currency,
       @Nonnull Date dateFrom,
       @Nonnull Date dateTo,
+      @Nonnull Date cursorDate,
+      @Nonnull UUID cursorId,
       @Nonnull Pageable pageable
   );
 
   @Nonnull
   @Query(
-      "select s from SpendEntity s left join CategoryEntity c on s.category = c " +
+      SPEND_JSON + "from SpendEntity s left join s.category c " +
           "where s.username = :username " +
           "and s.currency = :currency " +
-          "and (lower(s.description) like lower(concat('%', :searchQuery, '%')) or lower(c.name) like lower(concat('%', :searchQuery, '%')))" +
+          SEARCH +
           "and s.spendDate >= :dateFrom and s.spendDate <= :dateTo " +
-          "order by s.spendDate desc "
+          "and (s.spendDate, s.id) < (:cursorDate, :cursorId) " +
+          "order by s.spendDate desc, s.id desc"
   )
-  Page<SpendEntity> findAll(
+  List<SpendJson> findAllAfter(
       @Nonnull String username,
       @Nonnull CurrencyValues currency,
       @Nonnull Date dateFrom,
       @Nonnull Date dateTo,
       @Nonnull String searchQuery,
+      @Nonnull Date cursorDate,
+      @Nonnull UUID cursorId,
       @Nonnull Pageable pageable
   );
 
-  void deleteByUsernameAndIdIn(@Nonnull String username, @Nonnull List<UUID> ids);
+  @Nonnull
+  List<SpendEntity> findAllByUsernameAndIdIn(@Nonnull String username, @Nonnull List<UUID> ids);
 }
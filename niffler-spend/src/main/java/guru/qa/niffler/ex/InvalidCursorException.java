@@ -0,0 +1,7 @@
+package guru.qa.niffler.ex;
+
+public class InvalidCursorException extends RuntimeException {
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,15 @@
+package guru.qa.niffler.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.UUID;
+
+public record BulkSpendResultJson(
+    @JsonProperty("index")
+    int index,
+    @JsonProperty("id")
+    UUID id,
+    @JsonProperty("error")
+    String error) {
+
+}
@@ -0,0 +1,8 @@
+package guru.qa.niffler.model;
+
+import jakarta.annotation.Nonnull;
+
+public record CurrencyAmount(double amount,
+                             @Nonnull CurrencyValues currency) {
+
+}
@@ -0,0 +1,28 @@
+package guru.qa.niffler.model;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+public enum ExportFormat {
+  CSV(new MediaType("text", "csv", StandardCharsets.UTF_8)),
+  NDJSON(MediaType.APPLICATION_NDJSON);
+
+  private final MediaType mediaType;
+
+  ExportFormat(MediaType mediaType) {
+    this.mediaType = mediaType;
+  }
+
+  public @Nonnull MediaType mediaType() {
+    return mediaType;
+  }
+
+  /**
+   * Name of the attachment, may contain any characters of the username
+   */
+  public @Nonnull String fileName(@Nonnull String username) {
+    return "spends-" + username + "." + name().toLowerCase();
+  }
+}
@@ -24,23 +24,55 @@ public record SpendJson(
     @JsonProperty("username")
     String username) {
 
+  /**
+   * Used by JPQL constructor expressions, which can`t build the nested {@link CategoryJson}
+   */
+  public SpendJson(UUID id,
+                   Date spendDate,
+                   UUID categoryId,
+                   String categoryName,
+                   boolean categoryArchived,
+                   CurrencyValues currency,
+                   Double amount,
+                   String description,
+                   String username) {
+    this(
+        id,
+        spendDate,
+        new CategoryJson(categoryId, categoryName, username, categoryArchived),
+        currency,
+        amount,
+        description,
+        username
+    );
+  }
+
   public static @Nonnull SpendJson fromEntity(@Nonnull SpendEntity entity) {
     final CategoryEntity category = entity.getCategory();
-    final String username = entity.getUsername();
 
-    return new SpendJson(
-        entity.getId(),
-        entity.getSpendDate(),
+    return fromEntity(
+        entity,
         new CategoryJson(
             category.getId(),
             category.getName(),
-            username,
+            entity.getUsername(),
             category.isArchived()
-        ),
+        )
+    );
+  }
+
+  /**
+   * @param category already known category of the spend, the lazy category of the entity is not loaded
+   */
+  public static @Nonnull SpendJson fromEntity(@Nonnull SpendEntity entity, @Nonnull CategoryJson category) {
+    return new SpendJson(
+        entity.getId(),
+        entity.getSpendDate(),
+        category,
         entity.getCurrency(),
         entity.getAmount(),
         entity.getDescription(),
-        username
+        entity.getUsername()
     );
   }
 
@@ -0,0 +1,13 @@
+package guru.qa.niffler.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record SpendsSliceJson(
+    @JsonProperty("content")
+    List<SpendJson> content,
+    @JsonProperty("nextCursor")
+    String nextCursor) {
+
+}
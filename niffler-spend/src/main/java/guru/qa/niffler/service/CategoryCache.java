@@ -0,0 +1,117 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.model.CategoryJson;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of all categories of a user.
+ * Local changes invalidate the user entry, changes made by other spend pods are seen after `ttl` at most.
+ */
+@Component
+public class CategoryCache {
+
+  private static final String CACHE_NAME = "categories";
+
+  private final Duration ttl;
+  private final Clock clock;
+  private final Map<String, Entry> entries;
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  private long invalidations;
+
+  @Autowired
+  public CategoryCache(@Value("${niffler-spend.categories.cache.ttl:PT10S}") Duration ttl,
+                       @Value("${niffler-spend.categories.cache.max-size:10000}") int maxSize,
+                       MeterRegistry meterRegistry) {
+    this(ttl, maxSize, meterRegistry, Clock.systemUTC());
+  }
+
+  CategoryCache(Duration ttl, int maxSize, MeterRegistry meterRegistry, Clock clock) {
+    this.ttl = ttl;
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        if (size() > maxSize) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+    this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").register(meterRegistry);
+    this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss").register(meterRegistry);
+    this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME).register(meterRegistry);
+    Gauge.builder("cache.size", this, CategoryCache::size).tag("cache", CACHE_NAME).register(meterRegistry);
+  }
+
+  /**
+   * @param loader reads categories from the database on a miss, its result is not cached if the cache was invalidated meanwhile
+   */
+  @Nonnull
+  List<CategoryJson> get(@Nonnull String username, @Nonnull Supplier<List<CategoryJson>> loader) {
+    final long version;
+    synchronized (this) {
+      Entry entry = entries.get(username);
+      if (entry != null && clock.instant().isBefore(entry.expiresAt())) {
+        hits.increment();
+        return entry.categories();
+      }
+      version = invalidations;
+    }
+    misses.increment();
+    List<CategoryJson> categories = List.copyOf(loader.get());
+    synchronized (this) {
+      if (version == invalidations) {
+        entries.put(username, new Entry(categories, clock.instant().plus(ttl)));
+      }
+    }
+    return categories;
+  }
+
+  /**
+   * Removes the user entry now and once more after the current transaction completes,
+   * so a snapshot read by a concurrent request before the commit doesn't stay in the cache
+   */
+  void invalidate(@Nonnull String username) {
+    evict(username);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evict(username);
+        }
+      });
+    }
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private synchronized void evict(@Nonnull String username) {
+    invalidations++;
+    entries.remove(username);
+  }
+
+  private record Entry(@Nonnull List<CategoryJson> categories, @Nonnull Instant expiresAt) {
+  }
+}
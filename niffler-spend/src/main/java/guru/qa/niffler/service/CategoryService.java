@@ -13,7 +13,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class CategoryService {
@@ -23,19 +26,26 @@ public class CategoryService {
   private static final Logger LOG = LoggerFactory.getLogger(CategoryService.class);
   private static final int MAX_CATEGORIES_SIZE = 7;
   private final CategoryRepository categoryRepository;
+  private final CategoryCache categoryCache;
 
   @Autowired
-  public CategoryService(CategoryRepository categoryRepository) {
+  public CategoryService(CategoryRepository categoryRepository, CategoryCache categoryCache) {
     this.categoryRepository = categoryRepository;
+    this.categoryCache = categoryCache;
   }
 
   @Transactional(readOnly = true)
   public @Nonnull
   List<CategoryJson> getAllCategories(@Nonnull String username, boolean excludeArchived) {
-    return categoryRepository.findAllByUsernameOrderByName(username)
+    return categoryCache.get(
+            username,
+            () -> categoryRepository.findAllByUsernameOrderByName(username)
+                .stream()
+                .map(CategoryJson::fromEntity)
+                .toList()
+        )
         .stream()
-        .filter(ce -> !excludeArchived || !ce.isArchived())
-        .map(CategoryJson::fromEntity)
+        .filter(c -> !excludeArchived || !c.archived())
         .toList();
   }
 
@@ -61,13 +71,18 @@ public class CategoryService {
       }
     }
     categoryEntity.setArchived(category.archived());
-    return CategoryJson.fromEntity(categoryRepository.save(categoryEntity));
+    CategoryEntity saved = categoryRepository.save(categoryEntity);
+    categoryCache.invalidate(saved.getUsername());
+    return CategoryJson.fromEntity(saved);
   }
 
   @Transactional
   public @Nonnull
   CategoryJson getOrAddCategory(@Nonnull CategoryJson category) {
-    return CategoryJson.fromEntity(getOrSave(category));
+    return getAllCategories(category.username(), false).stream()
+        .filter(c -> c.name().equals(category.name()))
+        .findFirst()
+        .orElseGet(() -> CategoryJson.fromEntity(getOrSave(category)));
   }
 
   @Transactional
@@ -76,6 +91,14 @@ public class CategoryService {
     return CategoryJson.fromEntity(this.save(category));
   }
 
+  /**
+   * Uninitialized proxy of a known category, setting it to a spend doesn't load the category
+   */
+  @Nonnull
+  CategoryEntity reference(@Nonnull CategoryJson category) {
+    return categoryRepository.getReferenceById(category.id());
+  }
+
   @Nonnull
   @Transactional
   CategoryEntity getOrSave(@Nonnull CategoryJson category) {
@@ -83,26 +106,66 @@ public class CategoryService {
         .orElseGet(() -> this.save(category));
   }
 
+  /**
+   * Bulk variant of {@link #getOrSave(CategoryJson)}: one select of all user categories, inserts only for missing names.
+   * Names which can`t be added are absent in the result, all existing categories of the user are present.
+   */
+  @Nonnull
+  @Transactional
+  Map<String, CategoryEntity> getOrSaveAll(@Nonnull String username, @Nonnull Collection<String> names) {
+    Map<String, CategoryEntity> result = new HashMap<>();
+    long activeCount = 0;
+    for (CategoryEntity ce : categoryRepository.findAllByUsernameOrderByName(username)) {
+      result.put(ce.getName(), ce);
+      if (!ce.isArchived()) {
+        activeCount++;
+      }
+    }
+
+    for (String categoryName : names) {
+      if (result.containsKey(categoryName)) {
+        continue;
+      }
+      try {
+        validateNewCategory(username, categoryName, activeCount);
+      } catch (InvalidCategoryNameException | TooManyCategoriesException e) {
+        continue;
+      }
+      result.put(categoryName, insert(username, categoryName));
+      activeCount++;
+    }
+    return result;
+  }
+
   @Nonnull
   @Transactional
   CategoryEntity save(@Nonnull CategoryJson category) {
     final String username = category.username();
     final String categoryName = category.name();
 
+    validateNewCategory(username, categoryName, categoryRepository.countByUsernameAndArchived(username, false));
+    return insert(username, categoryName);
+  }
+
+  private void validateNewCategory(@Nonnull String username, @Nonnull String categoryName, long activeCount) {
     if (categoryName.trim().equalsIgnoreCase(ARCHIVED_CATEGORY_NAME)) {
       LOG.error("### Can`t add category with name: {}", categoryName);
       throw new InvalidCategoryNameException("Can`t add category with name: '" + categoryName + "'");
     }
 
-    if (categoryRepository.countByUsernameAndArchived(username, false) > MAX_CATEGORIES_SIZE) {
+    if (activeCount > MAX_CATEGORIES_SIZE) {
       LOG.error("### Can`t add over than 8 categories for user: {}", username);
       throw new TooManyCategoriesException("Can`t add over than 8 categories for user: '" + username + "'");
     }
+  }
 
+  private @Nonnull CategoryEntity insert(@Nonnull String username, @Nonnull String categoryName) {
     CategoryEntity ce = new CategoryEntity();
     ce.setName(categoryName);
     ce.setUsername(username);
     ce.setArchived(false);
-    return categoryRepository.save(ce);
+    CategoryEntity saved = categoryRepository.save(ce);
+    categoryCache.invalidate(username);
+    return saved;
   }
 }
@@ -0,0 +1,89 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.grpc.Currency;
+import guru.qa.niffler.model.CurrencyValues;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable NxN cross-rate table indexed by {@link CurrencyValues#ordinal()}.
+ * Each cell keeps the multiplier and divisor of niffler-currency `convertSpendTo` (rate to USD of both currencies)
+ * instead of their quotient, so local results are equal to the server ones up to the last HALF_UP digit.
+ */
+public final class CurrencyRateMatrix {
+
+  private static final CurrencyValues[] CURRENCIES = CurrencyValues.values();
+
+  private final CrossRate[][] crossRates;
+  private final Instant expiresAt;
+
+  private CurrencyRateMatrix(CrossRate[][] crossRates, Instant expiresAt) {
+    this.crossRates = crossRates;
+    this.expiresAt = expiresAt;
+  }
+
+  public static @Nonnull CurrencyRateMatrix fromGrpcMessages(@Nonnull List<Currency> currencies,
+                                                             @Nonnull Instant expiresAt) {
+    BigDecimal[] courses = new BigDecimal[CURRENCIES.length];
+    for (Currency currency : currencies) {
+      CurrencyValues local = localCurrency(currency.getCurrency());
+      if (local != null) {
+        courses[local.ordinal()] = BigDecimal.valueOf(currency.getCurrencyRate());
+      }
+    }
+
+    CrossRate[][] crossRates = new CrossRate[CURRENCIES.length][CURRENCIES.length];
+    for (CurrencyValues from : CURRENCIES) {
+      for (CurrencyValues to : CURRENCIES) {
+        if (courses[from.ordinal()] != null && courses[to.ordinal()] != null) {
+          crossRates[from.ordinal()][to.ordinal()] = new CrossRate(
+              from == CurrencyValues.USD ? null : courses[from.ordinal()],
+              courses[to.ordinal()]
+          );
+        }
+      }
+    }
+    return new CurrencyRateMatrix(crossRates, expiresAt);
+  }
+
+  /**
+   * @return null for UNSPECIFIED, UNRECOGNIZED or any value unknown to this service, such pairs are not supported
+   */
+  private static @Nullable CurrencyValues localCurrency(@Nonnull guru.qa.niffler.grpc.CurrencyValues currency) {
+    for (CurrencyValues local : CURRENCIES) {
+      if (local.name().equals(currency.name())) {
+        return local;
+      }
+    }
+    return null;
+  }
+
+  public boolean isExpired(@Nonnull Instant now) {
+    return !now.isBefore(expiresAt);
+  }
+
+  public boolean supports(@Nonnull CurrencyValues spendCurrency, @Nonnull CurrencyValues desiredCurrency) {
+    return crossRates[spendCurrency.ordinal()][desiredCurrency.ordinal()] != null;
+  }
+
+  public @Nonnull BigDecimal convert(double amount,
+                                     @Nonnull CurrencyValues spendCurrency,
+                                     @Nonnull CurrencyValues desiredCurrency) {
+    CrossRate crossRate = crossRates[spendCurrency.ordinal()][desiredCurrency.ordinal()];
+    if (crossRate == null) {
+      throw new IllegalArgumentException("No currency rate for: " + spendCurrency + " -> " + desiredCurrency);
+    }
+    BigDecimal spendInUsd = crossRate.multiplier == null
+        ? BigDecimal.valueOf(amount)
+        : BigDecimal.valueOf(amount).multiply(crossRate.multiplier);
+    return spendInUsd.divide(crossRate.divisor, 2, RoundingMode.HALF_UP);
+  }
+
+  private record CrossRate(BigDecimal multiplier, BigDecimal divisor) {
+  }
+}
@@ -0,0 +1,67 @@
+package guru.qa.niffler.service;
+
+import jakarta.annotation.Nonnull;
+
+import java.math.BigDecimal;
+
+/**
+ * Exact decimal sum of money amounts.
+ * Amounts with up to 2 fraction digits (all amounts produced by Niffler) are summed as long cents without allocation,
+ * any other amount goes to a {@link BigDecimal} remainder, so the result always equals the sum of {@link BigDecimal#valueOf(double)}.
+ */
+public final class DecimalSum {
+
+  /**
+   * Below this bound the spacing between doubles is much less than a cent,
+   * so a double equal to `cents / 100.0` is printed by {@link Double#toString(double)} exactly as that decimal
+   */
+  private static final double MAX_EXACT_AMOUNT = 1e13;
+  private static final long[] POWERS_OF_TEN = {1L, 10L, 100L};
+
+  private long cents;
+  private BigDecimal remainder = BigDecimal.ZERO;
+
+  public @Nonnull DecimalSum add(double amount) {
+    if (Math.abs(amount) < MAX_EXACT_AMOUNT) {
+      final long amountInCents = Math.round(amount * 100);
+      if (amountInCents / 100.0 == amount && addCents(amountInCents)) {
+        return this;
+      }
+    }
+    remainder = remainder.add(BigDecimal.valueOf(amount));
+    return this;
+  }
+
+  public @Nonnull DecimalSum add(@Nonnull BigDecimal amount) {
+    final int scale = amount.scale();
+    if (scale >= 0 && scale <= 2 && amount.unscaledValue().bitLength() < 54) {
+      final long unscaled = amount.unscaledValue().longValue();
+      if (addCents(unscaled * POWERS_OF_TEN[2 - scale])) {
+        return this;
+      }
+    }
+    remainder = remainder.add(amount);
+    return this;
+  }
+
+  public @Nonnull BigDecimal toBigDecimal() {
+    return remainder.signum() == 0
+        ? BigDecimal.valueOf(cents, 2)
+        : BigDecimal.valueOf(cents, 2).add(remainder);
+  }
+
+  public double doubleValue() {
+    return toBigDecimal().doubleValue();
+  }
+
+  private boolean addCents(long amountInCents) {
+    final long sum = cents + amountInCents;
+    if (((cents ^ sum) & (amountInCents ^ sum)) < 0) {
+      remainder = remainder.add(BigDecimal.valueOf(cents, 2));
+      cents = 0;
+      return false;
+    }
+    cents = sum;
+    return true;
+  }
+}
@@ -1,6 +1,9 @@
 package guru.qa.niffler.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import guru.qa.niffler.ex.CategoryNotFoundException;
+import guru.qa.niffler.ex.InvalidCursorException;
 import guru.qa.niffler.ex.SpendNotFoundException;
 import guru.qa.niffler.ex.TooManyCategoriesException;
 import guru.qa.niffler.model.ErrorJson;
@@ -38,6 +41,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     return withStatus("Bad request", HttpStatus.NOT_FOUND, ex.getMessage(), request);
   }
 
+  @ExceptionHandler({InvalidCursorException.class, JsonProcessingException.class, RuntimeJsonMappingException.class})
+  public ResponseEntity<ErrorJson> handleBadRequestException(@Nonnull Exception ex,
+                                                             @Nonnull HttpServletRequest request) {
+    LOG.warn("### Resolve Exception in @RestControllerAdvice ", ex);
+    return withStatus("Bad request", HttpStatus.BAD_REQUEST, ex.getMessage(), request);
+  }
+
   @ExceptionHandler(DataIntegrityViolationException.class)
   public ResponseEntity<ErrorJson> handleDataIntegrityViolationException(@Nonnull Exception ex,
                                                                          @Nonnull HttpServletRequest request) {
@@ -1,16 +1,32 @@
 package guru.qa.niffler.service;
 
 
+import com.google.protobuf.Empty;
+import guru.qa.niffler.grpc.CalculateRatesRequest;
 import guru.qa.niffler.grpc.CalculateRequest;
+import guru.qa.niffler.grpc.CalculateResponse;
+import guru.qa.niffler.grpc.Currency;
 import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc.NifflerCurrencyServiceBlockingStub;
+import guru.qa.niffler.model.CurrencyAmount;
 import guru.qa.niffler.model.CurrencyValues;
+import io.grpc.StatusRuntimeException;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static guru.qa.niffler.grpc.CurrencyValues.valueOf;
 
@@ -18,8 +34,31 @@ import static guru.qa.niffler.grpc.CurrencyValues.valueOf;
 public class GrpcCurrencyClient {
 
   private static final Logger LOG = LoggerFactory.getLogger(GrpcCurrencyClient.class);
+  private static final Empty EMPTY = Empty.getDefaultInstance();
+
+  private final Duration ratesTtl;
+  private final Duration refreshTimeout;
+  private final Duration refreshBackoff;
+  private final Clock clock;
+  private final ReentrantLock refreshLock = new ReentrantLock();
 
   private NifflerCurrencyServiceBlockingStub nifflerCurrencyServiceStub;
+  private volatile CurrencyRateMatrix rateMatrix;
+  private volatile Instant nextRefreshAttempt = Instant.MIN;
+
+  @Autowired
+  public GrpcCurrencyClient(@Value("${niffler-currency.rates.ttl:PT1M}") Duration ratesTtl,
+                            @Value("${niffler-currency.rates.refresh-timeout:PT2S}") Duration refreshTimeout,
+                            @Value("${niffler-currency.rates.refresh-backoff:PT5S}") Duration refreshBackoff) {
+    this(ratesTtl, refreshTimeout, refreshBackoff, Clock.systemUTC());
+  }
+
+  GrpcCurrencyClient(Duration ratesTtl, Duration refreshTimeout, Duration refreshBackoff, Clock clock) {
+    this.ratesTtl = ratesTtl;
+    this.refreshTimeout = refreshTimeout;
+    this.refreshBackoff = refreshBackoff;
+    this.clock = clock;
+  }
 
   @GrpcClient("grpcCurrencyClient")
   public void setNifflerCurrencyServiceStub(NifflerCurrencyServiceBlockingStub nifflerCurrencyServiceStub) {
@@ -30,14 +69,114 @@ public class GrpcCurrencyClient {
   BigDecimal calculate(double amount,
                        @Nonnull CurrencyValues spendCurrency,
                        @Nonnull CurrencyValues desiredCurrency) {
+    CurrencyRateMatrix matrix = actualRateMatrix();
+    if (matrix != null && matrix.supports(spendCurrency, desiredCurrency)) {
+      return asTransferred(matrix.convert(amount, spendCurrency, desiredCurrency));
+    }
     return BigDecimal.valueOf(
         nifflerCurrencyServiceStub.calculateRate(
-            CalculateRequest.newBuilder()
-                .setAmount(amount)
-                .setSpendCurrency(valueOf(spendCurrency.name()))
-                .setDesiredCurrency(valueOf(desiredCurrency.name()))
-                .build()
+            calculateRequest(amount, spendCurrency, desiredCurrency)
         ).getCalculatedAmount()
     );
   }
+
+  /**
+   * Converts all amounts with a single CalculateRates call, results are in the same order as given amounts
+   */
+  public @Nonnull
+  List<BigDecimal> calculate(@Nonnull List<CurrencyAmount> amounts,
+                             @Nonnull CurrencyValues desiredCurrency) {
+    if (amounts.isEmpty()) {
+      return List.of();
+    }
+    CurrencyRateMatrix matrix = actualRateMatrix();
+    if (matrix != null && amounts.stream().allMatch(a -> matrix.supports(a.currency(), desiredCurrency))) {
+      List<BigDecimal> result = new ArrayList<>(amounts.size());
+      for (CurrencyAmount amount : amounts) {
+        result.add(asTransferred(matrix.convert(amount.amount(), amount.currency(), desiredCurrency)));
+      }
+      return result;
+    }
+    return nifflerCurrencyServiceStub.calculateRates(
+            CalculateRatesRequest.newBuilder()
+                .addAllRequests(amounts.stream()
+                    .map(a -> calculateRequest(a.amount(), a.currency(), desiredCurrency))
+                    .toList())
+                .build()
+        ).getResponsesList()
+        .stream()
+        .map(CalculateResponse::getCalculatedAmount)
+        .map(BigDecimal::valueOf)
+        .toList();
+  }
+
+  private @Nonnull
+  CalculateRequest calculateRequest(double amount,
+                                    @Nonnull CurrencyValues spendCurrency,
+                                    @Nonnull CurrencyValues desiredCurrency) {
+    return CalculateRequest.newBuilder()
+        .setAmount(amount)
+        .setSpendCurrency(valueOf(spendCurrency.name()))
+        .setDesiredCurrency(valueOf(desiredCurrency.name()))
+        .build();
+  }
+
+  /**
+   * Rates pushed by SubscribeRates live for `ttl` as polled ones: a half-open stream brings no more pushes
+   * and no error, so without next push rates expire and are polled again
+   */
+  void onRatesPushed(@Nonnull List<Currency> currencies) {
+    rateMatrix = CurrencyRateMatrix.fromGrpcMessages(currencies, clock.instant().plus(ratesTtl));
+  }
+
+  /**
+   * Only one caller refreshes expired rates, with a deadline. Others don`t wait for it and get the expired matrix,
+   * as well as all callers during `refresh-backoff` after a failed refresh.
+   *
+   * @return rates, possibly expired, or null if they were never loaded, in that case callers should fall back to RPC
+   */
+  @Nullable
+  CurrencyRateMatrix actualRateMatrix() {
+    CurrencyRateMatrix matrix = rateMatrix;
+    if ((matrix == null || matrix.isExpired(clock.instant()))
+        && clock.instant().isAfter(nextRefreshAttempt)
+        && refreshLock.tryLock()) {
+      try {
+        matrix = rateMatrix;
+        if (matrix == null || matrix.isExpired(clock.instant())) {
+          matrix = refreshRateMatrix(matrix);
+        }
+      } finally {
+        refreshLock.unlock();
+      }
+    }
+    return matrix;
+  }
+
+  private @Nullable
+  CurrencyRateMatrix refreshRateMatrix(@Nullable CurrencyRateMatrix expired) {
+    try {
+      CurrencyRateMatrix matrix = CurrencyRateMatrix.fromGrpcMessages(
+          nifflerCurrencyServiceStub.withDeadlineAfter(refreshTimeout.toMillis(), TimeUnit.MILLISECONDS)
+              .getAllCurrencies(EMPTY)
+              .getAllCurrenciesList(),
+          clock.instant().plus(ratesTtl)
+      );
+      rateMatrix = matrix;
+      return matrix;
+    } catch (StatusRuntimeException e) {
+      nextRefreshAttempt = clock.instant().plus(refreshBackoff);
+      LOG.warn("### Can`t refresh currency rates, {} until {}",
+          expired == null ? "fallback to CalculateRate RPC" : "expired rates are used", nextRefreshAttempt, e);
+      return expired;
+    }
+  }
+
+  /**
+   * Same value as CalculateRate RPC returns: server sends result as double
+   */
+  private @Nonnull
+  BigDecimal asTransferred(@Nonnull BigDecimal calculated) {
+    return BigDecimal.valueOf(calculated.doubleValue());
+  }
 }
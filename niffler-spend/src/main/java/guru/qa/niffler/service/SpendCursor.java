@@ -0,0 +1,45 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.ex.InvalidCursorException;
+import guru.qa.niffler.model.SpendJson;
+import jakarta.annotation.Nonnull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position of the last returned spend in (spend_date desc, id desc) order, passed to clients as an opaque string.
+ */
+record SpendCursor(@Nonnull Date spendDate, @Nonnull UUID id) {
+
+  private static final UUID ANY_ID = new UUID(0L, 0L);
+
+  /**
+   * Cursor before the first spend of the range: it is later than any spend dated up to `dateTo`
+   */
+  static @Nonnull SpendCursor first(@Nonnull Date dateTo) {
+    return new SpendCursor(new Date(dateTo.getTime() + TimeUnit.DAYS.toMillis(1)), ANY_ID);
+  }
+
+  static @Nonnull SpendCursor of(@Nonnull SpendJson spend) {
+    return new SpendCursor(SpendService.startOfDay(spend.spendDate()), spend.id());
+  }
+
+  static @Nonnull SpendCursor decode(@Nonnull String cursor) {
+    try {
+      String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+      return new SpendCursor(new Date(Long.parseLong(parts[0])), UUID.fromString(parts[1]));
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+      throw new InvalidCursorException("Invalid cursor: '" + cursor + "'");
+    }
+  }
+
+  @Nonnull String encode() {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(
+        (spendDate.getTime() + ":" + id).getBytes(StandardCharsets.UTF_8)
+    );
+  }
+}
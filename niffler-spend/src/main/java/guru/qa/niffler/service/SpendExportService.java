@@ -0,0 +1,106 @@
+package guru.qa.niffler.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import guru.qa.niffler.data.repository.SpendRepository;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.ExportFormat;
+import guru.qa.niffler.model.SpendJson;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes spends row by row while reading them from a database cursor, nothing is collected in memory.
+ */
+@Component
+public class SpendExportService {
+
+  private static final String CSV_HEADER = "id,spendDate,category,currency,amount,description";
+  private static final String CSV_LINE_SEPARATOR = "\r\n";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final SpendRepository spendRepository;
+  private final ObjectMapper objectMapper;
+
+  @Autowired
+  public SpendExportService(SpendRepository spendRepository, ObjectMapper objectMapper) {
+    this.spendRepository = spendRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  @Transactional(readOnly = true)
+  public void exportSpends(@Nonnull String username,
+                           @Nonnull ExportFormat format,
+                           @Nullable CurrencyValues filterCurrency,
+                           @Nullable Date dateFrom,
+                           @Nullable Date dateTo,
+                           @Nonnull OutputStream out) throws IOException {
+    dateFrom = dateFrom == null ? new Date(0) : dateFrom;
+    dateTo = dateTo == null ? new Date() : dateTo;
+
+    try (Stream<SpendJson> spends = filterCurrency != null
+        ? spendRepository.streamAllSpends(username, filterCurrency, dateFrom, dateTo)
+        : spendRepository.streamAllSpends(username, dateFrom, dateTo)) {
+      switch (format) {
+        case CSV -> writeCsv(spends.iterator(), out);
+        case NDJSON -> writeNdjson(spends.iterator(), out);
+      }
+    }
+  }
+
+  private void writeCsv(@Nonnull Iterator<SpendJson> spends, @Nonnull OutputStream out) throws IOException {
+    final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    writer.write(CSV_HEADER);
+    writer.write(CSV_LINE_SEPARATOR);
+    while (spends.hasNext()) {
+      final SpendJson spend = spends.next();
+      writer.write(spend.id().toString());
+      writer.write(',');
+      writer.write(dateFormat.format(spend.spendDate()));
+      writer.write(',');
+      writer.write(csvField(spend.category().name()));
+      writer.write(',');
+      writer.write(spend.currency().name());
+      writer.write(',');
+      writer.write(BigDecimal.valueOf(spend.amount()).toPlainString());
+      writer.write(',');
+      writer.write(csvField(spend.description()));
+      writer.write(CSV_LINE_SEPARATOR);
+    }
+    writer.flush();
+  }
+
+  private void writeNdjson(@Nonnull Iterator<SpendJson> spends, @Nonnull OutputStream out) throws IOException {
+    final ObjectWriter writer = objectMapper.writerFor(SpendJson.class);
+    final OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+    while (spends.hasNext()) {
+      buffered.write(writer.writeValueAsBytes(spends.next()));
+      buffered.write('\n');
+    }
+    buffered.flush();
+  }
+
+  static @Nonnull String csvField(@Nonnull String value) {
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
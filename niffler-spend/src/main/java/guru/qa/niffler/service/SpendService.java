@@ -1,35 +1,75 @@
 package guru.qa.niffler.service;
 
-import guru.qa.niffler.data.CategoryEntity;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import guru.qa.niffler.data.SpendEntity;
 import guru.qa.niffler.data.projection.SumByCategoryInfo;
+import guru.qa.niffler.data.repository.SpendDailyAggregateRepository;
 import guru.qa.niffler.data.repository.SpendRepository;
 import guru.qa.niffler.ex.SpendNotFoundException;
+import guru.qa.niffler.model.BulkSpendResultJson;
+import guru.qa.niffler.model.CategoryJson;
 import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.model.SpendsSliceJson;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Component
 public class SpendService {
 
+  private static final Logger LOG = LoggerFactory.getLogger(SpendService.class);
+
+  private static final int MAX_SLICE_SIZE = 2000;
+  /**
+   * Multiple of `hibernate.jdbc.batch_size`
+   */
+  private static final int BULK_FLUSH_SIZE = 500;
+
   private final SpendRepository spendRepository;
+  private final SpendDailyAggregateRepository spendDailyAggregateRepository;
   private final CategoryService categoryService;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
 
   @Autowired
-  public SpendService(SpendRepository spendRepository, CategoryService categoryService) {
+  public SpendService(SpendRepository spendRepository,
+                      SpendDailyAggregateRepository spendDailyAggregateRepository,
+                      CategoryService categoryService,
+                      EntityManager entityManager,
+                      PlatformTransactionManager transactionManager) {
     this.spendRepository = spendRepository;
+    this.spendDailyAggregateRepository = spendDailyAggregateRepository;
     this.categoryService = categoryService;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   @Transactional
@@ -43,10 +83,51 @@ public class SpendService {
     spendEntity.setCurrency(spend.currency());
     spendEntity.setDescription(spend.description());
     spendEntity.setAmount(spend.amount());
-    CategoryEntity categoryEntity = categoryService.getOrSave(spend.category());
+    CategoryJson category = categoryService.getOrAddCategory(spend.category());
+
+    spendEntity.setCategory(categoryService.reference(category));
+    SpendEntity saved = spendRepository.save(spendEntity);
+    addToDailyAggregate(saved);
+    return SpendJson.fromEntity(saved, category);
+  }
 
-    spendEntity.setCategory(categoryEntity);
-    return SpendJson.fromEntity(spendRepository.save(spendEntity));
+  /**
+   * Bulk import: categories are resolved once per user, spends are inserted in JDBC batches
+   * and daily aggregates are updated once per bucket. Invalid rows, including ones which can`t be bound, are skipped
+   * and reported in the result.
+   * Each chunk is committed in its own transaction, a failed chunk is reported row by row and the import goes on.
+   */
+  public @Nonnull
+  List<BulkSpendResultJson> saveSpendsForUser(@Nonnull Iterator<SpendJson> spends) {
+    final List<BulkSpendResultJson> results = new ArrayList<>();
+    final Map<String, Map<String, CategoryJson>> categories = new HashMap<>();
+    final List<BulkRow> chunk = new ArrayList<>(BULK_FLUSH_SIZE);
+
+    while (spends.hasNext()) {
+      final int index = results.size();
+      final SpendJson spend;
+      try {
+        spend = spends.next();
+      } catch (RuntimeJsonMappingException e) {
+        // MappingIterator skips the rest of a bad element, so the next one is read as usual
+        results.add(new BulkSpendResultJson(index, null, "Can`t read spend: " + e.getMessage()));
+        continue;
+      }
+      if (isIncomplete(spend)) {
+        results.add(new BulkSpendResultJson(
+            index, null, "Spend must have username, spendDate, currency, amount, description and category name"
+        ));
+        continue;
+      }
+      results.add(null);
+      chunk.add(new BulkRow(index, spend));
+      if (chunk.size() == BULK_FLUSH_SIZE) {
+        commitChunk(chunk, categories, results);
+        chunk.clear();
+      }
+    }
+    commitChunk(chunk, categories, results);
+    return results;
   }
 
   @Transactional
@@ -54,13 +135,35 @@ public class SpendService {
   SpendJson editSpendForUser(@Nonnull SpendJson spend) {
     return spendRepository.findByIdAndUsername(spend.id(), spend.username()).map(
         spendEntity -> {
-          CategoryEntity categoryEntity = categoryService.getOrSave(spend.category());
+          final UUID previousCategoryId = spendEntity.getCategory().getId();
+          final CurrencyValues previousCurrency = spendEntity.getCurrency();
+          final Date previousDay = startOfDay(spendEntity.getSpendDate());
+          final double previousAmount = spendEntity.getAmount();
+
+          CategoryJson category = categoryService.getOrAddCategory(spend.category());
           spendEntity.setSpendDate(spend.spendDate());
-          spendEntity.setCategory(categoryEntity);
+          spendEntity.setCategory(categoryService.reference(category));
           spendEntity.setAmount(spend.amount());
           spendEntity.setDescription(spend.description());
           spendEntity.setCurrency(spend.currency());
-          return SpendJson.fromEntity(spendRepository.save(spendEntity));
+          SpendEntity saved = spendRepository.save(spendEntity);
+
+          if (previousCategoryId.equals(saved.getCategory().getId())
+              && previousCurrency == saved.getCurrency()
+              && previousDay.equals(startOfDay(saved.getSpendDate()))) {
+            spendDailyAggregateRepository.increment(
+                saved.getUsername(),
+                previousCategoryId,
+                previousCurrency,
+                previousDay,
+                BigDecimal.valueOf(saved.getAmount()).subtract(BigDecimal.valueOf(previousAmount)),
+                0
+            );
+          } else {
+            removeFromDailyAggregate(saved.getUsername(), previousCategoryId, previousCurrency, previousDay, previousAmount);
+            addToDailyAggregate(saved);
+          }
+          return SpendJson.fromEntity(saved, category);
         }
     ).orElseThrow(() -> new SpendNotFoundException(
         "Can`t find spend by given id: " + spend.id()
@@ -84,10 +187,14 @@ public class SpendService {
                                    @Nullable CurrencyValues filterCurrency,
                                    @Nullable Date dateFrom,
                                    @Nullable Date dateTo) {
-    return getSpendsEntityForUser(username, filterCurrency, dateFrom, dateTo)
-        .stream()
-        .map(SpendJson::fromEntity)
-        .toList();
+    dateFrom = dateFrom == null ? new Date(0) : dateFrom;
+    dateTo = dateTo == null ? new Date() : dateTo;
+
+    if (filterCurrency != null) {
+      return spendRepository.findAllSpends(username, filterCurrency, dateFrom, dateTo);
+    } else {
+      return spendRepository.findAllSpends(username, dateFrom, dateTo);
+    }
   }
 
   @Transactional(readOnly = true)
@@ -98,36 +205,93 @@ public class SpendService {
                                    @Nullable Date dateFrom,
                                    @Nullable Date dateTo,
                                    @Nullable String searchQuery) {
-    return getSpendsEntityForUser(username, filterCurrency, dateFrom, dateTo, searchQuery, pageable)
-        .map(SpendJson::fromEntity);
-  }
+    dateTo = dateTo == null
+        ? new Date()
+        : dateTo;
 
-  @Transactional
-  public void deleteSpends(@Nonnull String username, @Nonnull List<String> ids) {
-    spendRepository.deleteByUsernameAndIdIn(
-        username,
-        ids.stream().map(UUID::fromString).toList()
-    );
+    dateFrom = dateFrom == null
+        ? new Date(0)
+        : dateFrom;
+
+    Page<SpendJson> spends;
+    if (filterCurrency != null) {
+      if (searchQuery != null) {
+        spends = spendRepository.findAll(username, filterCurrency, dateFrom, dateTo, searchQuery, pageable);
+      } else {
+        spends = spendRepository.findAll(username, filterCurrency, dateFrom, dateTo, pageable);
+      }
+    } else {
+      if (searchQuery != null) {
+        spends = spendRepository.findAll(username, dateFrom, dateTo, searchQuery, pageable);
+      } else {
+        spends = spendRepository.findAll(username, dateFrom, dateTo, pageable);
+      }
+    }
+    return spends;
   }
 
+  /**
+   * Keyset pagination: page N costs the same as the first one and no count query is made.
+   *
+   * @param cursor `nextCursor` of the previous slice, null or blank for the first one
+   */
   @Transactional(readOnly = true)
-  @Nonnull
-  List<SpendEntity> getSpendsEntityForUser(@Nonnull String username,
-                                           @Nullable CurrencyValues filterCurrency,
-                                           @Nullable Date dateFrom,
-                                           @Nullable Date dateTo) {
+  public @Nonnull
+  SpendsSliceJson getSpendsForUser(@Nonnull String username,
+                                   @Nullable String cursor,
+                                   int size,
+                                   @Nullable CurrencyValues filterCurrency,
+                                   @Nullable Date dateFrom,
+                                   @Nullable Date dateTo,
+                                   @Nullable String searchQuery) {
     dateFrom = dateFrom == null ? new Date(0) : dateFrom;
     dateTo = dateTo == null ? new Date() : dateTo;
 
+    final SpendCursor after = cursor == null || cursor.isBlank()
+        ? SpendCursor.first(dateTo)
+        : SpendCursor.decode(cursor);
+    size = Math.clamp(size, 1, MAX_SLICE_SIZE);
+    final Pageable limit = PageRequest.of(0, size + 1);
+
+    List<SpendJson> spends;
     if (filterCurrency != null) {
-      return spendRepository.findAllByUsernameAndCurrencyAndSpendDateGreaterThanEqualAndSpendDateLessThanEqualOrderBySpendDateDesc(
-          username, filterCurrency, dateFrom, dateTo
-      );
+      if (searchQuery != null) {
+        spends = spendRepository.findAllAfter(username, filterCurrency, dateFrom, dateTo, searchQuery, after.spendDate(), after.id(), limit);
+      } else {
+        spends = spendRepository.findAllAfter(username, filterCurrency, dateFrom, dateTo, after.spendDate(), after.id(), limit);
+      }
     } else {
-      return spendRepository.findAllByUsernameAndSpendDateGreaterThanEqualAndSpendDateLessThanEqualOrderBySpendDateDesc(
-          username, dateFrom, dateTo
+      if (searchQuery != null) {
+        spends = spendRepository.findAllAfter(username, dateFrom, dateTo, searchQuery, after.spendDate(), after.id(), limit);
+      } else {
+        spends = spendRepository.findAllAfter(username, dateFrom, dateTo, after.spendDate(), after.id(), limit);
+      }
+    }
+
+    final boolean hasNext = spends.size() > size;
+    final List<SpendJson> content = hasNext ? spends.subList(0, size) : spends;
+    return new SpendsSliceJson(
+        content,
+        hasNext ? SpendCursor.of(content.getLast()).encode() : null
+    );
+  }
+
+  @Transactional
+  public void deleteSpends(@Nonnull String username, @Nonnull List<String> ids) {
+    List<SpendEntity> spends = spendRepository.findAllByUsernameAndIdIn(
+        username,
+        ids.stream().map(UUID::fromString).toList()
+    );
+    for (SpendEntity spend : spends) {
+      removeFromDailyAggregate(
+          spend.getUsername(),
+          spend.getCategory().getId(),
+          spend.getCurrency(),
+          startOfDay(spend.getSpendDate()),
+          spend.getAmount()
       );
     }
+    spendRepository.deleteAll(spends);
   }
 
   @Transactional(readOnly = true)
@@ -139,42 +303,153 @@ public class SpendService {
     dateTo = dateTo == null ? new Date() : dateTo;
 
     List<SumByCategoryInfo> result = new ArrayList<>();
-    result.addAll(spendRepository.statisticByArchivedCategory(username, dateFrom, dateTo));
-    result.addAll(spendRepository.statisticByCategory(username, dateFrom, dateTo));
+    result.addAll(spendDailyAggregateRepository.statisticByArchivedCategory(username, dateFrom, dateTo));
+    result.addAll(spendDailyAggregateRepository.statisticByCategory(username, dateFrom, dateTo));
     return result;
   }
 
   @Transactional(readOnly = true)
   @Nonnull
-  Page<SpendEntity> getSpendsEntityForUser(@Nonnull String username,
-                                           @Nullable CurrencyValues filterCurrency,
-                                           @Nullable Date dateFrom,
-                                           @Nullable Date dateTo,
-                                           @Nullable String searchQuery,
-                                           @Nonnull Pageable pageable) {
-    dateTo = dateTo == null
-        ? new Date()
-        : dateTo;
+  List<SpendEntity> getSpendsEntityPageByCategories(@Nonnull String username,
+                                                    @Nullable CurrencyValues filterCurrency,
+                                                    @Nullable Date dateFrom,
+                                                    @Nullable Date dateTo,
+                                                    @Nonnull Pageable pageable) {
+    dateFrom = dateFrom == null ? new Date(0) : dateFrom;
+    dateTo = dateTo == null ? new Date() : dateTo;
 
-    dateFrom = dateFrom == null
-        ? new Date(0)
-        : dateFrom;
+    List<String> currencies = filterCurrency != null
+        ? List.of(filterCurrency.name())
+        : Arrays.stream(CurrencyValues.values()).map(CurrencyValues::name).toList();
 
-    Page<SpendEntity> spends;
-    if (filterCurrency != null) {
-      if (searchQuery != null) {
-        spends = spendRepository.findAll(username, filterCurrency, dateFrom, dateTo, searchQuery, pageable);
-      } else {
-        spends = spendRepository.findAll(username, filterCurrency, dateFrom, dateTo, pageable);
+    // unpaged request embeds all spends of each category
+    return spendRepository.findPageByCategories(
+        username, currencies, dateFrom, dateTo,
+        pageable.isPaged() ? pageable.getOffset() : 0,
+        pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE
+    );
+  }
+
+  private void commitChunk(@Nonnull List<BulkRow> chunk,
+                           @Nonnull Map<String, Map<String, CategoryJson>> categories,
+                           @Nonnull List<BulkSpendResultJson> results) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> saveChunk(chunk, categories, results));
+    } catch (DataAccessException | TransactionException e) {
+      LOG.error("### Can`t save chunk of {} spends", chunk.size(), e);
+      // categories added by the chunk are rolled back too
+      categories.clear();
+      for (BulkRow row : chunk) {
+        if (results.get(row.index()) == null || results.get(row.index()).error() == null) {
+          results.set(row.index(), new BulkSpendResultJson(
+              row.index(), null, "Can`t save spend: " + e.getMostSpecificCause().getMessage()
+          ));
+        }
       }
-    } else {
-      if (searchQuery != null) {
-        spends = spendRepository.findAll(username, dateFrom, dateTo, searchQuery, pageable);
-      } else {
-        spends = spendRepository.findAll(username, dateFrom, dateTo, pageable);
+    }
+  }
+
+  private void saveChunk(@Nonnull List<BulkRow> chunk,
+                         @Nonnull Map<String, Map<String, CategoryJson>> categories,
+                         @Nonnull List<BulkSpendResultJson> results) {
+    final Map<String, Set<String>> unknownCategories = new HashMap<>();
+    for (BulkRow row : chunk) {
+      final Map<String, CategoryJson> known = categories.get(row.spend().username());
+      if (known == null || !known.containsKey(row.spend().category().name())) {
+        unknownCategories.computeIfAbsent(row.spend().username(), u -> new HashSet<>())
+            .add(row.spend().category().name());
       }
     }
-    return spends;
+    unknownCategories.forEach((username, names) -> {
+      final Map<String, CategoryJson> known = categories.computeIfAbsent(username, u -> new HashMap<>());
+      categoryService.getOrSaveAll(username, names).forEach((name, ce) -> known.put(name, CategoryJson.fromEntity(ce)));
+      // names rejected by category service are remembered as null to not be requested again
+      names.forEach(name -> known.putIfAbsent(name, null));
+    });
+
+    final List<BulkRow> savedRows = new ArrayList<>(chunk.size());
+    final List<SpendEntity> entities = new ArrayList<>(chunk.size());
+    for (BulkRow row : chunk) {
+      final SpendJson spend = row.spend();
+      final CategoryJson category = categories.get(spend.username()).get(spend.category().name());
+      if (category == null) {
+        results.set(row.index(), new BulkSpendResultJson(
+            row.index(), null, "Can`t add category with name: '" + spend.category().name() + "'"
+        ));
+        continue;
+      }
+      SpendEntity spendEntity = new SpendEntity();
+      spendEntity.setUsername(spend.username());
+      spendEntity.setSpendDate(spend.spendDate());
+      spendEntity.setCurrency(spend.currency());
+      spendEntity.setDescription(spend.description());
+      spendEntity.setAmount(spend.amount());
+      // categories may be resolved by a previous chunk transaction, so only their references are set
+      spendEntity.setCategory(categoryService.reference(category));
+      savedRows.add(row);
+      entities.add(spendEntity);
+    }
+
+    spendRepository.saveAll(entities);
+    spendRepository.flush();
+
+    final Map<DailyBucket, DailyDelta> deltas = new LinkedHashMap<>();
+    for (int i = 0; i < entities.size(); i++) {
+      final SpendEntity saved = entities.get(i);
+      final int index = savedRows.get(i).index();
+      results.set(index, new BulkSpendResultJson(index, saved.getId(), null));
+      final DailyDelta delta = deltas.computeIfAbsent(
+          new DailyBucket(saved.getUsername(), saved.getCategory().getId(), saved.getCurrency(), startOfDay(saved.getSpendDate())),
+          b -> new DailyDelta()
+      );
+      delta.amount.add(saved.getAmount());
+      delta.spendsCount++;
+      // spends are not needed anymore
+      entityManager.detach(saved);
+    }
+    deltas.forEach((bucket, delta) -> spendDailyAggregateRepository.add(
+        bucket.username(), bucket.categoryId(), bucket.currency(), bucket.day(), delta.amount.toBigDecimal(), delta.spendsCount
+    ));
+  }
+
+  private static boolean isIncomplete(@Nonnull SpendJson spend) {
+    return spend.username() == null
+        || spend.spendDate() == null
+        || spend.currency() == null
+        || spend.amount() == null
+        || spend.description() == null
+        || spend.category() == null
+        || spend.category().name() == null;
+  }
+
+  private void addToDailyAggregate(@Nonnull SpendEntity spend) {
+    spendDailyAggregateRepository.add(
+        spend.getUsername(),
+        spend.getCategory().getId(),
+        spend.getCurrency(),
+        startOfDay(spend.getSpendDate()),
+        BigDecimal.valueOf(spend.getAmount()),
+        1
+    );
+  }
+
+  private void removeFromDailyAggregate(@Nonnull String username,
+                                        @Nonnull UUID categoryId,
+                                        @Nonnull CurrencyValues currency,
+                                        @Nonnull Date day,
+                                        double amount) {
+    spendDailyAggregateRepository.increment(username, categoryId, currency, day, BigDecimal.valueOf(amount).negate(), -1);
+    spendDailyAggregateRepository.deleteEmpty(username, categoryId, currency, day);
+  }
+
+  /**
+   * `spend_date` is a DATE column, so aggregates are keyed by the local day the JDBC driver stores for a spend
+   */
+  static @Nonnull Date startOfDay(@Nonnull Date date) {
+    return Date.from(date.toInstant().atZone(ZoneId.systemDefault()).truncatedTo(ChronoUnit.DAYS).toInstant());
   }
 
   private @Nonnull UUID extractUuid(@Nonnull String id) {
@@ -188,4 +463,18 @@ public class SpendService {
     }
     return spendId;
   }
+
+  private record BulkRow(int index, @Nonnull SpendJson spend) {
+  }
+
+  private record DailyBucket(@Nonnull String username,
+                             @Nonnull UUID categoryId,
+                             @Nonnull CurrencyValues currency,
+                             @Nonnull Date day) {
+  }
+
+  private static final class DailyDelta {
+    private final DecimalSum amount = new DecimalSum();
+    private long spendsCount;
+  }
 }
@@ -1,10 +1,9 @@
 package guru.qa.niffler.service;
 
 import guru.qa.niffler.data.SpendEntity;
-import guru.qa.niffler.data.projection.SumByCategoryAggregate;
-import guru.qa.niffler.data.projection.SumByCategoryInUserCurrency;
 import guru.qa.niffler.data.projection.SumByCategoryInfo;
 import guru.qa.niffler.model.CategoryJson;
+import guru.qa.niffler.model.CurrencyAmount;
 import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.SpendJson;
 import guru.qa.niffler.model.StatisticByCategoryJson;
@@ -12,7 +11,10 @@ import guru.qa.niffler.model.StatisticJson;
 import guru.qa.niffler.model.StatisticV2Json;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,10 +25,17 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
-import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 @Component
@@ -35,12 +44,36 @@ public class StatService {
   private final SpendService spendService;
   private final CategoryService categoryService;
   private final GrpcCurrencyClient grpcCurrencyClient;
+  private final Executor statisticExecutor;
 
   @Autowired
-  public StatService(SpendService spendService, CategoryService categoryService, GrpcCurrencyClient grpcCurrencyClient) {
+  public StatService(SpendService spendService,
+                     CategoryService categoryService,
+                     GrpcCurrencyClient grpcCurrencyClient,
+                     @Value("${niffler-spend.statistic.parallelism:4}") int statisticParallelism) {
+    this(
+        spendService,
+        categoryService,
+        grpcCurrencyClient,
+        Executors.newFixedThreadPool(statisticParallelism, Thread.ofVirtual().name("statistic-", 0).factory())
+    );
+  }
+
+  StatService(SpendService spendService,
+              CategoryService categoryService,
+              GrpcCurrencyClient grpcCurrencyClient,
+              Executor statisticExecutor) {
     this.spendService = spendService;
     this.categoryService = categoryService;
     this.grpcCurrencyClient = grpcCurrencyClient;
+    this.statisticExecutor = statisticExecutor;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (statisticExecutor instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
   }
 
   @Transactional(readOnly = true)
@@ -50,83 +83,115 @@ public class StatService {
                                  @Nullable CurrencyValues filterCurrency,
                                  @Nullable Date dateFrom,
                                  @Nullable Date dateTo) {
-    List<SumByCategoryInfo> result = new ArrayList<>();
-    for (List<SumByCategoryInfo> delegates : spendService.getSumByCategories(username, dateFrom, dateTo)
-        .stream().parallel()
-        .filter(sumByCategory -> filterCurrency == null || sumByCategory.currency() == filterCurrency)
-        .map(sumByCategory -> mapToUserCurrency(statCurrency, sumByCategory))
-        .collect(toCategoriesMap())
-        .values()) {
-      SumByCategoryInfo sumByCategoryInfo = new SumByCategoryAggregate(delegates);
-      result.add(sumByCategoryInfo);
+    StatisticV2Aggregator aggregator = new StatisticV2Aggregator(statCurrency);
+    for (SumByCategoryInfo sumByCategory : spendService.getSumByCategories(username, dateFrom, dateTo)) {
+      if (filterCurrency == null || sumByCategory.currency() == filterCurrency) {
+        aggregator.add(sumByCategory);
+      }
     }
-    result.sort(Comparator.comparing((SumByCategoryInfo p) -> !p.categoryName().equals("Archived"))
-        .thenComparing(SumByCategoryInfo::sum).reversed());
-
-    return new StatisticV2Json(
-        getTotalSumm(result),
-        statCurrency,
-        result
+    return aggregator.toStatistic(
+        grpcCurrencyClient.calculate(aggregator.amountsToConvert(), statCurrency)
     );
   }
 
+  /**
+   * Totals are aggregated by the database per currency and category, spends of each category are embedded completely or by requested page.
+   * Statistics of different currencies are calculated concurrently, their gRPC conversions don't add up.
+   */
   @Transactional(readOnly = true)
   public @Nonnull
   List<StatisticJson> getStatistic(@Nonnull String username,
                                    @Nonnull CurrencyValues statCurrency,
                                    @Nullable CurrencyValues filterCurrency,
                                    @Nullable Date dateFrom,
-                                   @Nullable Date dateTo) {
-    List<SpendEntity> spendEntities = spendService.getSpendsEntityForUser(username, filterCurrency, dateFrom, dateTo);
-    List<StatisticJson> result = new ArrayList<>();
-
+                                   @Nullable Date dateTo,
+                                   @Nonnull Pageable spendsPageable) {
+    List<SumByCategoryInfo> sumsByCategory = spendService.getSumByCategories(username, dateFrom, dateTo);
+    List<CategoryJson> categories = categoryService.getAllCategories(username, false);
+    List<CategoryJson> activeCategories = categories.stream().filter(c -> !c.archived()).toList();
+    Map<UUID, CategoryJson> categoriesById = categories.stream()
+        .collect(Collectors.toMap(CategoryJson::id, Function.identity()));
+    Map<CurrencyValues, List<SpendEntity>> spendsByCurrency = spendService.getSpendsEntityPageByCategories(
+        username, filterCurrency, dateFrom, dateTo, spendsPageable
+    ).stream().collect(Collectors.groupingBy(SpendEntity::getCurrency));
     CurrencyValues[] desiredCurrenciesInResponse = resolveDesiredCurrenciesInStatistic(filterCurrency);
+    List<CompletableFuture<StatisticJson>> statistics = new ArrayList<>(desiredCurrenciesInResponse.length);
 
     for (CurrencyValues statisticCurrency : desiredCurrenciesInResponse) {
-      StatisticJson enriched = calculateStatistic(statisticCurrency, username, statCurrency, spendEntities, dateTo);
-      result.add(enriched);
+      List<SumByCategoryInfo> sums = sumsByCategory.stream()
+          .filter(sumByCategory -> sumByCategory.currency() == statisticCurrency)
+          .toList();
+      // binding may load lazy categories, so it stays in the transaction of the calling thread
+      Map<String, List<SpendJson>> spendsByCategory = bindSpendsToCategories(
+          spendsByCurrency.getOrDefault(statisticCurrency, List.of()), categoriesById
+      );
+      statistics.add(CompletableFuture.supplyAsync(
+          () -> calculateStatistic(statisticCurrency, statCurrency, sums, spendsByCategory, activeCategories, dateTo),
+          statisticExecutor
+      ));
+    }
+
+    List<StatisticJson> result = new ArrayList<>(statistics.size());
+    for (CompletableFuture<StatisticJson> statistic : statistics) {
+      result.add(join(statistic));
     }
     return result;
   }
 
+  private static @Nonnull <T> T join(@Nonnull CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
   @Nonnull
   StatisticJson calculateStatistic(@Nonnull CurrencyValues statisticCurrency,
-                                   @Nonnull String username,
                                    @Nonnull CurrencyValues userCurrency,
-                                   @Nonnull List<SpendEntity> spendEntities,
+                                   @Nonnull List<SumByCategoryInfo> sumsByCategory,
+                                   @Nonnull Map<String, List<SpendJson>> spendsByCategory,
+                                   @Nonnull List<CategoryJson> activeCategories,
                                    @Nullable Date dateTo) {
     StatisticJson statistic = createDefaultStatisticJson(statisticCurrency, userCurrency, dateTo);
-    List<SpendEntity> sortedSpends = spendEntities.stream()
-        .filter(se -> se.getCurrency() == statisticCurrency)
-        .sorted(Comparator.comparing(SpendEntity::getSpendDate))
-        .toList();
 
-    statistic = calculateStatistic(statistic, statisticCurrency, userCurrency, sortedSpends);
-    Map<String, List<SpendJson>> spendsByCategory = bindSpendsToCategories(sortedSpends);
-
-    List<StatisticByCategoryJson> sbcjResult = new ArrayList<>();
-    for (Map.Entry<String, List<SpendJson>> entry : spendsByCategory.entrySet()) {
-      double total = entry.getValue().stream()
-          .map(SpendJson::amount)
-          .map(BigDecimal::valueOf)
-          .reduce(BigDecimal.ZERO, BigDecimal::add).doubleValue();
-
-      double totalInUserDefaultCurrency = grpcCurrencyClient.calculate(
-          total,
-          statisticCurrency,
+    List<BigDecimal> sumsInUserCurrency;
+    List<BigDecimal> categoryTotalsInUserCurrency;
+    if (statisticCurrency != userCurrency) {
+      sumsInUserCurrency = grpcCurrencyClient.calculate(
+          sumsByCategory.stream()
+              .map(sumByCategory -> new CurrencyAmount(sumByCategory.sum(), statisticCurrency))
+              .toList(),
           userCurrency
-      ).doubleValue();
+      );
+      categoryTotalsInUserCurrency = sumsInUserCurrency;
+    } else {
+      sumsInUserCurrency = null;
+      categoryTotalsInUserCurrency = sumsByCategory.stream()
+          .map(sumByCategory -> BigDecimal.valueOf(sumByCategory.sum()).setScale(2, RoundingMode.HALF_UP))
+          .toList();
+    }
 
+    statistic = calculateStatistic(statistic, sumsByCategory, sumsInUserCurrency);
+
+    List<StatisticByCategoryJson> sbcjResult = new ArrayList<>();
+    Set<String> categoriesWithSpends = new HashSet<>();
+    for (int i = 0; i < sumsByCategory.size(); i++) {
+      final String categoryName = sumsByCategory.get(i).categoryName();
+      categoriesWithSpends.add(categoryName);
       sbcjResult.add(new StatisticByCategoryJson(
-          entry.getKey(),
-          total,
-          totalInUserDefaultCurrency,
-          entry.getValue()
+          categoryName,
+          sumsByCategory.get(i).sum(),
+          categoryTotalsInUserCurrency.get(i).doubleValue(),
+          spendsByCategory.getOrDefault(categoryName, Collections.emptyList())
       ));
     }
 
-    categoryService.getAllCategories(username, true).stream()
-        .filter(c -> !spendsByCategory.containsKey(c.name()))
+    activeCategories.stream()
+        .filter(c -> !categoriesWithSpends.contains(c.name()))
         .map(c -> new StatisticByCategoryJson(
             c.name(),
             0.0,
@@ -140,63 +205,17 @@ public class StatService {
     return statistic;
   }
 
+  /**
+   * @param categoriesById known categories of the user, lazy categories of spends are loaded only for the missing ones
+   */
   @Nonnull
-  Function<SpendEntity, StatisticJson> enrichStatisticDateFromByFirstStreamElement(@Nonnull StatisticJson statistic) {
-    return se -> (statistic.dateFrom() == null)
-        ?
-        new StatisticJson(
-            se.getSpendDate(),
-            statistic.dateTo(),
-            statistic.currency(),
-            statistic.total(),
-            statistic.userDefaultCurrency(),
-            statistic.totalInUserDefaultCurrency(),
-            statistic.categoryStatistics()
-        )
-        :
-        statistic;
-  }
-
-  @Nonnull
-  Function<SpendEntity, StatisticJson> enrichStatisticTotalAmountByAllStreamElements(@Nonnull StatisticJson statistic) {
-    return se -> new StatisticJson(
-        statistic.dateFrom(),
-        statistic.dateTo(),
-        statistic.currency(),
-        BigDecimal.valueOf(statistic.total())
-            .add(BigDecimal.valueOf(se.getAmount()))
-            .doubleValue(),
-        statistic.userDefaultCurrency(),
-        statistic.totalInUserDefaultCurrency(),
-        statistic.categoryStatistics()
-    );
-  }
-
-  @Nonnull
-  Function<SpendEntity, StatisticJson> enrichStatisticTotalInUserCurrencyByAllStreamElements(@Nonnull StatisticJson statistic,
-                                                                                             @Nonnull CurrencyValues statisticCurrency,
-                                                                                             @Nonnull CurrencyValues userCurrency) {
-    return se -> new StatisticJson(
-        statistic.dateFrom(),
-        statistic.dateTo(),
-        statistic.currency(),
-        statistic.total(),
-        statistic.userDefaultCurrency(),
-        (userCurrency != statisticCurrency)
-            ? BigDecimal.valueOf(statistic.totalInUserDefaultCurrency())
-            .add(
-                grpcCurrencyClient.calculate(
-                    se.getAmount(), se.getCurrency(), userCurrency
-                )
-            ).doubleValue()
-            : statistic.total(),
-        statistic.categoryStatistics()
-    );
-  }
-
-  @Nonnull
-  Map<String, List<SpendJson>> bindSpendsToCategories(@Nonnull List<SpendEntity> sortedSpends) {
-    return sortedSpends.stream().map(SpendJson::fromEntity)
+  Map<String, List<SpendJson>> bindSpendsToCategories(@Nonnull List<SpendEntity> sortedSpends,
+                                                      @Nonnull Map<UUID, CategoryJson> categoriesById) {
+    return sortedSpends.stream()
+        .map(se -> {
+          CategoryJson category = categoriesById.get(se.getCategory().getId());
+          return category != null ? SpendJson.fromEntity(se, category) : SpendJson.fromEntity(se);
+        })
         .collect(Collectors.groupingBy(
             (SpendJson sj) -> {
               CategoryJson ce = sj.category();
@@ -209,21 +228,42 @@ public class StatService {
         ));
   }
 
+  /**
+   * Single pass over category sums, totals are summed exactly and rounded to double only once.
+   *
+   * @param sumsInUserCurrency converted sums in the same order, or null if statistic currency is the user one
+   */
   @Nonnull
   StatisticJson calculateStatistic(@Nonnull StatisticJson statistic,
-                                   @Nonnull CurrencyValues statisticCurrency,
-                                   @Nonnull CurrencyValues userCurrency,
-                                   @Nonnull List<SpendEntity> sortedSpends) {
-    for (SpendEntity spend : sortedSpends) {
-      statistic = enrichStatisticTotalInUserCurrencyByAllStreamElements(
-          enrichStatisticTotalAmountByAllStreamElements(
-              enrichStatisticDateFromByFirstStreamElement(
-                  statistic
-              ).apply(spend)
-          ).apply(spend), statisticCurrency, userCurrency
-      ).apply(spend);
+                                   @Nonnull List<SumByCategoryInfo> sumsByCategory,
+                                   @Nullable List<BigDecimal> sumsInUserCurrency) {
+    if (sumsByCategory.isEmpty()) {
+      return statistic;
     }
-    return statistic;
+    Date dateFrom = statistic.dateFrom();
+    DecimalSum total = new DecimalSum().add(statistic.total());
+    DecimalSum totalInUserCurrency = new DecimalSum().add(statistic.totalInUserDefaultCurrency());
+    for (int i = 0; i < sumsByCategory.size(); i++) {
+      final SumByCategoryInfo sumByCategory = sumsByCategory.get(i);
+      if (dateFrom == null || sumByCategory.firstSpendDate().before(dateFrom)) {
+        dateFrom = sumByCategory.firstSpendDate();
+      }
+      total.add(sumByCategory.sum());
+      if (sumsInUserCurrency == null) {
+        totalInUserCurrency.add(sumByCategory.sum());
+      } else {
+        totalInUserCurrency.add(sumsInUserCurrency.get(i));
+      }
+    }
+    return new StatisticJson(
+        dateFrom,
+        statistic.dateTo(),
+        statistic.currency(),
+        total.doubleValue(),
+        statistic.userDefaultCurrency(),
+        totalInUserCurrency.doubleValue(),
+        statistic.categoryStatistics()
+    );
   }
 
   @Nonnull
@@ -247,40 +287,4 @@ public class StatService {
         ? new CurrencyValues[]{filterCurrency}
         : CurrencyValues.values();
   }
-
-  @Nonnull
-  Collector<SumByCategoryInfo, ?, HashMap<String, List<SumByCategoryInfo>>> toCategoriesMap() {
-    return Collectors.groupingBy(
-        SumByCategoryInfo::categoryName,
-        HashMap::new,
-        Collectors.toCollection(ArrayList::new)
-    );
-  }
-
-  @Nonnull
-  SumByCategoryInfo mapToUserCurrency(@Nonnull CurrencyValues userCurrency,
-                                      @Nonnull SumByCategoryInfo sumByCategory) {
-    if (sumByCategory.currency() != userCurrency) {
-      return new SumByCategoryInUserCurrency(
-          sumByCategory,
-          userCurrency,
-          grpcCurrencyClient.calculate(
-              sumByCategory.sum(),
-              sumByCategory.currency(),
-              userCurrency
-          ).setScale(2, RoundingMode.HALF_UP).doubleValue()
-      );
-    } else {
-      return sumByCategory;
-    }
-  }
-
-  double getTotalSumm(@Nonnull List<SumByCategoryInfo> result) {
-    return result.stream()
-        .map(SumByCategoryInfo::sum)
-        .map(BigDecimal::valueOf)
-        .reduce(BigDecimal.ZERO, BigDecimal::add)
-        .setScale(2, RoundingMode.HALF_UP)
-        .doubleValue();
-  }
 }
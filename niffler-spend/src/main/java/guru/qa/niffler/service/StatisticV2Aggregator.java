@@ -0,0 +1,114 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.data.projection.SumByCategoryInfo;
+import guru.qa.niffler.model.CurrencyAmount;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.StatisticV2Json;
+import jakarta.annotation.Nonnull;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static guru.qa.niffler.service.CategoryService.ARCHIVED_CATEGORY_NAME;
+
+/**
+ * Single-use aggregator of v2 statistic rows: sums are kept per category in slots indexed by currency ordinal,
+ * so every (category, currency) pair is converted exactly once and conversion itself stays with the caller thread.
+ * Categories are sorted by sum with ties broken by name, archived categories always go last.
+ */
+final class StatisticV2Aggregator {
+
+  private static final CurrencyValues[] CURRENCIES = CurrencyValues.values();
+
+  private static final Comparator<SumByCategory> STATISTIC_ORDER =
+      Comparator.comparing((SumByCategory sum) -> ARCHIVED_CATEGORY_NAME.equals(sum.categoryName()))
+          .thenComparing(SumByCategory::sum, Comparator.reverseOrder())
+          .thenComparing(SumByCategory::categoryName);
+
+  private final CurrencyValues statCurrency;
+  private final Map<String, CategoryAccumulator> categories = new LinkedHashMap<>();
+
+  StatisticV2Aggregator(@Nonnull CurrencyValues statCurrency) {
+    this.statCurrency = statCurrency;
+  }
+
+  @Nonnull
+  StatisticV2Aggregator add(@Nonnull SumByCategoryInfo row) {
+    categories.computeIfAbsent(row.categoryName(), name -> new CategoryAccumulator())
+        .add(row);
+    return this;
+  }
+
+  /**
+   * @return category sums in currencies other than `statCurrency`, {@link #toStatistic(List)} expects them converted in the same order
+   */
+  @Nonnull
+  List<CurrencyAmount> amountsToConvert() {
+    List<CurrencyAmount> amounts = new ArrayList<>();
+    for (CategoryAccumulator category : categories.values()) {
+      for (int i = 0; i < CURRENCIES.length; i++) {
+        if (category.sums[i] != null && CURRENCIES[i] != statCurrency) {
+          amounts.add(new CurrencyAmount(category.sums[i].doubleValue(), CURRENCIES[i]));
+        }
+      }
+    }
+    return amounts;
+  }
+
+  @Nonnull
+  StatisticV2Json toStatistic(@Nonnull List<BigDecimal> converted) {
+    List<SumByCategory> result = new ArrayList<>(categories.size());
+    DecimalSum total = new DecimalSum();
+    int next = 0;
+    for (Map.Entry<String, CategoryAccumulator> entry : categories.entrySet()) {
+      final CategoryAccumulator category = entry.getValue();
+      DecimalSum sum = new DecimalSum();
+      for (int i = 0; i < CURRENCIES.length; i++) {
+        if (category.sums[i] == null) {
+          continue;
+        }
+        sum.add(CURRENCIES[i] == statCurrency
+            ? category.sums[i].toBigDecimal()
+            : converted.get(next++).setScale(2, RoundingMode.HALF_UP));
+      }
+      final double categorySum = sum.toBigDecimal().setScale(2, RoundingMode.HALF_UP).doubleValue();
+      total.add(categorySum);
+      result.add(new SumByCategory(
+          entry.getKey(),
+          statCurrency,
+          categorySum,
+          new Date(category.firstSpendDate),
+          new Date(category.lastSpendDate)
+      ));
+    }
+    result.sort(STATISTIC_ORDER);
+    return new StatisticV2Json(
+        total.toBigDecimal().setScale(2, RoundingMode.HALF_UP).doubleValue(),
+        statCurrency,
+        new ArrayList<>(result)
+    );
+  }
+
+  private static final class CategoryAccumulator {
+    private final DecimalSum[] sums = new DecimalSum[CURRENCIES.length];
+    private long firstSpendDate = Long.MAX_VALUE;
+    private long lastSpendDate = Long.MIN_VALUE;
+
+    private void add(@Nonnull SumByCategoryInfo row) {
+      final int slot = row.currency().ordinal();
+      if (sums[slot] == null) {
+        sums[slot] = new DecimalSum();
+      }
+      sums[slot].add(row.sum());
+      firstSpendDate = Math.min(firstSpendDate, row.firstSpendDate().getTime());
+      lastSpendDate = Math.max(lastSpendDate, row.lastSpendDate().getTime());
+    }
+  }
+}
@@ -0,0 +1,19 @@
+create table if not exists "spend_daily_aggregate"
+(
+    username     varchar(50)     not null,
+    category_id  UUID            not null,
+    currency     varchar(50)     not null,
+    spend_date   date            not null,
+    amount       numeric(38, 10) not null,
+    spends_count bigint          not null,
+    constraint pk_spend_daily_aggregate primary key (username, category_id, currency, spend_date),
+    constraint fk_spend_daily_aggregate_category foreign key (category_id) references "category" (id)
+);
+
+alter table "spend_daily_aggregate"
+    owner to postgres;
+
+insert into "spend_daily_aggregate" (username, category_id, currency, spend_date, amount, spends_count)
+select username, category_id, currency, spend_date, sum(cast(amount as numeric(38, 10))), count(*)
+from "spend"
+group by username, category_id, currency, spend_date;
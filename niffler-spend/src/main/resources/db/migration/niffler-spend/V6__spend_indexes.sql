@@ -0,0 +1,7 @@
+create index concurrently if not exists ix_spend_username_spend_date_id on "spend" (username, spend_date desc, id desc);
+create index concurrently if not exists ix_spend_username_currency_spend_date_id on "spend" (username, currency, spend_date desc, id desc);
+
+create extension if not exists pg_trgm;
+
+create index concurrently if not exists ix_spend_description_trgm on "spend" using gin (lower(description) gin_trgm_ops);
+create index concurrently if not exists ix_category_name_trgm on "category" using gin (lower(name) gin_trgm_ops);
@@ -0,0 +1,227 @@
+package guru.qa.niffler.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.data.repository.SpendDailyAggregateRepository;
+import guru.qa.niffler.data.repository.SpendRepository;
+import guru.qa.niffler.model.BulkSpendResultJson;
+import guru.qa.niffler.model.CategoryJson;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.service.SpendService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SpendControllerTest {
+
+  private static final String USERNAME = "bulk-user";
+  private static final String EXPORT_USERNAME = "export-user";
+  private static final String FAILED_CHUNK_USERNAME = "failed-chunk-user";
+  private static final String MALFORMED_USERNAME = "malformed-bulk-user";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private SpendRepository spendRepository;
+
+  @Autowired
+  private SpendService spendService;
+
+  @Autowired
+  private SpendDailyAggregateRepository spendDailyAggregateRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void bulkShouldSaveValidRowsInBatchesAndReportInvalidOnes() throws Exception {
+    final Date today = new Date();
+    final String[] categories = {"Бар", "Рыбалка", "Обучение"};
+    List<SpendJson> spends = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      spends.add(spend(today, categories[i % categories.length], 10.1));
+    }
+    spends.add(spend(null, "Бар", 10.1));
+    spends.add(spend(today, "Archived", 10.1));
+
+    final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    String response = mockMvc.perform(post("/internal/spends/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(spends))
+        )
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    List<BulkSpendResultJson> results = Arrays.asList(objectMapper.readValue(response, BulkSpendResultJson[].class));
+    assertEquals(302, results.size());
+    for (int i = 0; i < 300; i++) {
+      assertEquals(i, results.get(i).index());
+      assertNotNull(results.get(i).id());
+      assertNull(results.get(i).error());
+    }
+    assertNull(results.get(300).id());
+    assertNotNull(results.get(300).error());
+    assertNull(results.get(301).id());
+    assertEquals("Can`t add category with name: 'Archived'", results.get(301).error());
+
+    // 300 spends are inserted in batches of 50
+    assertTrue(statistics.getPrepareStatementCount() < 30, "Too many statements: " + statistics.getPrepareStatementCount());
+    assertEquals(300, spendRepository.findAllSpends(USERNAME, new Date(0), new Date()).size());
+
+    List<SumByCategory> sums = spendDailyAggregateRepository.statisticByCategory(USERNAME, new Date(0), new Date());
+    assertEquals(3, sums.size());
+    assertTrue(sums.stream().allMatch(s -> s.sum() == 1010.0));
+  }
+
+  @Test
+  void failedChunkShouldBeReportedAndNextChunksSaved() {
+    final Date today = new Date();
+    List<SpendJson> spends = new ArrayList<>();
+    for (int i = 0; i < 501; i++) {
+      spends.add(new SpendJson(null, today, new CategoryJson(null, "Бар", FAILED_CHUNK_USERNAME, false),
+          CurrencyValues.RUB, 1.0, "Выписка", FAILED_CHUNK_USERNAME));
+    }
+    // description is longer than its column, so the first chunk of 500 spends fails on insert
+    spends.set(1, new SpendJson(null, today, new CategoryJson(null, "Бар", FAILED_CHUNK_USERNAME, false),
+        CurrencyValues.RUB, 1.0, "Выписка".repeat(50), FAILED_CHUNK_USERNAME));
+
+    List<BulkSpendResultJson> results = spendService.saveSpendsForUser(spends.iterator());
+
+    assertEquals(501, results.size());
+    for (int i = 0; i < 500; i++) {
+      assertNull(results.get(i).id());
+      assertTrue(results.get(i).error().startsWith("Can`t save spend: "), results.get(i).error());
+    }
+    assertNotNull(results.get(500).id());
+    assertEquals(1, spendRepository.findAllSpends(FAILED_CHUNK_USERNAME, new Date(0), new Date()).size());
+
+    List<SumByCategory> sums = spendDailyAggregateRepository.statisticByCategory(FAILED_CHUNK_USERNAME, new Date(0), new Date());
+    assertEquals(1, sums.size());
+    assertEquals(1.0, sums.getFirst().sum());
+  }
+
+  @Test
+  void malformedRowsShouldBeReportedAndOthersSaved() throws Exception {
+    final Date today = new Date();
+    List<ObjectNode> spends = new ArrayList<>();
+    for (int i = 0; i < 503; i++) {
+      spends.add(objectMapper.valueToTree(new SpendJson(null, today, new CategoryJson(null, "Бар", MALFORMED_USERNAME, false),
+          CurrencyValues.RUB, 1.0, "Выписка", MALFORMED_USERNAME)));
+    }
+    // rows after the first chunk, which is already committed when they are read
+    spends.get(500).put("currency", "XXX");
+    spends.get(501).put("spendDate", "not a date");
+
+    String response = mockMvc.perform(post("/internal/spends/bulk")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsBytes(spends))
+        )
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    List<BulkSpendResultJson> results = Arrays.asList(objectMapper.readValue(response, BulkSpendResultJson[].class));
+    assertEquals(503, results.size());
+    for (int i : new int[]{500, 501}) {
+      assertEquals(i, results.get(i).index());
+      assertNull(results.get(i).id());
+      assertTrue(results.get(i).error().startsWith("Can`t read spend: "), results.get(i).error());
+    }
+    assertNotNull(results.get(499).id());
+    assertNotNull(results.get(502).id());
+    assertEquals(501, spendRepository.findAllSpends(MALFORMED_USERNAME, new Date(0), new Date()).size());
+  }
+
+  @Test
+  void exportShouldStreamCsvAndNdjson() throws Exception {
+    final Date spendDate = new SimpleDateFormat("yyyy-MM-dd").parse("2024-03-01");
+    final Date nextDate = new SimpleDateFormat("yyyy-MM-dd").parse("2024-03-02");
+    List<BulkSpendResultJson> saved = spendService.saveSpendsForUser(List.of(
+        new SpendJson(null, spendDate, new CategoryJson(null, "Бар", EXPORT_USERNAME, false),
+            CurrencyValues.RUB, 100.5, "Коктейль, \"Маргарита\"", EXPORT_USERNAME),
+        new SpendJson(null, nextDate, new CategoryJson(null, "Рыбалка", EXPORT_USERNAME, false),
+            CurrencyValues.USD, 20.0, "Удочка", EXPORT_USERNAME)
+    ).iterator());
+
+    MvcResult csv = mockMvc.perform(get("/internal/spends/export")
+            .param("username", EXPORT_USERNAME)
+        )
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    mockMvc.perform(asyncDispatch(csv))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+        .andExpect(header().string("Content-Disposition",
+            "attachment; filename=\"=?UTF-8?Q?spends-export-user.csv?=\"; filename*=UTF-8''spends-export-user.csv"))
+        .andExpect(content().string(
+            "id,spendDate,category,currency,amount,description\r\n" +
+                saved.get(1).id() + ",2024-03-02,Рыбалка,USD,20.0,Удочка\r\n" +
+                saved.get(0).id() + ",2024-03-01,Бар,RUB,100.5,\"Коктейль, \"\"Маргарита\"\"\"\r\n"
+        ));
+
+    MvcResult ndjson = mockMvc.perform(get("/internal/spends/export")
+            .param("username", EXPORT_USERNAME)
+            .param("format", "NDJSON")
+            .param("filterCurrency", "RUB")
+        )
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    String[] lines = mockMvc.perform(asyncDispatch(ndjson))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Type", "application/x-ndjson"))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(1, lines.length);
+    SpendJson exported = objectMapper.readValue(lines[0], SpendJson.class);
+    assertEquals(saved.get(0).id(), exported.id());
+    assertEquals("Бар", exported.category().name());
+  }
+
+  private SpendJson spend(Date spendDate, String category, double amount) {
+    return new SpendJson(
+        null,
+        spendDate,
+        new CategoryJson(null, category, USERNAME, false),
+        CurrencyValues.RUB,
+        amount,
+        "Выписка",
+        USERNAME
+    );
+  }
+}
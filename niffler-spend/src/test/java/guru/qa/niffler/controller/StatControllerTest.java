@@ -0,0 +1,109 @@
+package guru.qa.niffler.controller;
+
+import guru.qa.niffler.data.CategoryEntity;
+import guru.qa.niffler.data.repository.CategoryRepository;
+import guru.qa.niffler.model.CategoryJson;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.service.SpendService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private SpendService spendService;
+
+  @Test
+  @Transactional
+  void getStatisticShouldAggregateAllSpendsAndEmbedOnlyRequestedPage() throws Exception {
+    CategoryEntity bar = category("stat-user", "Бар", false);
+    CategoryEntity oldBar = category("stat-user", "Старый бар", true);
+    spend("stat-user", bar, 100.0, 4);
+    spend("stat-user", bar, 200.0, 3);
+    spend("stat-user", bar, 300.0, 2);
+    spend("stat-user", oldBar, 50.5, 1);
+
+    mockMvc.perform(get("/internal/stat/total")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("username", "stat-user")
+            .param("userCurrency", "RUB")
+            .param("filterCurrency", "RUB")
+            .param("page", "1")
+            .param("size", "2")
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].total").value(650.5))
+        .andExpect(jsonPath("$[0].totalInUserDefaultCurrency").value(650.5))
+        .andExpect(jsonPath("$[0].categoryStatistics.length()").value(2))
+        .andExpect(jsonPath("$[0].categoryStatistics[0].category").value("Archived"))
+        .andExpect(jsonPath("$[0].categoryStatistics[0].total").value(50.5))
+        .andExpect(jsonPath("$[0].categoryStatistics[0].spends.length()").value(0))
+        .andExpect(jsonPath("$[0].categoryStatistics[1].category").value("Бар"))
+        .andExpect(jsonPath("$[0].categoryStatistics[1].total").value(600.0))
+        .andExpect(jsonPath("$[0].categoryStatistics[1].spends.length()").value(1))
+        .andExpect(jsonPath("$[0].categoryStatistics[1].spends[0].amount").value(300.0));
+  }
+
+  @Test
+  @Transactional
+  void getStatisticWithoutPageShouldEmbedAllSpends() throws Exception {
+    CategoryEntity bar = category("stat-unpaged-user", "Бар", false);
+    for (int i = 0; i < 101; i++) {
+      spend("stat-unpaged-user", bar, 1.0, 1);
+    }
+
+    mockMvc.perform(get("/internal/stat/total")
+            .contentType(MediaType.APPLICATION_JSON)
+            .param("username", "stat-unpaged-user")
+            .param("userCurrency", "RUB")
+            .param("filterCurrency", "RUB")
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].total").value(101.0))
+        .andExpect(jsonPath("$[0].categoryStatistics[0].spends.length()").value(101));
+  }
+
+  private CategoryEntity category(String username, String name, boolean archived) {
+    CategoryEntity category = new CategoryEntity();
+    category.setUsername(username);
+    category.setName(name);
+    category.setArchived(archived);
+    return categoryRepository.save(category);
+  }
+
+  private void spend(String username, CategoryEntity category, double amount, int daysAgo) {
+    spendService.saveSpendForUser(new SpendJson(
+        null,
+        new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)),
+        CategoryJson.fromEntity(category),
+        CurrencyValues.RUB,
+        amount,
+        "Коктейль",
+        username
+    ));
+  }
+}
@@ -0,0 +1,91 @@
+package guru.qa.niffler.controller.v2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.qa.niffler.model.CategoryJson;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.model.SpendsSliceJson;
+import guru.qa.niffler.service.SpendService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SpendV2ControllerTest {
+
+  private static final String USERNAME = "cursor-user";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private SpendService spendService;
+
+  @Test
+  void cursorPagesShouldReturnEverySpendOnceInDateOrder() throws Exception {
+    List<UUID> expected = new ArrayList<>();
+    for (int daysAgo : new int[]{1, 1, 1, 2, 3}) {
+      expected.add(spendService.saveSpendForUser(new SpendJson(
+          null,
+          new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)),
+          new CategoryJson(null, "Бар", USERNAME, false),
+          CurrencyValues.RUB,
+          100.0,
+          "Коктейль",
+          USERNAME
+      )).id());
+    }
+
+    List<SpendJson> received = new ArrayList<>();
+    String cursor = "";
+    int pages = 0;
+    do {
+      SpendsSliceJson slice = objectMapper.readValue(
+          mockMvc.perform(get("/internal/v2/spends/all")
+                  .param("username", USERNAME)
+                  .param("cursor", cursor)
+                  .param("size", "2"))
+              .andExpect(status().isOk())
+              .andReturn().getResponse().getContentAsString(),
+          SpendsSliceJson.class
+      );
+      received.addAll(slice.content());
+      cursor = slice.nextCursor();
+      pages++;
+    } while (cursor != null && pages < 10);
+
+    assertEquals(3, pages);
+    assertEquals(expected.size(), received.size());
+    assertEquals(expected.size(), received.stream().map(SpendJson::id).distinct().count());
+    for (int i = 1; i < received.size(); i++) {
+      assertFalse(received.get(i).spendDate().after(received.get(i - 1).spendDate()));
+    }
+  }
+
+  @Test
+  void invalidCursorShouldBeRejected() throws Exception {
+    mockMvc.perform(get("/internal/v2/spends/all")
+            .param("username", USERNAME)
+            .param("cursor", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+  }
+}
@@ -0,0 +1,100 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.model.CurrencyValues;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plans are checked by EXPLAIN of the SQL generated by Hibernate for `SpendRepository.findAll`.
+ * B-tree indexes are declared on `SpendEntity` (the same as in V6__spend_indexes.sql), so H2 has them,
+ * trigram GIN indexes exist on Postgres only
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+    "guru.qa.niffler.data.repository.SpendQueryPlanTest$LastSelect")
+@ActiveProfiles("test")
+class SpendQueryPlanTest {
+
+  private static final String USERNAME = "plan-user";
+  private static final Date DATE_FROM = Date.valueOf("2024-01-01");
+  private static final Date DATE_TO = Date.valueOf("2024-12-31");
+  private static final PageRequest PAGE = PageRequest.of(1, 10);
+
+  @Autowired
+  private SpendRepository spendRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void pagedSpendsShouldUseUsernameSpendDateIndex() {
+    spendRepository.findAll(USERNAME, DATE_FROM, DATE_TO, PAGE);
+    String plan = explain(USERNAME, DATE_FROM, DATE_TO, PAGE.getOffset(), PAGE.getPageSize());
+
+    assertTrue(plan.contains("ix_spend_username_spend_date_id"), plan);
+  }
+
+  @Test
+  void pagedSpendsByCurrencyShouldUseUsernameCurrencySpendDateIndex() {
+    spendRepository.findAll(USERNAME, CurrencyValues.RUB, DATE_FROM, DATE_TO, PAGE);
+    String plan = explain(USERNAME, CurrencyValues.RUB.name(), DATE_FROM, DATE_TO, PAGE.getOffset(), PAGE.getPageSize());
+
+    assertTrue(plan.contains("ix_spend_username_currency_spend_date_id"), plan);
+  }
+
+  @Test
+  void spendsAfterCursorShouldBeSoughtByRowValueInUsernameSpendDateIndex() {
+    final UUID cursorId = UUID.randomUUID();
+    spendRepository.findAllAfter(USERNAME, DATE_FROM, DATE_TO, DATE_TO, cursorId, PageRequest.ofSize(10));
+    String sql = LastSelect.sql.replace(" ", "").replaceAll("\\w+\\.", "");
+    String plan = explain(USERNAME, DATE_FROM, DATE_TO, DATE_TO, cursorId, 10);
+
+    assertTrue(sql.contains("(spend_date,id)<(?,?)"), sql);
+    assertTrue(plan.contains("ix_spend_username_spend_date_id"), plan);
+  }
+
+  /**
+   * Run with SPRING_DATASOURCE_URL=jdbc:postgresql://..., SPRING_DATASOURCE_USERNAME, SPRING_DATASOURCE_PASSWORD
+   * and SPRING_JPA_DATABASE_PLATFORM=org.hibernate.dialect.PostgreSQLDialect, on an empty table sequential scans are disabled
+   */
+  @Test
+  @EnabledIf(expression = "#{environment['spring.datasource.url'].startsWith('jdbc:postgresql')}", loadContext = true)
+  @Transactional
+  void searchedSpendsShouldUseTrigramIndexes() {
+    jdbcTemplate.execute("set local enable_seqscan = off");
+    spendRepository.findAll(USERNAME, DATE_FROM, DATE_TO, "bar", PAGE);
+    String plan = explain(USERNAME, USERNAME, "bar", "bar", DATE_FROM, DATE_TO, PAGE.getOffset(), PAGE.getPageSize());
+
+    assertTrue(plan.contains("ix_spend_description_trgm"), plan);
+    assertTrue(plan.contains("ix_category_name_trgm"), plan);
+  }
+
+  private String explain(Object... params) {
+    return String.join("\n", jdbcTemplate.queryForList("explain " + LastSelect.sql, String.class, params))
+        .toLowerCase();
+  }
+
+  public static class LastSelect implements StatementInspector {
+
+    private static volatile String sql;
+
+    @Override
+    public String inspect(String sql) {
+      if (sql.startsWith("select") && !sql.startsWith("select count")) {
+        LastSelect.sql = sql;
+      }
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.model.CategoryJson;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CategoryCacheTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private MutableClock clock;
+  private CategoryCache categoryCache;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    categoryCache = new CategoryCache(Duration.ofSeconds(10), 2, meterRegistry, clock);
+  }
+
+  @Test
+  void cacheShouldServeHitsUntilTtlExpiresOrInvalidation() {
+    categoryCache.get("dima", loader("dima"));
+    categoryCache.get("dima", loader("dima"));
+    assertEquals(1, loads.get());
+
+    clock.advance(Duration.ofSeconds(10));
+    categoryCache.get("dima", loader("dima"));
+    assertEquals(2, loads.get());
+
+    categoryCache.invalidate("dima");
+    categoryCache.get("dima", loader("dima"));
+    assertEquals(3, loads.get());
+
+    assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").counter().count());
+    assertEquals(3.0, meterRegistry.get("cache.gets").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  void leastRecentlyUsedUserShouldBeEvicted() {
+    categoryCache.get("dima", loader("dima"));
+    categoryCache.get("duck", loader("duck"));
+    categoryCache.get("dima", loader("dima"));
+    categoryCache.get("barsik", loader("barsik"));
+    assertEquals(3, loads.get());
+
+    categoryCache.get("dima", loader("dima"));
+    assertEquals(3, loads.get());
+    categoryCache.get("duck", loader("duck"));
+    assertEquals(4, loads.get());
+
+    assertEquals(2.0, meterRegistry.get("cache.size").gauge().value());
+    assertEquals(2.0, meterRegistry.get("cache.evictions").counter().count());
+  }
+
+  @Test
+  void snapshotLoadedDuringInvalidationShouldNotBeCached() {
+    categoryCache.get("dima", () -> {
+      categoryCache.invalidate("dima");
+      return loader("dima").get();
+    });
+    categoryCache.get("dima", loader("dima"));
+    assertEquals(2, loads.get());
+  }
+
+  private Supplier<List<CategoryJson>> loader(String username) {
+    return () -> {
+      loads.incrementAndGet();
+      return List.of(new CategoryJson(UUID.randomUUID(), "Бар", username, false));
+    };
+  }
+
+  private static final class MutableClock extends Clock {
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.grpc.Currency;
+import guru.qa.niffler.model.CurrencyValues;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.BigRange;
+import net.jqwik.api.constraints.Scale;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CurrencyRateMatrixTest {
+
+  @Property(tries = 5000)
+  void convertShouldMatchServerSideConversion(@ForAll("rates") Map<CurrencyValues, Double> rates,
+                                              @ForAll @BigRange(min = "0", max = "10000000") @Scale(2) BigDecimal amount,
+                                              @ForAll CurrencyValues spendCurrency,
+                                              @ForAll CurrencyValues desiredCurrency) {
+    CurrencyRateMatrix matrix = CurrencyRateMatrix.fromGrpcMessages(
+        rates.entrySet().stream()
+            .map(e -> Currency.newBuilder()
+                .setCurrency(guru.qa.niffler.grpc.CurrencyValues.valueOf(e.getKey().name()))
+                .setCurrencyRate(e.getValue())
+                .build())
+            .toList(),
+        Instant.MAX
+    );
+
+    assertEquals(
+        convertSpendTo(amount.doubleValue(), spendCurrency, desiredCurrency, rates),
+        matrix.convert(amount.doubleValue(), spendCurrency, desiredCurrency)
+    );
+  }
+
+  @Provide
+  Arbitrary<Map<CurrencyValues, Double>> rates() {
+    Arbitrary<Double> rate = Arbitraries.doubles().between(0.0001, 1000.0).ofScale(4);
+    return Combinators.combine(rate, rate, rate).as((rub, eur, kzt) -> {
+      Map<CurrencyValues, Double> rates = new EnumMap<>(CurrencyValues.class);
+      rates.put(CurrencyValues.RUB, rub);
+      rates.put(CurrencyValues.USD, 1.0);
+      rates.put(CurrencyValues.EUR, eur);
+      rates.put(CurrencyValues.KZT, kzt);
+      return rates;
+    }).edgeCases(edgeCases -> edgeCases.add(Map.of(
+        CurrencyValues.RUB, 0.015,
+        CurrencyValues.USD, 1.0,
+        CurrencyValues.EUR, 1.08,
+        CurrencyValues.KZT, 0.0021
+    )));
+  }
+
+  /**
+   * Reference: niffler-currency GrpcCurrencyService#convertSpendTo
+   */
+  private static BigDecimal convertSpendTo(double spend,
+                                           CurrencyValues spendCurrency,
+                                           CurrencyValues desiredCurrency,
+                                           Map<CurrencyValues, Double> currencyRates) {
+    BigDecimal spendInUsd = spendCurrency == CurrencyValues.USD
+        ? BigDecimal.valueOf(spend)
+        : BigDecimal.valueOf(spend).multiply(BigDecimal.valueOf(currencyRates.get(spendCurrency)));
+
+    return spendInUsd.divide(
+        BigDecimal.valueOf(currencyRates.get(desiredCurrency)),
+        2,
+        RoundingMode.HALF_UP
+    );
+  }
+
+  @Test
+  void convertShouldUseKnownRates() {
+    CurrencyRateMatrix matrix = CurrencyRateMatrix.fromGrpcMessages(List.of(
+        Currency.newBuilder().setCurrency(guru.qa.niffler.grpc.CurrencyValues.RUB).setCurrencyRate(0.015).build(),
+        Currency.newBuilder().setCurrency(guru.qa.niffler.grpc.CurrencyValues.KZT).setCurrencyRate(0.0021).build()
+    ), Instant.MAX);
+
+    assertEquals(new BigDecimal("1071.43"), matrix.convert(150.0, CurrencyValues.RUB, CurrencyValues.KZT));
+  }
+}
@@ -0,0 +1,126 @@
+package guru.qa.niffler.service;
+
+import com.google.protobuf.Empty;
+import guru.qa.niffler.grpc.Currency;
+import guru.qa.niffler.grpc.CurrencyResponse;
+import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc;
+import guru.qa.niffler.model.CurrencyValues;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class CurrencyRatesSubscriptionTest {
+
+  private final FakeCurrencyService currencyService = new FakeCurrencyService();
+
+  private Server server;
+  private ManagedChannel channel;
+  private MutableClock clock;
+  private GrpcCurrencyClient grpcCurrencyClient;
+  private CurrencyRatesSubscription subscription;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    final String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+        .directExecutor()
+        .addService(currencyService)
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(serverName).directExecutor().build();
+
+    clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    grpcCurrencyClient = new GrpcCurrencyClient(Duration.ofMinutes(1), Duration.ofSeconds(2), Duration.ofSeconds(5), clock);
+    grpcCurrencyClient.setNifflerCurrencyServiceStub(NifflerCurrencyServiceGrpc.newBlockingStub(channel));
+    subscription = new CurrencyRatesSubscription(grpcCurrencyClient, Duration.ofHours(1));
+    subscription.setNifflerCurrencyServiceStub(NifflerCurrencyServiceGrpc.newStub(channel));
+  }
+
+  @AfterEach
+  void tearDown() {
+    subscription.stop();
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void pushedRatesShouldBeUsedWithoutPolling() {
+    subscription.start();
+    assertNotNull(currencyService.subscriber);
+
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+
+    currencyService.subscriber.onNext(rates(0.011));
+    assertEquals(BigDecimal.valueOf(1.1), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+
+    assertEquals(0, currencyService.getAllCurrenciesCalls.get());
+  }
+
+  @Test
+  void pushedRatesShouldExpireWhenStreamIsSilent() {
+    subscription.start();
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+
+    // half-open stream: no pushes and no error
+    clock.advance(Duration.ofMinutes(2));
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    assertEquals(1, currencyService.getAllCurrenciesCalls.get());
+
+    currencyService.subscriber.onNext(rates(0.011));
+    clock.advance(Duration.ofSeconds(30));
+    assertEquals(BigDecimal.valueOf(1.1), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    assertEquals(1, currencyService.getAllCurrenciesCalls.get());
+  }
+
+  @Test
+  void lostSubscriptionShouldFallbackToPolling() {
+    subscription.start();
+    currencyService.subscriber.onCompleted();
+
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    assertEquals(0, currencyService.getAllCurrenciesCalls.get());
+
+    clock.advance(Duration.ofMinutes(2));
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    assertEquals(1, currencyService.getAllCurrenciesCalls.get());
+  }
+
+  private static CurrencyResponse rates(double rubRate) {
+    return CurrencyResponse.newBuilder()
+        .addAllCurrencies(Currency.newBuilder().setCurrency(guru.qa.niffler.grpc.CurrencyValues.RUB).setCurrencyRate(rubRate).build())
+        .addAllCurrencies(Currency.newBuilder().setCurrency(guru.qa.niffler.grpc.CurrencyValues.USD).setCurrencyRate(1.0).build())
+        .build();
+  }
+
+  private static class FakeCurrencyService extends NifflerCurrencyServiceGrpc.NifflerCurrencyServiceImplBase {
+
+    private final AtomicInteger getAllCurrenciesCalls = new AtomicInteger();
+    private volatile StreamObserver<CurrencyResponse> subscriber;
+
+    @Override
+    public void getAllCurrencies(Empty request, StreamObserver<CurrencyResponse> responseObserver) {
+      getAllCurrenciesCalls.incrementAndGet();
+      responseObserver.onNext(rates(0.015));
+      responseObserver.onCompleted();
+    }
+
+    @Override
+    public void subscribeRates(Empty request, StreamObserver<CurrencyResponse> responseObserver) {
+      subscriber = responseObserver;
+      responseObserver.onNext(rates(0.015));
+    }
+  }
+}
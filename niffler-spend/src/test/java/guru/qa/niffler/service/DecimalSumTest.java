@@ -0,0 +1,58 @@
+package guru.qa.niffler.service;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DecimalSumTest {
+
+  @Property(tries = 2000)
+  void sumOfDoublesShouldBeEqualToBigDecimalSum(@ForAll("amounts") List<Double> amounts) {
+    DecimalSum sum = new DecimalSum();
+    amounts.forEach(sum::add);
+
+    BigDecimal expected = amounts.stream()
+        .map(BigDecimal::valueOf)
+        .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+    assertEquals(0, expected.compareTo(sum.toBigDecimal()));
+    assertEquals(expected.doubleValue(), sum.doubleValue());
+  }
+
+  @Property(tries = 2000)
+  void sumOfBigDecimalsShouldBeEqualToBigDecimalSum(@ForAll("amounts") List<Double> amounts) {
+    List<BigDecimal> decimals = amounts.stream().map(BigDecimal::valueOf).toList();
+    DecimalSum sum = new DecimalSum();
+    decimals.forEach(sum::add);
+
+    assertEquals(0, decimals.stream().reduce(BigDecimal.ZERO, BigDecimal::add).compareTo(sum.toBigDecimal()));
+  }
+
+  @Example
+  void sumShouldStayExactWhenCentsOverflow() {
+    BigDecimal amount = new BigDecimal("9007199254740991");
+    DecimalSum sum = new DecimalSum();
+    for (int i = 0; i < 20; i++) {
+      sum.add(amount);
+    }
+
+    assertEquals(0, amount.multiply(BigDecimal.valueOf(20)).compareTo(sum.toBigDecimal()));
+  }
+
+  @Provide
+  Arbitrary<List<Double>> amounts() {
+    return Arbitraries.oneOf(
+        Arbitraries.doubles().between(-1_000_000.0, 1_000_000.0).ofScale(2),
+        Arbitraries.doubles().between(-1_000_000.0, 1_000_000.0).ofScale(6),
+        Arbitraries.of(0.1, 0.2, 0.3, 1e13, 9.2e16, -9.2e16, Double.MIN_VALUE, 1e300)
+    ).list().ofMaxSize(200);
+  }
+}
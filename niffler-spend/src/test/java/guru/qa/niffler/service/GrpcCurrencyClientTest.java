@@ -0,0 +1,155 @@
+package guru.qa.niffler.service;
+
+import com.google.protobuf.Empty;
+import guru.qa.niffler.grpc.CalculateRequest;
+import guru.qa.niffler.grpc.CalculateResponse;
+import guru.qa.niffler.grpc.Currency;
+import guru.qa.niffler.grpc.CurrencyResponse;
+import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc.NifflerCurrencyServiceBlockingStub;
+import guru.qa.niffler.model.CurrencyAmount;
+import guru.qa.niffler.model.CurrencyValues;
+import io.grpc.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GrpcCurrencyClientTest {
+
+  private static final CurrencyResponse RATES = CurrencyResponse.newBuilder()
+      .addAllCurrencies(Currency.newBuilder().setCurrency(guru.qa.niffler.grpc.CurrencyValues.RUB).setCurrencyRate(0.015).build())
+      .addAllCurrencies(Currency.newBuilder().setCurrency(guru.qa.niffler.grpc.CurrencyValues.USD).setCurrencyRate(1.0).build())
+      .build();
+
+  @Mock
+  private NifflerCurrencyServiceBlockingStub stub;
+
+  private MutableClock clock;
+  private GrpcCurrencyClient grpcCurrencyClient;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    grpcCurrencyClient = new GrpcCurrencyClient(Duration.ofMinutes(1), Duration.ofSeconds(2), Duration.ofSeconds(5), clock);
+    grpcCurrencyClient.setNifflerCurrencyServiceStub(stub);
+    lenient().when(stub.withDeadlineAfter(anyLong(), any(TimeUnit.class))).thenReturn(stub);
+  }
+
+  @Test
+  void calculateShouldUseCachedRatesUntilTtlExpires() {
+    when(stub.getAllCurrencies(any(Empty.class))).thenReturn(RATES);
+
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    assertEquals(
+        List.of(BigDecimal.valueOf(6666.67), BigDecimal.valueOf(1.5)),
+        grpcCurrencyClient.calculate(List.of(
+            new CurrencyAmount(100.0, CurrencyValues.USD),
+            new CurrencyAmount(1.5, CurrencyValues.RUB)
+        ), CurrencyValues.RUB)
+    );
+    verify(stub, times(1)).getAllCurrencies(any(Empty.class));
+
+    clock.advance(Duration.ofMinutes(2));
+    grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD);
+    verify(stub, times(2)).getAllCurrencies(any(Empty.class));
+    verify(stub, never()).calculateRate(any(CalculateRequest.class));
+  }
+
+  @Test
+  void calculateShouldFallbackToRpcWhenRatesAreUnavailable() {
+    when(stub.getAllCurrencies(any(Empty.class))).thenThrow(Status.UNAVAILABLE.asRuntimeException());
+    when(stub.calculateRate(any(CalculateRequest.class)))
+        .thenReturn(CalculateResponse.newBuilder().setCalculatedAmount(1.5).build());
+
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    verify(stub).calculateRate(any(CalculateRequest.class));
+  }
+
+  @Test
+  void calculateShouldFallbackToRpcForUnknownCurrency() {
+    when(stub.getAllCurrencies(any(Empty.class))).thenReturn(RATES);
+    when(stub.calculateRate(any(CalculateRequest.class)))
+        .thenReturn(CalculateResponse.newBuilder().setCalculatedAmount(47.62).build());
+
+    assertEquals(BigDecimal.valueOf(47.62), grpcCurrencyClient.calculate(10000.0, CurrencyValues.KZT, CurrencyValues.USD));
+    verify(stub).calculateRate(any(CalculateRequest.class));
+  }
+
+  @Test
+  void failedRefreshShouldKeepExpiredRatesAndBackOff() {
+    when(stub.getAllCurrencies(any(Empty.class)))
+        .thenReturn(RATES)
+        .thenThrow(Status.DEADLINE_EXCEEDED.asRuntimeException());
+
+    grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD);
+    clock.advance(Duration.ofMinutes(2));
+
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    verify(stub, times(2)).getAllCurrencies(any(Empty.class));
+
+    clock.advance(Duration.ofSeconds(6));
+    grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD);
+    verify(stub, times(3)).getAllCurrencies(any(Empty.class));
+    verify(stub, times(3)).withDeadlineAfter(2000L, TimeUnit.MILLISECONDS);
+    verify(stub, never()).calculateRate(any(CalculateRequest.class));
+  }
+
+  @Test
+  void callersShouldNotWaitForRefreshInProgress() throws Exception {
+    CountDownLatch refreshStarted = new CountDownLatch(1);
+    CountDownLatch releaseRefresh = new CountDownLatch(1);
+    when(stub.getAllCurrencies(any(Empty.class)))
+        .thenReturn(RATES)
+        .thenAnswer(invocation -> {
+          refreshStarted.countDown();
+          releaseRefresh.await();
+          return RATES;
+        });
+    grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD);
+    clock.advance(Duration.ofMinutes(2));
+
+    Thread refreshing = Thread.ofVirtual().start(() -> grpcCurrencyClient.actualRateMatrix());
+    assertTrue(refreshStarted.await(5, TimeUnit.SECONDS));
+    try {
+      assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    } finally {
+      releaseRefresh.countDown();
+      refreshing.join();
+    }
+    verify(stub, times(2)).getAllCurrencies(any(Empty.class));
+  }
+
+  @Test
+  void unspecifiedAndUnrecognizedCurrenciesShouldBeSkipped() {
+    when(stub.getAllCurrencies(any(Empty.class))).thenReturn(RATES.toBuilder()
+        .addAllCurrencies(Currency.newBuilder().setCurrency(guru.qa.niffler.grpc.CurrencyValues.UNSPECIFIED).setCurrencyRate(1.0).build())
+        .addAllCurrencies(Currency.newBuilder().setCurrencyValue(99).setCurrencyRate(2.0).build())
+        .build());
+    when(stub.calculateRate(any(CalculateRequest.class)))
+        .thenReturn(CalculateResponse.newBuilder().setCalculatedAmount(47.62).build());
+
+    assertEquals(BigDecimal.valueOf(1.5), grpcCurrencyClient.calculate(100.0, CurrencyValues.RUB, CurrencyValues.USD));
+    assertEquals(BigDecimal.valueOf(47.62), grpcCurrencyClient.calculate(10000.0, CurrencyValues.KZT, CurrencyValues.USD));
+    verify(stub, times(1)).calculateRate(any(CalculateRequest.class));
+  }
+}
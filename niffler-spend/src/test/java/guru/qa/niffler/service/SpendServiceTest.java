@@ -0,0 +1,205 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.SpendDailyAggregateEntity;
+import guru.qa.niffler.data.projection.SumByCategoryInfo;
+import guru.qa.niffler.data.repository.SpendDailyAggregateRepository;
+import guru.qa.niffler.model.CategoryJson;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.model.SpendsSliceJson;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SpendServiceTest {
+
+  private static final String USERNAME = "aggregate-user";
+
+  @Autowired
+  private SpendService spendService;
+
+  @Autowired
+  private SpendDailyAggregateRepository spendDailyAggregateRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void dailyAggregateShouldFollowSavedEditedAndDeletedSpends() {
+    final Date today = new Date();
+    final Date yesterday = new Date(today.getTime() - TimeUnit.DAYS.toMillis(1));
+
+    SpendJson first = spendService.saveSpendForUser(spend(null, today, "Бар", 100.1));
+    SpendJson second = spendService.saveSpendForUser(spend(null, today, "Бар", 200.2));
+    spendService.saveSpendForUser(spend(null, yesterday, "Бар", 50.0));
+
+    List<SpendDailyAggregateEntity> aggregates = aggregates();
+    assertEquals(2, aggregates.size());
+    assertEquals(0, new BigDecimal("50.0").compareTo(aggregates.get(0).getAmount()));
+    assertEquals(0, new BigDecimal("300.3").compareTo(aggregates.get(1).getAmount()));
+    assertEquals(2, aggregates.get(1).getSpendsCount());
+
+    spendService.editSpendForUser(spend(first.id(), today, "Бар", 99.9));
+    assertEquals(0, new BigDecimal("300.1").compareTo(aggregates().get(1).getAmount()));
+
+    spendService.editSpendForUser(spend(second.id(), yesterday, "Рыбалка", 200.2));
+    aggregates = aggregates();
+    assertEquals(3, aggregates.size());
+    assertEquals(0, new BigDecimal("99.9").compareTo(
+        aggregates.stream().filter(a -> a.getSpendsCount() == 1 && a.getSpendDate().after(yesterday)).findFirst().orElseThrow().getAmount()
+    ));
+
+    spendService.deleteSpends(USERNAME, List.of(first.id().toString()));
+    aggregates = aggregates();
+    assertEquals(2, aggregates.size());
+    assertTrue(aggregates.stream().noneMatch(a -> a.getSpendDate().after(yesterday)));
+
+    List<SumByCategoryInfo> sums = spendService.getSumByCategories(USERNAME, null, null);
+    assertEquals(2, sums.size());
+    assertEquals(250.2, sums.stream().mapToDouble(SumByCategoryInfo::sum).sum());
+  }
+
+  @Test
+  void spendListsShouldBeLoadedWithOneStatementPerPage() {
+    final Date today = new Date();
+    spendService.saveSpendForUser(spend(null, today, "Бар", 100.0));
+    spendService.saveSpendForUser(spend(null, today, "Рыбалка", 200.0));
+    spendService.saveSpendForUser(spend(null, today, "Обучение", 300.0));
+    spendService.saveSpendForUser(spend(null, today, "Бар", 400.0));
+    entityManager.flush();
+    entityManager.clear();
+
+    final Statistics statistics = entityManager.getEntityManagerFactory()
+        .unwrap(SessionFactory.class)
+        .getStatistics();
+
+    statistics.clear();
+    List<SpendJson> all = spendService.getSpendsForUser(USERNAME, null, null, null);
+    assertEquals(4, all.size());
+    assertEquals(1, statistics.getPrepareStatementCount());
+
+    statistics.clear();
+    Page<SpendJson> page = spendService.getSpendsForUser(USERNAME, PageRequest.of(0, 10), CurrencyValues.RUB, null, null, null);
+    assertEquals(4, page.getTotalElements());
+    assertEquals(1, statistics.getPrepareStatementCount());
+
+    statistics.clear();
+    SpendsSliceJson slice = spendService.getSpendsForUser(USERNAME, null, 2, null, null, null, "Бар");
+    assertEquals(2, slice.content().size());
+    assertNotNull(slice.content().getFirst().category().id());
+    assertEquals(1, statistics.getPrepareStatementCount());
+
+    assertEquals(0, statistics.getEntityLoadCount());
+  }
+
+  /**
+   * H2 emulates the upsert with a MERGE, which is not atomic, so the race is checked against Postgres only:
+   * run with SPRING_DATASOURCE_URL=jdbc:postgresql://..., SPRING_DATASOURCE_USERNAME, SPRING_DATASOURCE_PASSWORD
+   * and SPRING_JPA_DATABASE_PLATFORM=org.hibernate.dialect.PostgreSQLDialect
+   */
+  @Test
+  @EnabledIf(expression = "#{environment['spring.datasource.url'].startsWith('jdbc:postgresql')}", loadContext = true)
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void concurrentFirstSpendsOfDayShouldBeSummedUp() throws Exception {
+    final String username = "concurrent-aggregate-user";
+    final UUID categoryId = UUID.randomUUID();
+    final Date day = new Date(TimeUnit.DAYS.toMillis(20_000));
+    final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    final CountDownLatch firstAdded = new CountDownLatch(1);
+
+    CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+      spendDailyAggregateRepository.add(username, categoryId, CurrencyValues.RUB, day, new BigDecimal("10.5"), 1);
+      firstAdded.countDown();
+      sleep(300);
+    }));
+    CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+      await(firstAdded);
+      spendDailyAggregateRepository.add(username, categoryId, CurrencyValues.RUB, day, new BigDecimal("20.5"), 1);
+    }));
+    CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+    try {
+      List<SpendDailyAggregateEntity> aggregates = spendDailyAggregateRepository.findAll().stream()
+          .filter(a -> a.getUsername().equals(username))
+          .toList();
+      assertEquals(1, aggregates.size());
+      assertEquals(0, new BigDecimal("31.0").compareTo(aggregates.getFirst().getAmount()));
+      assertEquals(2, aggregates.getFirst().getSpendsCount());
+    } finally {
+      transactionTemplate.executeWithoutResult(status ->
+          spendDailyAggregateRepository.deleteAll(spendDailyAggregateRepository.findAll().stream()
+              .filter(a -> a.getUsername().equals(username))
+              .toList())
+      );
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private List<SpendDailyAggregateEntity> aggregates() {
+    // aggregates are changed by bulk updates, which bypass the persistence context
+    entityManager.flush();
+    entityManager.clear();
+    return spendDailyAggregateRepository.findAll().stream()
+        .filter(a -> a.getUsername().equals(USERNAME))
+        .sorted(Comparator.comparing(SpendDailyAggregateEntity::getSpendDate)
+            .thenComparing(SpendDailyAggregateEntity::getAmount))
+        .toList();
+  }
+
+  private SpendJson spend(UUID id, Date spendDate, String category, double amount) {
+    return new SpendJson(
+        id,
+        spendDate,
+        new CategoryJson(null, category, USERNAME, false),
+        CurrencyValues.RUB,
+        amount,
+        "Покупка",
+        USERNAME
+    );
+  }
+}
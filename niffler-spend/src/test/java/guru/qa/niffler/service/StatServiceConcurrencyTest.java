@@ -0,0 +1,159 @@
+package guru.qa.niffler.service;
+
+import com.google.protobuf.Empty;
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.grpc.CalculateRatesRequest;
+import guru.qa.niffler.grpc.CalculateRatesResponse;
+import guru.qa.niffler.grpc.CalculateResponse;
+import guru.qa.niffler.grpc.CurrencyResponse;
+import guru.qa.niffler.grpc.NifflerCurrencyServiceGrpc;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.StatisticJson;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StatServiceConcurrencyTest {
+
+  private final SlowCurrencyService currencyService = new SlowCurrencyService();
+
+  private Server server;
+  private ManagedChannel channel;
+  private ExecutorService statisticExecutor;
+  private GrpcCurrencyClient grpcCurrencyClient;
+  private SpendService spendService;
+  private CategoryService categoryService;
+
+  @BeforeEach
+  void setUp(@Mock SpendService spendService,
+             @Mock CategoryService categoryService) throws Exception {
+    final String serverName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(serverName)
+        .addService(currencyService)
+        .build()
+        .start();
+    channel = InProcessChannelBuilder.forName(serverName).build();
+
+    grpcCurrencyClient = new GrpcCurrencyClient(Duration.ofMinutes(1), Duration.ofSeconds(2), Duration.ofSeconds(5));
+    grpcCurrencyClient.setNifflerCurrencyServiceStub(NifflerCurrencyServiceGrpc.newBlockingStub(channel));
+    statisticExecutor = Executors.newFixedThreadPool(4, Thread.ofVirtual().factory());
+
+    final Date spendDate = new Date();
+    when(spendService.getSumByCategories(eq("dima"), isNull(), isNull())).thenReturn(List.of(
+        new SumByCategory("Бар", CurrencyValues.RUB, 1000.0, spendDate, spendDate),
+        new SumByCategory("Бар", CurrencyValues.EUR, 10.0, spendDate, spendDate),
+        new SumByCategory("Бар", CurrencyValues.KZT, 5000.0, spendDate, spendDate),
+        new SumByCategory("Бар", CurrencyValues.USD, 20.0, spendDate, spendDate)
+    ));
+    when(spendService.getSpendsEntityPageByCategories(eq("dima"), isNull(), isNull(), isNull(), any(Pageable.class)))
+        .thenReturn(List.of());
+    when(categoryService.getAllCategories("dima", false)).thenReturn(List.of());
+
+    this.spendService = spendService;
+    this.categoryService = categoryService;
+  }
+
+  @AfterEach
+  void tearDown() {
+    statisticExecutor.shutdownNow();
+    channel.shutdownNow();
+    server.shutdownNow();
+  }
+
+  @Test
+  void conversionsOfAllCurrenciesShouldBeInFlightTogether() {
+    StatService statService = new StatService(spendService, categoryService, grpcCurrencyClient, statisticExecutor);
+    currencyService.holdUntilInFlight(3);
+
+    List<StatisticJson> statistic = statService.getStatistic("dima", CurrencyValues.USD, null, null, null, Pageable.ofSize(10));
+
+    assertEquals(3, currencyService.calculateRatesCalls.get());
+    assertEquals(3, currencyService.maxInFlight.get());
+    assertEquals(
+        List.of(CurrencyValues.RUB, CurrencyValues.USD, CurrencyValues.EUR, CurrencyValues.KZT),
+        statistic.stream().map(StatisticJson::currency).toList()
+    );
+    assertEquals(
+        List.of(10.0, 20.0, 10.0, 10.0),
+        statistic.stream().map(StatisticJson::totalInUserDefaultCurrency).toList()
+    );
+  }
+
+  @Test
+  void sameThreadExecutorShouldConvertOneCurrencyAtATime() {
+    StatService statService = new StatService(spendService, categoryService, grpcCurrencyClient, Runnable::run);
+    currencyService.holdUntilInFlight(1);
+
+    statService.getStatistic("dima", CurrencyValues.USD, null, null, null, Pageable.ofSize(10));
+
+    assertEquals(3, currencyService.calculateRatesCalls.get());
+    assertEquals(1, currencyService.maxInFlight.get());
+  }
+
+  /**
+   * Has no rates to cache, so every conversion is a CalculateRates call.
+   * Each call is held until the expected number of calls is in flight, so overlap doesn't depend on timing
+   */
+  private static class SlowCurrencyService extends NifflerCurrencyServiceGrpc.NifflerCurrencyServiceImplBase {
+
+    private final AtomicInteger calculateRatesCalls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile CountDownLatch allInFlight;
+
+    void holdUntilInFlight(int calls) {
+      allInFlight = new CountDownLatch(calls);
+    }
+
+    @Override
+    public void getAllCurrencies(Empty request, StreamObserver<CurrencyResponse> responseObserver) {
+      responseObserver.onError(Status.UNAVAILABLE.asRuntimeException());
+    }
+
+    @Override
+    public void calculateRates(CalculateRatesRequest request, StreamObserver<CalculateRatesResponse> responseObserver) {
+      calculateRatesCalls.incrementAndGet();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      allInFlight.countDown();
+      try {
+        allInFlight.await(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        inFlight.decrementAndGet();
+      }
+      CalculateRatesResponse.Builder response = CalculateRatesResponse.newBuilder();
+      request.getRequestsList().forEach(r -> response.addResponses(
+          CalculateResponse.newBuilder().setCalculatedAmount(10.0).build()
+      ));
+      responseObserver.onNext(response.build());
+      responseObserver.onCompleted();
+    }
+  }
+}
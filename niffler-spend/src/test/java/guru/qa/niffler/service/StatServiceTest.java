@@ -2,9 +2,13 @@ package guru.qa.niffler.service;
 
 import guru.qa.niffler.data.CategoryEntity;
 import guru.qa.niffler.data.SpendEntity;
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.data.projection.SumByCategoryInfo;
 import guru.qa.niffler.model.CategoryJson;
+import guru.qa.niffler.model.CurrencyAmount;
 import guru.qa.niffler.model.CurrencyValues;
 import guru.qa.niffler.model.SpendJson;
+import guru.qa.niffler.model.StatisticByCategoryJson;
 import guru.qa.niffler.model.StatisticJson;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,13 +18,17 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -28,9 +36,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class StatServiceTest {
@@ -39,20 +50,25 @@ class StatServiceTest {
 
   private final CurrencyValues userCurrency = CurrencyValues.USD;
 
+  private GrpcCurrencyClient grpcCurrencyClient;
   private SpendEntity firstSpend, secondSpend, thirdSpend;
   private CategoryEntity firstCategory, secondCategory, thirdCategory;
 
   @BeforeEach
+  @SuppressWarnings("unchecked")
   void setUp(@Mock SpendService spendService,
              @Mock CategoryService categoryService,
              @Mock GrpcCurrencyClient grpcCurrencyClient) {
     firstCategory = new CategoryEntity();
+    firstCategory.setId(UUID.randomUUID());
     firstCategory.setName("Бар");
     firstCategory.setUsername("dima");
     secondCategory = new CategoryEntity();
+    secondCategory.setId(UUID.randomUUID());
     secondCategory.setName("Магазин");
     secondCategory.setUsername("dima");
     thirdCategory = new CategoryEntity();
+    thirdCategory.setId(UUID.randomUUID());
     thirdCategory.setName("Рыбалка");
     thirdCategory.setUsername("dima");
 
@@ -77,14 +93,12 @@ class StatServiceTest {
     thirdSpend.setCurrency(CurrencyValues.RUB);
     thirdSpend.setSpendDate(addDaysToDate(new Date(), Calendar.DAY_OF_WEEK, -2));
 
-    lenient().when(spendService.getSpendsEntityForUser(eq("dima"), any(CurrencyValues.class), isNull(), any(Date.class)))
-        .thenReturn(List.of(
-            firstSpend, secondSpend, thirdSpend
-        ));
+    lenient().when(spendService.getSumByCategories(eq("dima"), isNull(), isNull()))
+        .thenReturn(sumsByCategory());
 
-    lenient().when(spendService.getSpendsEntityForUser(eq("dima"), any(CurrencyValues.class), any(Date.class), any(Date.class)))
+    lenient().when(spendService.getSpendsEntityPageByCategories(eq("dima"), isNull(), isNull(), isNull(), any(Pageable.class)))
         .thenReturn(List.of(
-            secondSpend, thirdSpend
+            firstSpend, thirdSpend, secondSpend
         ));
 
     lenient().when(categoryService.getAllCategories(eq("dima"), eq(false)))
@@ -95,13 +109,28 @@ class StatServiceTest {
     lenient().when(grpcCurrencyClient.calculate(any(Double.class), eq(CurrencyValues.RUB), eq(CurrencyValues.USD)))
         .thenAnswer(a -> BigDecimal.valueOf((double) a.getArguments()[0] / 75.0));
 
-    statService = new StatService(spendService, categoryService, grpcCurrencyClient);
+    lenient().when(grpcCurrencyClient.calculate(anyList(), eq(CurrencyValues.USD)))
+        .thenAnswer(a -> ((List<CurrencyAmount>) a.getArguments()[0]).stream()
+            .map(ca -> BigDecimal.valueOf(ca.amount() / 75.0))
+            .toList());
+
+    this.grpcCurrencyClient = grpcCurrencyClient;
+    statService = new StatService(spendService, categoryService, grpcCurrencyClient, Runnable::run);
   }
 
   @Test
   void getStatisticTest() {
-    List<StatisticJson> result = statService.getStatistic("dima", userCurrency, null, null, null);
+    List<StatisticJson> result = statService.getStatistic("dima", userCurrency, null, null, null, Pageable.ofSize(10));
     assertEquals(4, result.size());
+
+    StatisticJson rubStatistic = result.stream()
+        .filter(statistic -> statistic.currency() == CurrencyValues.RUB)
+        .findFirst()
+        .orElseThrow();
+    assertEquals(13350.0, rubStatistic.total());
+    assertEquals(178.0, rubStatistic.totalInUserDefaultCurrency());
+    assertEquals(3, rubStatistic.categoryStatistics().size());
+    assertEquals(2, rubStatistic.categoryStatistics().getFirst().spends().size());
   }
 
   static Stream<Arguments> resolveDesiredCurrenciesInStatisticTest() {
@@ -133,76 +162,104 @@ class StatServiceTest {
   }
 
   @Test
-  void enrichStatisticDateFromByFirstStreamElementTest() {
+  void calculateStatisticDateFromByFirstSpendTest() {
     Date dateTo = new Date();
     StatisticJson defaultStatisticJson = statService.createDefaultStatisticJson(CurrencyValues.KZT, userCurrency, dateTo);
 
-    for (SpendEntity spend : Stream.of(secondSpend, firstSpend, thirdSpend)
-        .sorted(Comparator.comparing(SpendEntity::getSpendDate))
-        .toList()) {
-      defaultStatisticJson = statService.enrichStatisticDateFromByFirstStreamElement(
-          defaultStatisticJson
-      ).apply(spend);
-    }
+    StatisticJson statistic = statService.calculateStatistic(defaultStatisticJson, sumsByCategory(), null);
 
-    assertEquals(firstSpend.getSpendDate(), defaultStatisticJson.dateFrom());
+    assertEquals(firstSpend.getSpendDate(), statistic.dateFrom());
+    assertEquals(dateTo, statistic.dateTo());
   }
 
   @Test
-  void enrichStatisticTotalAmountByAllStreamElementsTest() {
+  void calculateStatisticSameCurrencyTest() {
     Date dateTo = new Date();
-    StatisticJson defaultStatisticJson = statService.createDefaultStatisticJson(CurrencyValues.KZT, userCurrency, dateTo);
+    StatisticJson defaultStatisticJson = statService.createDefaultStatisticJson(CurrencyValues.RUB, CurrencyValues.RUB, dateTo);
 
-    for (SpendEntity spend : Stream.of(secondSpend, firstSpend, thirdSpend)
-        .sorted(Comparator.comparing(SpendEntity::getSpendDate))
-        .toList()) {
-      defaultStatisticJson = statService.enrichStatisticTotalAmountByAllStreamElements(
-          defaultStatisticJson
-      ).apply(spend);
-    }
+    StatisticJson statistic = statService.calculateStatistic(defaultStatisticJson, sumsByCategory(), null);
 
-    assertEquals(13350.0, defaultStatisticJson.total());
+    assertEquals(13350.0, statistic.total());
+    assertEquals(13350.0, statistic.totalInUserDefaultCurrency());
   }
 
   @Test
-  void enrichStatisticTotalInUserCurrencyByAllStreamElementsSameCurrencyTest() {
+  void calculateStatisticDifferentCurrencyTest() {
     Date dateTo = new Date();
     CurrencyValues statisticCurrency = CurrencyValues.RUB;
-    CurrencyValues userCurrency = CurrencyValues.RUB;
     StatisticJson defaultStatisticJson = statService.createDefaultStatisticJson(statisticCurrency, userCurrency, dateTo);
+    List<SumByCategoryInfo> sumsByCategory = sumsByCategory();
+
+    StatisticJson statistic = statService.calculateStatistic(
+        defaultStatisticJson,
+        sumsByCategory,
+        sumsByCategory.stream()
+            .map(sum -> grpcCurrencyClient.calculate(sum.sum(), statisticCurrency, userCurrency))
+            .toList()
+    );
 
-    for (SpendEntity spend : Stream.of(secondSpend, firstSpend, thirdSpend)
-        .sorted(Comparator.comparing(SpendEntity::getSpendDate))
-        .toList()) {
-      defaultStatisticJson =
-          statService.enrichStatisticTotalInUserCurrencyByAllStreamElements(
-                  statService.enrichStatisticTotalAmountByAllStreamElements(defaultStatisticJson)
-                      .apply(spend), statisticCurrency, userCurrency)
-              .apply(spend);
-    }
-
-    assertEquals(13350.0, defaultStatisticJson.total());
-    assertEquals(13350.0, defaultStatisticJson.totalInUserDefaultCurrency());
+    assertEquals(13350.0, statistic.total());
+    assertEquals(178.0, statistic.totalInUserDefaultCurrency());
   }
 
   @Test
-  void enrichStatisticTotalInUserCurrencyByAllStreamElementsDifferentCurrencyTest() {
-    Date dateTo = new Date();
-    CurrencyValues statisticCurrency = CurrencyValues.RUB;
-    CurrencyValues userCurrency = CurrencyValues.USD;
-    StatisticJson defaultStatisticJson = statService.createDefaultStatisticJson(statisticCurrency, userCurrency, dateTo);
+  void calculateStatisticWithoutSpendsTest() {
+    StatisticJson defaultStatisticJson = statService.createDefaultStatisticJson(CurrencyValues.RUB, userCurrency, null);
 
-    for (SpendEntity spend : Stream.of(secondSpend, firstSpend, thirdSpend)
-        .sorted(Comparator.comparing(SpendEntity::getSpendDate))
-        .toList()) {
-      defaultStatisticJson =
-          statService.enrichStatisticTotalInUserCurrencyByAllStreamElements(
-                  statService.enrichStatisticTotalAmountByAllStreamElements(defaultStatisticJson)
-                      .apply(spend), statisticCurrency, userCurrency)
-              .apply(spend);
-    }
-    assertEquals(13350.0, defaultStatisticJson.total());
-    assertEquals(178.0, defaultStatisticJson.totalInUserDefaultCurrency());
+    StatisticJson statistic = statService.calculateStatistic(defaultStatisticJson, List.of(), List.of());
+
+    assertNull(statistic.dateFrom());
+    assertEquals(0.0, statistic.total());
+    assertEquals(0.0, statistic.totalInUserDefaultCurrency());
+  }
+
+  @Test
+  void calculateStatisticShouldConvertCategorySumsWithSingleBatchCall() {
+    StatisticJson statistic = statService.calculateStatistic(
+        CurrencyValues.RUB,
+        userCurrency,
+        sumsByCategory(),
+        statService.bindSpendsToCategories(List.of(firstSpend, thirdSpend, secondSpend), Collections.emptyMap()),
+        Stream.of(firstCategory, secondCategory, thirdCategory).map(CategoryJson::fromEntity).toList(),
+        new Date()
+    );
+
+    verify(grpcCurrencyClient).calculate(anyList(), eq(CurrencyValues.USD));
+    assertEquals(13350.0, statistic.total());
+    assertEquals(178.0, statistic.totalInUserDefaultCurrency());
+    assertEquals(firstSpend.getSpendDate(), statistic.dateFrom());
+    assertEquals(
+        List.of("Бар", "Магазин", "Рыбалка"),
+        statistic.categoryStatistics().stream().map(StatisticByCategoryJson::category).toList()
+    );
+    assertEquals(18.0, statistic.categoryStatistics().getFirst().totalInUserDefaultCurrency());
+    assertEquals(0, statistic.categoryStatistics().get(1).spends().size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void totalInUserCurrencyShouldBeSumOfRoundedCategoryConversions() {
+    when(grpcCurrencyClient.calculate(anyList(), eq(CurrencyValues.USD)))
+        .thenAnswer(a -> ((List<CurrencyAmount>) a.getArguments()[0]).stream()
+            .map(ca -> BigDecimal.valueOf(ca.amount()).divide(BigDecimal.valueOf(75), 2, RoundingMode.HALF_UP))
+            .toList());
+
+    StatisticJson statistic = statService.calculateStatistic(
+        CurrencyValues.RUB,
+        userCurrency,
+        List.of(
+            new SumByCategory("Бар", CurrencyValues.RUB, 2.0, firstSpend.getSpendDate(), secondSpend.getSpendDate()),
+            new SumByCategory("Рыбалка", CurrencyValues.RUB, 1.0, thirdSpend.getSpendDate(), thirdSpend.getSpendDate())
+        ),
+        Collections.emptyMap(),
+        List.of(),
+        new Date()
+    );
+
+    // two spends of 1 RUB are converted as one 2 RUB category sum: 0.03 USD, not 0.01 + 0.01
+    assertEquals(0.03, statistic.categoryStatistics().getFirst().totalInUserDefaultCurrency());
+    assertEquals(0.01, statistic.categoryStatistics().get(1).totalInUserDefaultCurrency());
+    assertEquals(0.04, statistic.totalInUserDefaultCurrency());
   }
 
   @Test
@@ -214,7 +271,7 @@ class StatServiceTest {
         .sorted(Comparator.comparing(SpendEntity::getSpendDate))
         .toList();
 
-    Map<String, List<SpendJson>> map = statService.bindSpendsToCategories(sortedSpends);
+    Map<String, List<SpendJson>> map = statService.bindSpendsToCategories(sortedSpends, Collections.emptyMap());
 
     assertEquals(2, map.size());
     assertNotNull(map.get("Бар"));
@@ -225,6 +282,13 @@ class StatServiceTest {
     assertEquals(1, fishCatchSpends.size());
   }
 
+  private List<SumByCategoryInfo> sumsByCategory() {
+    return List.of(
+        new SumByCategory("Бар", CurrencyValues.RUB, 1350.0, firstSpend.getSpendDate(), secondSpend.getSpendDate()),
+        new SumByCategory("Рыбалка", CurrencyValues.RUB, 12000.0, thirdSpend.getSpendDate(), thirdSpend.getSpendDate())
+    );
+  }
+
   private Date addDaysToDate(Date date, int selector, int days) {
     Calendar cal = Calendar.getInstance();
     cal.setTime(date);
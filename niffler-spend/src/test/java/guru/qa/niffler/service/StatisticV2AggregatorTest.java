@@ -0,0 +1,66 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.projection.SumByCategory;
+import guru.qa.niffler.data.projection.SumByCategoryInfo;
+import guru.qa.niffler.model.CurrencyAmount;
+import guru.qa.niffler.model.CurrencyValues;
+import guru.qa.niffler.model.StatisticV2Json;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatisticV2AggregatorTest {
+
+  private final Date first = new Date(1_700_000_000_000L);
+  private final Date second = new Date(1_710_000_000_000L);
+  private final Date third = new Date(1_720_000_000_000L);
+
+  @Test
+  void everyCategoryCurrencyPairShouldBeConvertedOnce() {
+    StatisticV2Aggregator aggregator = new StatisticV2Aggregator(CurrencyValues.RUB)
+        .add(new SumByCategory("Бар", CurrencyValues.USD, 10.0, second, second))
+        .add(new SumByCategory("Бар", CurrencyValues.RUB, 100.1, first, second))
+        .add(new SumByCategory("Archived", CurrencyValues.RUB, 5000.0, first, first))
+        .add(new SumByCategory("Бар", CurrencyValues.USD, 2.5, third, third))
+        .add(new SumByCategory("Рыбалка", CurrencyValues.EUR, 20.0, first, third));
+
+    assertEquals(
+        List.of(
+            new CurrencyAmount(12.5, CurrencyValues.USD),
+            new CurrencyAmount(20.0, CurrencyValues.EUR)
+        ),
+        aggregator.amountsToConvert()
+    );
+
+    StatisticV2Json statistic = aggregator.toStatistic(List.of(new BigDecimal("1125.004"), new BigDecimal("2000.2")));
+
+    assertEquals(8225.3, statistic.total());
+    assertEquals(CurrencyValues.RUB, statistic.currency());
+    assertEquals(
+        List.of(
+            new SumByCategory("Рыбалка", CurrencyValues.RUB, 2000.2, first, third),
+            new SumByCategory("Бар", CurrencyValues.RUB, 1225.1, first, third),
+            new SumByCategory("Archived", CurrencyValues.RUB, 5000.0, first, first)
+        ),
+        statistic.statByCategories()
+    );
+  }
+
+  @Test
+  void categoriesWithEqualSumsShouldBeOrderedByName() {
+    StatisticV2Aggregator aggregator = new StatisticV2Aggregator(CurrencyValues.USD)
+        .add(new SumByCategory("Рыбалка", CurrencyValues.USD, 10.0, first, first))
+        .add(new SumByCategory("Бар", CurrencyValues.USD, 10.0, first, first))
+        .add(new SumByCategory("Магазин", CurrencyValues.USD, 10.0, first, first));
+
+    assertEquals(List.of(), aggregator.amountsToConvert());
+    assertEquals(
+        List.of("Бар", "Магазин", "Рыбалка"),
+        aggregator.toStatistic(List.of()).statByCategories().stream().map(SumByCategoryInfo::categoryName).toList()
+    );
+  }
+}
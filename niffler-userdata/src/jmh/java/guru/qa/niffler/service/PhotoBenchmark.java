@@ -0,0 +1,93 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.config.ThumbnailProperties;
+import net.coobird.thumbnailator.Thumbnails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Avatar upload path for noise PNG of about `megabytes` size, which barely compresses.
+ * Run with `gc` profiler: `gc.alloc.rate.norm` is bytes allocated per operation.
+ * `previous*` reproduce the implementation with split, full decode, full raster and data URL re-encoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PhotoBenchmark {
+
+  private static final ThumbnailProperties.Size SMALL = new ThumbnailProperties.Size("small", 100, 100, "png", 1.0);
+
+  @Param({"1", "5", "20"})
+  private int megabytes;
+
+  private String dataUrl;
+  private byte[] photo;
+
+  @Setup
+  public void setUp() throws IOException {
+    int side = (int) Math.sqrt(megabytes * 1024.0 * 1024.0 / 3);
+    BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+    Random random = new Random(42);
+    for (int y = 0; y < side; y++) {
+      for (int x = 0; x < side; x++) {
+        image.setRGB(x, y, random.nextInt());
+      }
+    }
+    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      ImageIO.write(image, "png", os);
+      photo = os.toByteArray();
+    }
+    dataUrl = "data:image/png;base64," + Base64.getEncoder().encodeToString(photo);
+  }
+
+  @Benchmark
+  public byte[] previousDecode() {
+    return Base64.getDecoder().decode(dataUrl.split(",")[1]);
+  }
+
+  @Benchmark
+  public byte[] chunkedDecode() {
+    return DataUrl.parse(dataUrl).decode();
+  }
+
+  @Benchmark
+  public byte[] previousThumbnail() throws IOException {
+    String base64Image = dataUrl.split(",")[1];
+    try (ByteArrayInputStream is = new ByteArrayInputStream(Base64.getDecoder().decode(base64Image));
+         ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      Thumbnails.of(ImageIO.read(is))
+          .height(SMALL.height())
+          .width(SMALL.width())
+          .outputQuality(SMALL.quality())
+          .outputFormat(SMALL.format())
+          .toOutputStream(os);
+      byte[] prefix = "data:image/png;base64,".getBytes(StandardCharsets.UTF_8);
+      byte[] encoded = Base64.getEncoder().encode(os.toByteArray());
+      byte[] result = Arrays.copyOf(prefix, prefix.length + encoded.length);
+      System.arraycopy(encoded, 0, result, prefix.length, encoded.length);
+      return result;
+    }
+  }
+
+  @Benchmark
+  public byte[] subsampledThumbnail() {
+    return new SmallPhoto(SMALL, photo).bytes();
+  }
+}
@@ -2,11 +2,16 @@ package guru.qa.niffler.config;
 
 import guru.qa.niffler.model.UserJson;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
@@ -33,11 +38,28 @@ public class NifflerUserdataConsumerConfiguration {
     );
   }
 
+  /**
+   * With `spring.threads.virtual.enabled` listener containers consume on virtual threads: the factory is declared here,
+   * so Boot doesn't apply the property to them itself
+   */
   @Bean
-  public ConcurrentKafkaListenerContainerFactory<String, UserJson> kafkaListenerContainerFactory(SslBundles sslBundles) {
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public SimpleAsyncTaskExecutor kafkaListenerTaskExecutor() {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("kafka-listener-");
+    executor.setVirtualThreads(true);
+    return executor;
+  }
+
+  @Bean
+  public ConcurrentKafkaListenerContainerFactory<String, UserJson> kafkaListenerContainerFactory(
+      SslBundles sslBundles,
+      @Qualifier("kafkaListenerTaskExecutor") ObjectProvider<SimpleAsyncTaskExecutor> kafkaListenerTaskExecutor) {
     ConcurrentKafkaListenerContainerFactory<String, UserJson> concurrentKafkaListenerContainerFactory
         = new ConcurrentKafkaListenerContainerFactory<>();
     concurrentKafkaListenerContainerFactory.setConsumerFactory(consumerFactory(sslBundles));
+    kafkaListenerTaskExecutor.ifAvailable(
+        concurrentKafkaListenerContainerFactory.getContainerProperties()::setListenerTaskExecutor
+    );
     return concurrentKafkaListenerContainerFactory;
   }
 }
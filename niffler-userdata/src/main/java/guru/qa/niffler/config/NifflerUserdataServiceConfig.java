@@ -1,6 +1,7 @@
 package guru.qa.niffler.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +15,7 @@ import org.springframework.xml.xsd.XsdSchema;
 
 @EnableWs
 @Configuration
+@EnableConfigurationProperties(ThumbnailProperties.class)
 public class NifflerUserdataServiceConfig {
 
   private final String nifflerUserdataBaseUri;
@@ -0,0 +1,32 @@
+package guru.qa.niffler.config;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Thumbnails generated in background for every new avatar.
+ *
+ * @param workers         threads resizing images
+ * @param queueCapacity   avatars waiting for resize, when it is full saving of user waits up to `enqueueTimeout`
+ * @param enqueueTimeout  after that avatar is skipped and picked up again on next start
+ * @param sizes           size named {@link #SMALL} is returned as `photoSmall`, format is any ImageIO writer format name
+ */
+@ConfigurationProperties(prefix = "niffler-userdata.thumbnails")
+public record ThumbnailProperties(@DefaultValue("2") int workers,
+                                  @DefaultValue("100") int queueCapacity,
+                                  @DefaultValue("PT0.5S") Duration enqueueTimeout,
+                                  @Nonnull List<Size> sizes) {
+
+  public static final String SMALL = "small";
+
+  public record Size(@Nonnull String name,
+                     int width,
+                     int height,
+                     @DefaultValue("png") @Nonnull String format,
+                     @DefaultValue("1.0") double quality) {
+  }
+}
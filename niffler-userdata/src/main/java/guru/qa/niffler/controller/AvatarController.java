@@ -0,0 +1,53 @@
+package guru.qa.niffler.controller;
+
+import guru.qa.niffler.data.AvatarEntity;
+import guru.qa.niffler.service.AvatarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/internal/avatars")
+public class AvatarController {
+
+  /**
+   * Avatar is addressed by hash of its content, so it can be cached forever
+   */
+  private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+      .cachePublic()
+      .immutable();
+
+  private final AvatarService avatarService;
+
+  @Autowired
+  public AvatarController(AvatarService avatarService) {
+    this.avatarService = avatarService;
+  }
+
+  @GetMapping("/{hash:[0-9a-f]{64}}")
+  public ResponseEntity<byte[]> avatar(@PathVariable String hash,
+                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (ifNoneMatch != null && (ifNoneMatch.contains("\"" + hash + "\"") || ifNoneMatch.trim().equals("*"))) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(hash)
+          .cacheControl(CACHE_CONTROL)
+          .build();
+    }
+    AvatarEntity avatar = avatarService.getRequiredAvatar(hash);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(avatar.getContentType()))
+        .eTag(hash)
+        .cacheControl(CACHE_CONTROL)
+        .body(avatar.getData());
+  }
+}
@@ -1,6 +1,7 @@
 package guru.qa.niffler.controller;
 
 import guru.qa.niffler.model.IUserJson;
+import guru.qa.niffler.model.UserCurrencyJson;
 import guru.qa.niffler.model.UserJson;
 import guru.qa.niffler.service.UserService;
 import org.slf4j.Logger;
@@ -33,6 +34,11 @@ public class UserController {
     return userService.getCurrentUser(username);
   }
 
+  @GetMapping("/currency")
+  public UserCurrencyJson userCurrency(@RequestParam String username) {
+    return userService.getUserCurrency(username);
+  }
+
   @GetMapping("/all")
   public List<? extends IUserJson> allUsers(@RequestParam String username,
                                             @RequestParam(required = false) String searchQuery) {
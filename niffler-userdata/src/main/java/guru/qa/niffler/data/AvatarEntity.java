@@ -0,0 +1,48 @@
+package guru.qa.niffler.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Raw image bytes keyed by hex SHA-256 of the content, so the same picture is stored once and never changes
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "avatar")
+public class AvatarEntity implements Serializable {
+
+  @Id
+  @Column(name = "hash", nullable = false, length = 64)
+  private String hash;
+
+  @Column(name = "content_type", nullable = false, length = 50)
+  private String contentType;
+
+  @Column(name = "data", nullable = false, columnDefinition = "bytea")
+  private byte[] data;
+
+  @Override
+  public final boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null) return false;
+    Class<?> oEffectiveClass = o instanceof HibernateProxy ? ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+    Class<?> thisEffectiveClass = this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+    if (thisEffectiveClass != oEffectiveClass) return false;
+    AvatarEntity that = (AvatarEntity) o;
+    return getHash() != null && Objects.equals(getHash(), that.getHash());
+  }
+
+  @Override
+  public final int hashCode() {
+    return Objects.hashCode(hash);
+  }
+}
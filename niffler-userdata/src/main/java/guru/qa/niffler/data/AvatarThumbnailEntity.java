@@ -0,0 +1,52 @@
+package guru.qa.niffler.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Links original avatar with its resized copy, which is stored as {@link AvatarEntity} too
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "avatar_thumbnail")
+@IdClass(AvatarThumbnailId.class)
+public class AvatarThumbnailEntity implements Serializable {
+
+  @Id
+  @Column(name = "avatar_hash", nullable = false, length = 64)
+  private String avatarHash;
+
+  @Id
+  @Column(name = "name", nullable = false, length = 50)
+  private String name;
+
+  @Column(name = "thumbnail_hash", nullable = false, length = 64)
+  private String thumbnailHash;
+
+  @Override
+  public final boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null) return false;
+    Class<?> oEffectiveClass = o instanceof HibernateProxy ? ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+    Class<?> thisEffectiveClass = this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+    if (thisEffectiveClass != oEffectiveClass) return false;
+    AvatarThumbnailEntity that = (AvatarThumbnailEntity) o;
+    return getAvatarHash() != null && Objects.equals(getAvatarHash(), that.getAvatarHash())
+        && getName() != null && Objects.equals(getName(), that.getName());
+  }
+
+  @Override
+  public final int hashCode() {
+    return Objects.hash(avatarHash, name);
+  }
+}
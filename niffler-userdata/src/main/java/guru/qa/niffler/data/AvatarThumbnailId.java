@@ -0,0 +1,36 @@
+package guru.qa.niffler.data;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Getter
+@Setter
+public class AvatarThumbnailId implements Serializable {
+
+  private String avatarHash;
+  private String name;
+
+  public AvatarThumbnailId() {
+  }
+
+  public AvatarThumbnailId(String avatarHash, String name) {
+    this.avatarHash = avatarHash;
+    this.name = name;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    AvatarThumbnailId that = (AvatarThumbnailId) o;
+    return Objects.equals(avatarHash, that.avatarHash) && Objects.equals(name, that.name);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(avatarHash, name);
+  }
+}
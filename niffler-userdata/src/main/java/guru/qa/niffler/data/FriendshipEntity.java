@@ -6,6 +6,7 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -16,11 +17,14 @@ import org.hibernate.proxy.HibernateProxy;
 import java.io.Serializable;
 import java.util.Date;
 import java.util.Objects;
+import java.util.UUID;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "friendship")
+@Table(name = "friendship", indexes = {
+    @Index(name = "idx_friendship_addressee_status", columnList = "addressee_id, status")
+})
 @IdClass(FriendShipId.class)
 public class FriendshipEntity implements Serializable {
 
@@ -34,6 +38,13 @@ public class FriendshipEntity implements Serializable {
   @JoinColumn(name = "addressee_id", referencedColumnName = "id")
   private UserEntity addressee;
 
+  // read-only copies of the key columns, targets of the HQL upsert in FriendshipRepository
+  @Column(name = "requester_id", insertable = false, updatable = false)
+  private UUID requesterId;
+
+  @Column(name = "addressee_id", insertable = false, updatable = false)
+  private UUID addresseeId;
+
   @Column(name = "created_date", columnDefinition = "DATE", nullable = false)
   private Date createdDate;
 
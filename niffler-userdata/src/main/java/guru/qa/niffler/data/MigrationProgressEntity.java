@@ -0,0 +1,56 @@
+package guru.qa.niffler.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Last committed chunk of a background data migration, see {@link guru.qa.niffler.service.MigrationService}
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "migration_progress")
+public class MigrationProgressEntity implements Serializable {
+
+  @Id
+  @Column(name = "name", nullable = false, length = 100)
+  private String name;
+
+  @Column(name = "last_id")
+  private UUID lastId;
+
+  @Column(name = "processed", nullable = false)
+  private long processed;
+
+  @Column(name = "completed", nullable = false)
+  private boolean completed;
+
+  @Column(name = "updated_at", nullable = false)
+  private Date updatedAt;
+
+  @Override
+  public final boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null) return false;
+    Class<?> oEffectiveClass = o instanceof HibernateProxy ? ((HibernateProxy) o).getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+    Class<?> thisEffectiveClass = this instanceof HibernateProxy ? ((HibernateProxy) this).getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+    if (thisEffectiveClass != oEffectiveClass) return false;
+    MigrationProgressEntity that = (MigrationProgressEntity) o;
+    return getName() != null && Objects.equals(getName(), that.getName());
+  }
+
+  @Override
+  public final int hashCode() {
+    return Objects.hashCode(name);
+  }
+}
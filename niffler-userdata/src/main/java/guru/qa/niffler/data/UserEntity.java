@@ -17,9 +17,7 @@ import org.hibernate.proxy.HibernateProxy;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -51,11 +49,11 @@ public class UserEntity implements Serializable {
   @Column(name = "full_name")
   private String fullname;
 
-  @Column(name = "photo", columnDefinition = "bytea")
-  private byte[] photo;
+  @Column(name = "avatar_hash", length = 64)
+  private String avatarHash;
 
-  @Column(name = "photo_small", columnDefinition = "bytea")
-  private byte[] photoSmall;
+  @Column(name = "avatar_small_hash", length = 64)
+  private String avatarSmallHash;
 
   @OneToMany(mappedBy = "requester", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
   private List<FriendshipEntity> friendshipRequests = new ArrayList<>();
@@ -89,28 +87,6 @@ public class UserEntity implements Serializable {
     this.friendshipAddressees.addAll(invitationsEntities);
   }
 
-  public void removeFriends(UserEntity... friends) {
-    List<UUID> idsToBeRemoved = Arrays.stream(friends).map(UserEntity::getId).toList();
-    for (Iterator<FriendshipEntity> i = getFriendshipRequests().iterator(); i.hasNext(); ) {
-      FriendshipEntity friendsEntity = i.next();
-      if (idsToBeRemoved.contains(friendsEntity.getAddressee().getId())) {
-        friendsEntity.setAddressee(null);
-        i.remove();
-      }
-    }
-  }
-
-  public void removeInvites(UserEntity... invitations) {
-    List<UUID> idsToBeRemoved = Arrays.stream(invitations).map(UserEntity::getId).toList();
-    for (Iterator<FriendshipEntity> i = getFriendshipAddressees().iterator(); i.hasNext(); ) {
-      FriendshipEntity friendsEntity = i.next();
-      if (idsToBeRemoved.contains(friendsEntity.getRequester().getId())) {
-        friendsEntity.setRequester(null);
-        i.remove();
-      }
-    }
-  }
-
   @Override
   public final boolean equals(Object o) {
     if (this == o) return true;
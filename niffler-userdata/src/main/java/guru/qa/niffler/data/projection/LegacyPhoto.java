@@ -0,0 +1,11 @@
+package guru.qa.niffler.data.projection;
+
+/**
+ * `photo` and `photo_small` columns as `data:image/...;base64,...` text, read only by the avatar backfill
+ */
+public interface LegacyPhoto {
+
+  byte[] getPhoto();
+
+  byte[] getPhotoSmall();
+}
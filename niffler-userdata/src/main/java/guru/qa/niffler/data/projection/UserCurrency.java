@@ -0,0 +1,11 @@
+package guru.qa.niffler.data.projection;
+
+import guru.qa.niffler.data.CurrencyValues;
+
+import java.util.UUID;
+
+public record UserCurrency(
+    UUID id,
+    CurrencyValues currency
+) {
+}
@@ -10,7 +10,7 @@ public record UserWithStatus(
     String username,
     CurrencyValues currency,
     String fullname,
-    byte[] photoSmall,
+    String avatarSmallHash,
     FriendshipStatus status
 ) {
 }
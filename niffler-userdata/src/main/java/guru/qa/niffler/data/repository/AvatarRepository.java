@@ -0,0 +1,23 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.data.AvatarEntity;
+import jakarta.annotation.Nonnull;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AvatarRepository extends JpaRepository<AvatarEntity, String> {
+
+  /**
+   * Same content is stored once, concurrent saves of it don't fail on the primary key
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value = "insert into avatar (hash, content_type, data) values (:hash, :contentType, :data) on conflict do nothing"
+  )
+  int insert(@Nonnull @Param("hash") String hash,
+             @Nonnull @Param("contentType") String contentType,
+             @Nonnull @Param("data") byte[] data);
+}
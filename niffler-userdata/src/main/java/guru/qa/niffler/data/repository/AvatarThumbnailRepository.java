@@ -0,0 +1,41 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.data.AvatarThumbnailEntity;
+import guru.qa.niffler.data.AvatarThumbnailId;
+import jakarta.annotation.Nonnull;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AvatarThumbnailRepository extends JpaRepository<AvatarThumbnailEntity, AvatarThumbnailId> {
+
+  /**
+   * Does nothing if thumbnail with this name already exists
+   */
+  @Modifying
+  @Query(
+      nativeQuery = true,
+      value = "insert into avatar_thumbnail (avatar_hash, name, thumbnail_hash) " +
+          "values (:avatarHash, :name, :thumbnailHash) on conflict do nothing"
+  )
+  int insert(@Nonnull @Param("avatarHash") String avatarHash,
+             @Nonnull @Param("name") String name,
+             @Nonnull @Param("thumbnailHash") String thumbnailHash);
+
+  @Nonnull
+  @Query("select t.name from AvatarThumbnailEntity t where t.avatarHash = :avatarHash")
+  List<String> findNamesByAvatarHash(@Nonnull @Param("avatarHash") String avatarHash);
+
+  @Nonnull
+  @Query(
+      "select distinct u.avatarHash from UserEntity u where u.avatarHash is not null " +
+          "and (u.avatarSmallHash is null " +
+          "or (select count(t) from AvatarThumbnailEntity t where t.avatarHash = u.avatarHash and t.name in :names) < :namesCount)"
+  )
+  List<String> findUserAvatarsWithoutThumbnails(@Nonnull @Param("names") Collection<String> names,
+                                                @Param("namesCount") long namesCount);
+}
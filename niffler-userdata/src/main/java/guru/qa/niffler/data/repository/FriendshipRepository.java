@@ -0,0 +1,64 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.data.FriendShipId;
+import guru.qa.niffler.data.FriendshipEntity;
+import guru.qa.niffler.data.FriendshipStatus;
+import jakarta.annotation.Nonnull;
+import jakarta.persistence.TemporalType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.Temporal;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Friendship mutations by primary key, users' friendship collections are not loaded
+ */
+public interface FriendshipRepository extends JpaRepository<FriendshipEntity, FriendShipId> {
+
+  @Modifying
+  @Query(
+      "update FriendshipEntity f set f.status = :status " +
+          "where f.requester.id = :requesterId and f.addressee.id = :addresseeId"
+  )
+  int updateStatus(@Nonnull @Param("requesterId") UUID requesterId,
+                   @Nonnull @Param("addresseeId") UUID addresseeId,
+                   @Nonnull @Param("status") FriendshipStatus status);
+
+  /**
+   * INSERT ... ON CONFLICT DO UPDATE on Postgres, so a concurrent insert of the same friendship only changes the status
+   */
+  @Modifying
+  @Query(
+      "insert into FriendshipEntity as f (requesterId, addresseeId, status, createdDate) " +
+          "values (:requesterId, :addresseeId, :status, :createdDate) " +
+          "on conflict (requesterId, addresseeId) do update set status = excluded.status"
+  )
+  void insert(@Nonnull @Param("requesterId") UUID requesterId,
+              @Nonnull @Param("addresseeId") UUID addresseeId,
+              @Nonnull @Param("status") FriendshipStatus status,
+              @Nonnull @Param("createdDate") @Temporal(TemporalType.DATE) Date createdDate);
+
+  @Modifying
+  @Query(
+      "delete from FriendshipEntity f " +
+          "where f.requester.id = :requesterId and f.addressee.id = :addresseeId"
+  )
+  int delete(@Nonnull @Param("requesterId") UUID requesterId,
+             @Nonnull @Param("addresseeId") UUID addresseeId);
+
+  /**
+   * Removes friendship rows in both directions
+   */
+  @Modifying
+  @Query(
+      "delete from FriendshipEntity f " +
+          "where (f.requester.id = :firstId and f.addressee.id = :secondId) " +
+          "or (f.requester.id = :secondId and f.addressee.id = :firstId)"
+  )
+  int deleteBetween(@Nonnull @Param("firstId") UUID firstId,
+                    @Nonnull @Param("secondId") UUID secondId);
+}
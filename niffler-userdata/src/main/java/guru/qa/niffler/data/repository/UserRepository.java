@@ -1,11 +1,15 @@
 package guru.qa.niffler.data.repository;
 
 import guru.qa.niffler.data.UserEntity;
+import guru.qa.niffler.data.projection.LegacyPhoto;
+import guru.qa.niffler.data.projection.UserCurrency;
 import guru.qa.niffler.data.projection.UserWithStatus;
 import jakarta.annotation.Nonnull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -17,25 +21,57 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
   @Nonnull
   Optional<UserEntity> findByUsername(@Nonnull String username);
 
+  @Nonnull
+  List<UserEntity> findByOrderById(@Nonnull Limit limit);
+
+  @Nonnull
+  List<UserEntity> findByIdGreaterThanOrderById(@Nonnull UUID id, @Nonnull Limit limit);
+
+  @Nonnull
+  @Query(
+      "select new guru.qa.niffler.data.projection.UserCurrency(u.id, u.currency) " +
+          "from UserEntity u where u.username = :username"
+  )
+  Optional<UserCurrency> findCurrencyByUsername(@Nonnull @Param("username") String username);
+
+  @Nonnull
+  @Query(
+      nativeQuery = true,
+      value = "select photo, photo_small as \"photoSmall\" from \"user\" where id = :id"
+  )
+  Optional<LegacyPhoto> findLegacyPhoto(@Nonnull @Param("id") UUID id);
+
+  @Modifying
+  @Query(
+      "update UserEntity u set u.avatarSmallHash = :thumbnailHash where u.avatarHash = :avatarHash " +
+          "and (u.avatarSmallHash is null or u.avatarSmallHash <> :thumbnailHash)"
+  )
+  int updateAvatarSmallHash(@Nonnull @Param("avatarHash") String avatarHash,
+                            @Nonnull @Param("thumbnailHash") String thumbnailHash);
+
+  /**
+   * Requester is resolved once by username, so friendship is joined by its primary key and matches at most one row per user.
+   * Requester is left joined: users are listed before its own row is created from the Kafka event
+   */
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u left join FriendshipEntity f on " +
-          "(u = f.addressee and f.requester.username = :username) " +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u left join UserEntity r on r.username = :username " +
+          "left join FriendshipEntity f on f.requester = r and f.addressee = u " +
           "where u.username <> :username " +
-          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null)" +
+          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null) " +
           "order by f.status asc"
   )
   List<UserWithStatus> findByUsernameNot(@Nonnull String username);
 
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u left join FriendshipEntity f on " +
-          "(u = f.addressee and f.requester.username = :username) " +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u left join UserEntity r on r.username = :username " +
+          "left join FriendshipEntity f on f.requester = r and f.addressee = u " +
           "where u.username <> :username " +
-          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null)" +
-          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%')))" +
+          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null) " +
+          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%'))) " +
           "order by f.status asc"
   )
   List<UserWithStatus> findByUsernameNot(@Nonnull @Param("username") String username,
@@ -43,11 +79,11 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
 
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u left join FriendshipEntity f on " +
-          "(u = f.addressee and f.requester.username = :username) " +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u left join UserEntity r on r.username = :username " +
+          "left join FriendshipEntity f on f.requester = r and f.addressee = u " +
           "where u.username <> :username " +
-          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null)" +
+          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null) " +
           "order by f.status asc"
   )
   Page<UserWithStatus> findByUsernameNot(@Nonnull String username,
@@ -55,35 +91,36 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
 
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u left join FriendshipEntity f on " +
-          "(u = f.addressee and f.requester.username = :username) " +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u left join UserEntity r on r.username = :username " +
+          "left join FriendshipEntity f on f.requester = r and f.addressee = u " +
           "where u.username <> :username " +
-          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null)" +
-          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%')))" +
+          "and (f.status = guru.qa.niffler.data.FriendshipStatus.PENDING or f.status is null) " +
+          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%'))) " +
           "order by f.status asc"
   )
   Page<UserWithStatus> findByUsernameNot(@Nonnull @Param("username") String username,
                                          @Nonnull @Param("searchQuery") String searchQuery,
                                          @Nonnull Pageable pageable);
 
+  /**
+   * Friendship is read by `idx_friendship_addressee_status`, one row per requester
+   */
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u join FriendshipEntity f on u = f.requester where " +
-          "(f.status is not null) " +
-          "and f.addressee = :addressee " +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u join FriendshipEntity f on f.requester = u " +
+          "where f.addressee = :addressee " +
           "order by f.status desc"
   )
   List<UserWithStatus> findFriends(@Param("addressee") UserEntity addressee);
 
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u join FriendshipEntity f on u = f.requester where " +
-          "(f.status is not null) " +
-          "and f.addressee = :addressee " +
-          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%')))" +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u join FriendshipEntity f on f.requester = u " +
+          "where f.addressee = :addressee " +
+          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%'))) " +
           "order by f.status desc"
   )
   List<UserWithStatus> findFriends(@Param("addressee") UserEntity addressee,
@@ -91,10 +128,9 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
 
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u join FriendshipEntity f on u = f.requester where " +
-          "(f.status is not null) " +
-          "and f.addressee = :addressee " +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u join FriendshipEntity f on f.requester = u " +
+          "where f.addressee = :addressee " +
           "order by f.status desc"
   )
   Page<UserWithStatus> findFriends(@Param("addressee") UserEntity addressee,
@@ -102,11 +138,10 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
 
   @Nonnull
   @Query(
-      "select distinct new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, u.photoSmall, f.status) " +
-          "from UserEntity u join FriendshipEntity f on u = f.requester where " +
-          "(f.status is not null) " +
-          "and f.addressee = :addressee " +
-          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%')))" +
+      "select new guru.qa.niffler.data.projection.UserWithStatus(u.id, u.username, u.currency, u.fullname, coalesce(u.avatarSmallHash, u.avatarHash), f.status) " +
+          "from UserEntity u join FriendshipEntity f on f.requester = u " +
+          "where f.addressee = :addressee " +
+          "and (lower(u.username) like lower(concat('%', :searchQuery, '%')) or lower(u.fullname) like lower(concat('%', :searchQuery, '%'))) " +
           "order by f.status desc"
   )
   Page<UserWithStatus> findFriends(@Param("addressee") UserEntity addressee,
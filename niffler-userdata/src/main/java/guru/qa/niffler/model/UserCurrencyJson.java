@@ -0,0 +1,33 @@
+package guru.qa.niffler.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import guru.qa.niffler.data.CurrencyValues;
+import guru.qa.niffler.data.projection.UserCurrency;
+import jakarta.annotation.Nonnull;
+import jaxb.userdata.Currency;
+import jaxb.userdata.UserCurrencyResponse;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserCurrencyJson(
+    @JsonProperty("id")
+    UUID id,
+    @JsonProperty("currency")
+    CurrencyValues currency) {
+
+  public @Nonnull UserCurrencyResponse toJaxbResponse() {
+    UserCurrencyResponse response = new UserCurrencyResponse();
+    response.setId(id != null ? id.toString() : null);
+    response.setCurrency(Currency.valueOf(currency.name()));
+    return response;
+  }
+
+  public static @Nonnull UserCurrencyJson fromProjection(@Nonnull UserCurrency projection) {
+    return new UserCurrencyJson(
+        projection.id(),
+        projection.currency()
+    );
+  }
+}
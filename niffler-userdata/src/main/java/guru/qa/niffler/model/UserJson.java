@@ -9,8 +9,8 @@ import jakarta.annotation.Nullable;
 import jaxb.userdata.Currency;
 import jaxb.userdata.User;
 
-import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record UserJson(
@@ -65,7 +65,13 @@ public record UserJson(
     );
   }
 
-  public static @Nonnull UserJson fromEntity(@Nonnull UserEntity entity, @Nullable FriendState friendState) {
+  /**
+   * @param avatarUrl maps avatar hash to its URL, photo fields carry only URLs.
+   *                  Original avatar stands for small one until its thumbnail is ready
+   */
+  public static @Nonnull UserJson fromEntity(@Nonnull UserEntity entity,
+                                             @Nullable FriendState friendState,
+                                             @Nonnull UnaryOperator<String> avatarUrl) {
     return new UserJson(
         entity.getId(),
         entity.getUsername(),
@@ -73,13 +79,14 @@ public record UserJson(
         entity.getSurname(),
         entity.getFullname(),
         entity.getCurrency(),
-        entity.getPhoto() != null && entity.getPhoto().length > 0 ? new String(entity.getPhoto(), StandardCharsets.UTF_8) : null,
-        entity.getPhotoSmall() != null && entity.getPhotoSmall().length > 0 ? new String(entity.getPhotoSmall(), StandardCharsets.UTF_8) : null,
+        avatarUrl.apply(entity.getAvatarHash()),
+        avatarUrl.apply(entity.getAvatarSmallHash() != null ? entity.getAvatarSmallHash() : entity.getAvatarHash()),
         friendState
     );
   }
 
-  public static @Nonnull UserJson fromEntity(@Nonnull UserEntity entity) {
-    return fromEntity(entity, null);
+  public static @Nonnull UserJson fromEntity(@Nonnull UserEntity entity,
+                                             @Nonnull UnaryOperator<String> avatarUrl) {
+    return fromEntity(entity, null, avatarUrl);
   }
 }
@@ -9,8 +9,8 @@ import jakarta.annotation.Nonnull;
 import jaxb.userdata.Currency;
 import jaxb.userdata.User;
 
-import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.function.UnaryOperator;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record UserJsonBulk(
@@ -68,24 +68,26 @@ public record UserJsonBulk(
     );
   }
 
-  public static @Nonnull UserJsonBulk fromFriendEntityProjection(@Nonnull UserWithStatus projection) {
+  public static @Nonnull UserJsonBulk fromFriendEntityProjection(@Nonnull UserWithStatus projection,
+                                                                 @Nonnull UnaryOperator<String> avatarUrl) {
     return new UserJsonBulk(
         projection.id(),
         projection.username(),
         projection.fullname(),
         projection.currency(),
-        projection.photoSmall() != null && projection.photoSmall().length > 0 ? new String(projection.photoSmall(), StandardCharsets.UTF_8) : null,
+        avatarUrl.apply(projection.avatarSmallHash()),
         projection.status() == FriendshipStatus.PENDING ? FriendState.INVITE_RECEIVED : FriendState.FRIEND
     );
   }
 
-  public static @Nonnull UserJsonBulk fromUserEntityProjection(@Nonnull UserWithStatus projection) {
+  public static @Nonnull UserJsonBulk fromUserEntityProjection(@Nonnull UserWithStatus projection,
+                                                               @Nonnull UnaryOperator<String> avatarUrl) {
     return new UserJsonBulk(
         projection.id(),
         projection.username(),
         projection.fullname(),
         projection.currency(),
-        projection.photoSmall() != null && projection.photoSmall().length > 0 ? new String(projection.photoSmall(), StandardCharsets.UTF_8) : null,
+        avatarUrl.apply(projection.avatarSmallHash()),
         projection.status() == FriendshipStatus.PENDING ? FriendState.INVITE_SENT : null
     );
   }
@@ -0,0 +1,129 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.AvatarEntity;
+import guru.qa.niffler.data.AvatarThumbnailEntity;
+import guru.qa.niffler.data.AvatarThumbnailId;
+import guru.qa.niffler.data.repository.AvatarRepository;
+import guru.qa.niffler.data.repository.AvatarThumbnailRepository;
+import guru.qa.niffler.data.repository.UserRepository;
+import guru.qa.niffler.ex.NotFoundException;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+import static guru.qa.niffler.config.ThumbnailProperties.SMALL;
+
+/**
+ * Content-addressed avatar storage, users keep only the hash. Avatars are served by the gateway
+ * under `niffler-userdata.avatar-base-uri`, the hash in the URL changes together with the picture.
+ */
+@Component
+public class AvatarService {
+
+  private final AvatarRepository avatarRepository;
+  private final AvatarThumbnailRepository avatarThumbnailRepository;
+  private final UserRepository userRepository;
+  private final String avatarBaseUri;
+
+  @Autowired
+  public AvatarService(AvatarRepository avatarRepository,
+                       AvatarThumbnailRepository avatarThumbnailRepository,
+                       UserRepository userRepository,
+                       @Value("${niffler-userdata.avatar-base-uri}") String avatarBaseUri) {
+    this.avatarRepository = avatarRepository;
+    this.avatarThumbnailRepository = avatarThumbnailRepository;
+    this.userRepository = userRepository;
+    this.avatarBaseUri = avatarBaseUri;
+  }
+
+  /**
+   * @param dataUrl image as `data:image/...;base64,...`
+   * @return hash of decoded image
+   */
+  @Transactional
+  public @Nonnull
+  String save(@Nonnull String dataUrl) {
+    final DataUrl parsed = DataUrl.parse(dataUrl);
+    return save(parsed.contentType(), parsed.decode());
+  }
+
+  @Transactional
+  public @Nonnull
+  String save(@Nonnull String contentType, @Nonnull byte[] data) {
+    final String hash = sha256(data);
+    avatarRepository.insert(hash, contentType, data);
+    return hash;
+  }
+
+  @Transactional(readOnly = true)
+  public @Nonnull
+  AvatarEntity getRequiredAvatar(@Nonnull String hash) {
+    return avatarRepository.findById(hash).orElseThrow(
+        () -> new NotFoundException("Can`t find avatar by hash: '" + hash + "'")
+    );
+  }
+
+  @Transactional(readOnly = true)
+  public @Nullable
+  String thumbnailHash(@Nonnull String avatarHash, @Nonnull String name) {
+    return avatarThumbnailRepository.findById(new AvatarThumbnailId(avatarHash, name))
+        .map(AvatarThumbnailEntity::getThumbnailHash)
+        .orElse(null);
+  }
+
+  @Transactional(readOnly = true)
+  public @Nonnull
+  List<String> thumbnailNames(@Nonnull String avatarHash) {
+    return avatarThumbnailRepository.findNamesByAvatarHash(avatarHash);
+  }
+
+  @Transactional(readOnly = true)
+  public @Nonnull
+  List<String> userAvatarsWithoutThumbnails(@Nonnull Collection<String> names) {
+    return avatarThumbnailRepository.findUserAvatarsWithoutThumbnails(names, names.size());
+  }
+
+  /**
+   * Does nothing if thumbnail with this name already exists
+   */
+  @Transactional
+  public void saveThumbnail(@Nonnull String avatarHash,
+                            @Nonnull String name,
+                            @Nonnull String contentType,
+                            @Nonnull byte[] data) {
+    avatarThumbnailRepository.insert(avatarHash, name, save(contentType, data));
+  }
+
+  /**
+   * Sets the small thumbnail to every user with this avatar who doesn't have it yet, if it is already created
+   */
+  @Transactional
+  public void updateUsersSmallThumbnail(@Nonnull String avatarHash) {
+    final String smallHash = thumbnailHash(avatarHash, SMALL);
+    if (smallHash != null) {
+      userRepository.updateAvatarSmallHash(avatarHash, smallHash);
+    }
+  }
+
+  public @Nullable
+  String url(@Nullable String hash) {
+    return hash == null ? null : avatarBaseUri + "/" + hash;
+  }
+
+  static @Nonnull String sha256(@Nonnull byte[] data) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package guru.qa.niffler.service;
+
+import jakarta.annotation.Nonnull;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * ImageIO stream over bytes already in memory, unlike {@link javax.imageio.ImageIO#createImageInputStream}
+ * it neither copies them into a cache nor spills them to a temp file
+ */
+final class ByteArrayImageInputStream extends ImageInputStreamImpl {
+
+  private final byte[] data;
+
+  ByteArrayImageInputStream(@Nonnull byte[] data) {
+    this.data = data;
+  }
+
+  @Override
+  public int read() throws IOException {
+    checkClosed();
+    bitOffset = 0;
+    return streamPos < data.length ? data[(int) streamPos++] & 0xFF : -1;
+  }
+
+  @Override
+  public int read(@Nonnull byte[] b, int off, int len) throws IOException {
+    checkClosed();
+    Objects.checkFromIndexSize(off, len, b.length);
+    bitOffset = 0;
+    if (len == 0) {
+      return 0;
+    }
+    if (streamPos >= data.length) {
+      return -1;
+    }
+    final int count = (int) Math.min(len, data.length - streamPos);
+    System.arraycopy(data, (int) streamPos, b, off, count);
+    streamPos += count;
+    return count;
+  }
+
+  @Override
+  public long length() {
+    return data.length;
+  }
+}
@@ -0,0 +1,87 @@
+package guru.qa.niffler.service;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.Base64;
+
+/**
+ * `data:<content type>;base64,<payload>` decoded straight from the string in fixed chunks: no substring
+ * of the payload and no full byte copy of it, the only large allocation is the exactly sized result.
+ */
+final class DataUrl {
+
+  private static final String DATA_URL_PREFIX = "data:";
+  private static final String BASE64_MARKER = ";base64,";
+  private static final int CHUNK_CHARS = 8192;
+  private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+  private final String dataUrl;
+  private final int payloadStart;
+  private final String contentType;
+
+  private DataUrl(@Nonnull String dataUrl, int payloadStart, @Nonnull String contentType) {
+    this.dataUrl = dataUrl;
+    this.payloadStart = payloadStart;
+    this.contentType = contentType;
+  }
+
+  static @Nonnull DataUrl parse(@Nonnull String dataUrl) {
+    final int marker = dataUrl.indexOf(BASE64_MARKER);
+    if (!dataUrl.startsWith(DATA_URL_PREFIX) || marker < 0) {
+      throw new IllegalArgumentException("Avatar must be a base64 data URL");
+    }
+    return new DataUrl(
+        dataUrl,
+        marker + BASE64_MARKER.length(),
+        dataUrl.substring(DATA_URL_PREFIX.length(), marker)
+    );
+  }
+
+  @Nonnull String contentType() {
+    return contentType;
+  }
+
+  @Nonnull byte[] decode() {
+    final byte[] result = new byte[decodedLength()];
+    final byte[] chunk = new byte[CHUNK_CHARS];
+    final byte[] decodedChunk = new byte[CHUNK_CHARS / 4 * 3];
+    int position = payloadStart;
+    int written = 0;
+    while (dataUrl.length() - position > CHUNK_CHARS) {
+      copyAscii(position, chunk, CHUNK_CHARS);
+      written += copy(decodedChunk, DECODER.decode(chunk, decodedChunk), result, written);
+      position += CHUNK_CHARS;
+    }
+    final byte[] last = new byte[dataUrl.length() - position];
+    copyAscii(position, last, last.length);
+    written += copy(decodedChunk, DECODER.decode(last, decodedChunk), result, written);
+    if (written != result.length) {
+      throw new IllegalArgumentException("Invalid base64 payload length");
+    }
+    return result;
+  }
+
+  /**
+   * Anything outside of ASCII becomes `?` and is rejected by decoder
+   */
+  private void copyAscii(int from, @Nonnull byte[] target, int length) {
+    for (int i = 0; i < length; i++) {
+      final char c = dataUrl.charAt(from + i);
+      target[i] = (byte) (c < 0x80 ? c : '?');
+    }
+  }
+
+  private static int copy(@Nonnull byte[] source, int length, @Nonnull byte[] target, int offset) {
+    System.arraycopy(source, 0, target, offset, length);
+    return length;
+  }
+
+  private int decodedLength() {
+    int end = dataUrl.length();
+    while (end > payloadStart && dataUrl.charAt(end - 1) == '=') {
+      end--;
+    }
+    final int length = end - payloadStart;
+    return length / 4 * 3 + Math.max(0, length % 4 - 1);
+  }
+}
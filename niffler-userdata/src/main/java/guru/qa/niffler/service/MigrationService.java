@@ -1,93 +1,171 @@
 package guru.qa.niffler.service;
 
+import guru.qa.niffler.data.MigrationProgressEntity;
 import guru.qa.niffler.data.UserEntity;
+import guru.qa.niffler.data.projection.LegacyPhoto;
+import guru.qa.niffler.data.repository.MigrationProgressRepository;
 import guru.qa.niffler.data.repository.UserRepository;
-import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Predicate;
 
-import static guru.qa.niffler.service.UserService.DEFAULT_USER_CURRENCY;
-import static guru.qa.niffler.service.UserService.isPhotoString;
+import static guru.qa.niffler.config.ThumbnailProperties.SMALL;
 
+/**
+ * Data migrations run in background after the service is ready. Users are read in chunks ordered by id,
+ * every chunk is committed together with its last id in `migration_progress`, so an interrupted migration
+ * continues from there on next start and a completed one never runs again.
+ * Images are resized by {@link ThumbnailService} workers.
+ */
 @Component
 public class MigrationService {
 
   private static final Logger LOG = LoggerFactory.getLogger(MigrationService.class);
 
   private final UserRepository userRepository;
+  private final MigrationProgressRepository migrationProgressRepository;
+  private final AvatarService avatarService;
+  private final ThumbnailService thumbnailService;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean enabled;
+  private final int chunkSize;
+  private final List<UserMigration> migrations = List.of(
+      new UserMigration("V5__full_name", this::setFullName),
+      new UserMigration("V6__avatar", this::moveLegacyPhoto)
+  );
 
   @Autowired
-  public MigrationService(UserRepository userRepository) {
+  public MigrationService(UserRepository userRepository,
+                          MigrationProgressRepository migrationProgressRepository,
+                          AvatarService avatarService,
+                          ThumbnailService thumbnailService,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${niffler-userdata.migrations.enabled:true}") boolean enabled,
+                          @Value("${niffler-userdata.migrations.chunk-size:500}") int chunkSize) {
     this.userRepository = userRepository;
+    this.migrationProgressRepository = migrationProgressRepository;
+    this.avatarService = avatarService;
+    this.thumbnailService = thumbnailService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.enabled = enabled;
+    this.chunkSize = chunkSize;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void migrateInBackground() {
+    if (enabled) {
+      Thread.ofVirtual().name("migrations").start(this::migrate);
+    }
+  }
+
+  /**
+   * Runs not completed migrations one by one, blocks until all of them are done or failed
+   */
+  public void migrate() {
+    for (UserMigration migration : migrations) {
+      try {
+        boolean completed;
+        do {
+          completed = Boolean.TRUE.equals(transactionTemplate.execute(status -> migrateChunk(migration)));
+        } while (!completed);
+      } catch (Exception e) {
+        LOG.error("### Migration {} stopped, it will be resumed on next start", migration.name(), e);
+      }
+    }
   }
 
   /**
-   * only for migration V4__small_avatar.sql
+   * @return true if migration is completed
    */
-  @Transactional
-  @PostConstruct
-  public void compressAndSaveExistingPhotos() {
-    List<UserEntity> users = userRepository.findAll();
+  private boolean migrateChunk(@Nonnull UserMigration migration) {
+    MigrationProgressEntity progress = migrationProgressRepository.findById(migration.name())
+        .orElseGet(() -> {
+          MigrationProgressEntity created = new MigrationProgressEntity();
+          created.setName(migration.name());
+          return created;
+        });
+    if (progress.isCompleted()) {
+      return true;
+    }
+    List<UserEntity> users = progress.getLastId() == null
+        ? userRepository.findByOrderById(Limit.of(chunkSize))
+        : userRepository.findByIdGreaterThanOrderById(progress.getLastId(), Limit.of(chunkSize));
+    int changed = 0;
     for (UserEntity user : users) {
-      if ((user.getPhoto() != null && user.getPhoto().length > 0)
-          && (user.getPhotoSmall() == null || user.getPhotoSmall().length == 0)) {
-        try {
-          String originalPhoto = new String(user.getPhoto(), StandardCharsets.UTF_8);
-          if (isPhotoString(originalPhoto)) {
-            user.setPhotoSmall(new SmallPhoto(100, 100, originalPhoto).bytes());
-            userRepository.save(user);
-            LOG.info("### Resizing original user Photo for user done: {}", user.getId());
-          }
-        } catch (Exception e) {
-          LOG.error("### Error while resizing original user Photo for user :{}", user.getId());
-        }
+      if (migration.step().test(user)) {
+        changed++;
       }
     }
+    if (!users.isEmpty()) {
+      progress.setLastId(users.getLast().getId());
+    }
+    progress.setProcessed(progress.getProcessed() + users.size());
+    progress.setCompleted(users.size() < chunkSize);
+    progress.setUpdatedAt(new Date());
+    migrationProgressRepository.save(progress);
+    LOG.info("### Migration {}: {} users processed, {} changed in last chunk{}",
+        migration.name(), progress.getProcessed(), changed, progress.isCompleted() ? ", completed" : "");
+    return progress.isCompleted();
   }
 
   /**
    * only for migration V5__full_name.sql
    */
-  @Transactional
-  @PostConstruct
-  public void setFullName() {
-    List<UserEntity> users = userRepository.findAll();
-    for (UserEntity user : users) {
-      if ((user.getFirstname() != null || user.getSurname() != null) && (user.getFullname() == null)) {
-        try {
-          final String fullname = user.getFirstname() != null
-              ? user.getFirstname().trim() + (" " + user.getSurname()).trim()
-              : user.getSurname().trim();
-          user.setFullname(fullname);
-          userRepository.save(user);
-          LOG.info("### Set fullname for user done: {}", user.getId());
-        } catch (Exception e) {
-          LOG.error("### Error while setting fullname for user :{}", user.getId());
-        }
+  boolean setFullName(@Nonnull UserEntity user) {
+    if ((user.getFirstname() != null || user.getSurname() != null) && (user.getFullname() == null)) {
+      try {
+        final String fullname = user.getFirstname() != null
+            ? user.getFirstname().trim() + (" " + user.getSurname()).trim()
+            : user.getSurname().trim();
+        user.setFullname(fullname);
+        return true;
+      } catch (Exception e) {
+        LOG.error("### Error while setting fullname for user :{}", user.getId());
       }
     }
+    return false;
   }
 
-  @Transactional
-  @PostConstruct
-  public void setUserCurrency() {
-    List<UserEntity> users = userRepository.findAll();
-    for (UserEntity user : users) {
-      if (user.getCurrency() != DEFAULT_USER_CURRENCY) {
-        try {
-          user.setCurrency(DEFAULT_USER_CURRENCY);
-          userRepository.save(user);
-          LOG.info("### Set RUB currency for user done: {}", user.getId());
-        } catch (Exception e) {
-          LOG.error("### Error while setting RUB currency for user :{}", user.getId());
-        }
+  /**
+   * only for migration V6__avatar.sql: `photo` becomes the avatar, `photo_small` its small thumbnail
+   */
+  boolean moveLegacyPhoto(@Nonnull UserEntity user) {
+    if (user.getAvatarHash() != null) {
+      return false;
+    }
+    final LegacyPhoto legacyPhoto = userRepository.findLegacyPhoto(user.getId()).orElse(null);
+    if (legacyPhoto == null || legacyPhoto.getPhoto() == null) {
+      return false;
+    }
+    try {
+      final String avatarHash = avatarService.save(new String(legacyPhoto.getPhoto(), StandardCharsets.UTF_8));
+      if (legacyPhoto.getPhotoSmall() != null) {
+        final DataUrl small = DataUrl.parse(new String(legacyPhoto.getPhotoSmall(), StandardCharsets.UTF_8));
+        avatarService.saveThumbnail(avatarHash, SMALL, small.contentType(), small.decode());
       }
+      user.setAvatarHash(avatarHash);
+      user.setAvatarSmallHash(avatarService.thumbnailHash(avatarHash, SMALL));
+      thumbnailService.putAfterCommit(avatarHash);
+      return true;
+    } catch (IllegalArgumentException e) {
+      LOG.error("### Error while moving photo to avatar for user :{}", user.getId(), e);
+      return false;
     }
   }
+
+  private record UserMigration(@Nonnull String name, @Nonnull Predicate<UserEntity> step) {
+  }
 }
@@ -1,77 +1,72 @@
 package guru.qa.niffler.service;
 
+import guru.qa.niffler.config.ThumbnailProperties;
 import jakarta.annotation.Nonnull;
-import jakarta.annotation.Nullable;
 import net.coobird.thumbnailator.Thumbnails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.imageio.ImageIO;
-import java.io.ByteArrayInputStream;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.Iterator;
 
 public class SmallPhoto {
 
   private static final Logger LOG = LoggerFactory.getLogger(SmallPhoto.class);
 
-  private final int height;
-  private final int width;
-  private final double quality;
   @Nonnull
-  private final String outputFormat;
-  @Nullable
-  private final String photo;
-
-  public SmallPhoto(int height, int width, @Nullable String photo) {
-    this(height, width, 1.0, "png", photo);
-  }
+  private final ThumbnailProperties.Size size;
+  @Nonnull
+  private final byte[] photo;
 
-  public SmallPhoto(int height, int width, @Nonnull String outputFormat, @Nullable String photo) {
-    this(height, width, 1.0, outputFormat, photo);
+  public SmallPhoto(@Nonnull ThumbnailProperties.Size size, @Nonnull byte[] photo) {
+    this.size = size;
+    this.photo = photo;
   }
 
-  public SmallPhoto(int height, int width, double quality, @Nonnull String outputFormat, @Nullable String photo) {
-    this.height = height;
-    this.width = width;
-    this.quality = quality;
-    this.outputFormat = outputFormat;
-    this.photo = photo;
+  public @Nonnull byte[] bytes() {
+    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      Thumbnails.of(read())
+          .height(size.height())
+          .width(size.width())
+          .outputQuality(size.quality())
+          .outputFormat(size.format())
+          .toOutputStream(os);
+      return os.toByteArray();
+    } catch (Exception e) {
+      LOG.error("### Error while resizing photo to {}", size.name());
+      throw new RuntimeException(e);
+    }
   }
 
-  public @Nullable byte[] bytes() {
-    if (photo != null) {
+  /**
+   * Decoder skips rows and columns, so only a raster about twice the thumbnail size is ever allocated,
+   * the rest of downscaling is done by Thumbnailator with smoothing
+   */
+  private @Nonnull BufferedImage read() throws Exception {
+    try (ImageInputStream is = new ByteArrayImageInputStream(photo)) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(is);
+      if (!readers.hasNext()) {
+        throw new IllegalArgumentException("Unsupported image format");
+      }
+      ImageReader reader = readers.next();
       try {
-        String base64Image = photo.split(",")[1];
-
-        try (ByteArrayInputStream is = new ByteArrayInputStream(Base64.getDecoder().decode(base64Image));
-             ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-
-          Thumbnails.of(ImageIO.read(is))
-              .height(height)
-              .width(width)
-              .outputQuality(quality)
-              .outputFormat(outputFormat)
-              .toOutputStream(os);
-
-          return concatArrays(
-              "data:image/png;base64,".getBytes(StandardCharsets.UTF_8),
-              Base64.getEncoder().encode(os.toByteArray())
-          );
-        }
-      } catch (Exception e) {
-        LOG.error("### Error while resizing photo");
-        throw new RuntimeException(e);
+        reader.setInput(is, true, true);
+        ImageReadParam param = reader.getDefaultReadParam();
+        int subsampling = subsampling(reader.getWidth(0), reader.getHeight(0));
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
       }
     }
-    return null;
   }
 
-  private @Nonnull byte[] concatArrays(@Nonnull byte[] first, @Nonnull byte[] second) {
-    byte[] result = Arrays.copyOf(first, first.length + second.length);
-    System.arraycopy(second, 0, result, first.length, second.length);
-    return result;
+  int subsampling(int width, int height) {
+    return Math.max(1, Math.max(width / size.width(), height / size.height()) / 2);
   }
 }
@@ -0,0 +1,190 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.config.ThumbnailProperties;
+import guru.qa.niffler.data.AvatarEntity;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of avatars waiting for thumbnails and a fixed set of workers resizing them outside of any request.
+ * Every step is idempotent, so an avatar may be queued any number of times.
+ */
+@Component
+public class ThumbnailService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ThumbnailService.class);
+
+  private final AvatarService avatarService;
+  private final ThumbnailProperties properties;
+  private final Map<String, String> contentTypes = new HashMap<>();
+  private final BlockingQueue<String> queue;
+  private final Set<String> queued = ConcurrentHashMap.newKeySet();
+  private final List<Thread> workers = new ArrayList<>();
+
+  @Autowired
+  public ThumbnailService(AvatarService avatarService, ThumbnailProperties properties) {
+    this.avatarService = avatarService;
+    this.properties = properties;
+    this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    for (ThumbnailProperties.Size size : properties.sizes()) {
+      contentTypes.computeIfAbsent(size.format(), ThumbnailService::contentType);
+    }
+  }
+
+  @PostConstruct
+  void start() {
+    for (int i = 0; i < properties.workers(); i++) {
+      workers.add(Thread.ofPlatform().name("thumbnail-", i).daemon().start(this::work));
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    workers.forEach(Thread::interrupt);
+  }
+
+  /**
+   * Avatars of users saved before thumbnails were configured, dropped by full queue or still without the small one
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void enqueueMissingThumbnails() {
+    Thread.ofVirtual().name("thumbnail-sweep").start(() -> {
+      final List<String> names = properties.sizes().stream().map(ThumbnailProperties.Size::name).toList();
+      for (String avatarHash : avatarService.userAvatarsWithoutThumbnails(names)) {
+        if (!put(avatarHash)) {
+          return;
+        }
+      }
+    });
+  }
+
+  /**
+   * Queues avatar once the current transaction commits, so workers always find the original.
+   * Waits up to `enqueue-timeout` for space in the queue, then leaves the avatar to the sweep on next start
+   */
+  public void enqueueAfterCommit(@Nonnull String avatarHash) {
+    afterCommit(() -> enqueue(avatarHash));
+  }
+
+  /**
+   * Variant of {@link #enqueueAfterCommit(String)} for background jobs: waits for space in the queue as long as needed,
+   * so the job is slowed down to the pace of workers and no avatar is dropped
+   */
+  public void putAfterCommit(@Nonnull String avatarHash) {
+    afterCommit(() -> put(avatarHash));
+  }
+
+  private void afterCommit(@Nonnull Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  /**
+   * @return false if interrupted while waiting for space in the queue
+   */
+  boolean put(@Nonnull String avatarHash) {
+    if (!queued.add(avatarHash)) {
+      return true;
+    }
+    try {
+      queue.put(avatarHash);
+      return true;
+    } catch (InterruptedException e) {
+      queued.remove(avatarHash);
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  void enqueue(@Nonnull String avatarHash) {
+    if (!queued.add(avatarHash)) {
+      return;
+    }
+    try {
+      if (!queue.offer(avatarHash, properties.enqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+        queued.remove(avatarHash);
+        LOG.warn("### Thumbnail queue is full, avatar will be resized on next start: {}", avatarHash);
+      }
+    } catch (InterruptedException e) {
+      queued.remove(avatarHash);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  void createThumbnails(@Nonnull String avatarHash) {
+    final List<String> existing = avatarService.thumbnailNames(avatarHash);
+    final List<ThumbnailProperties.Size> missing = properties.sizes().stream()
+        .filter(size -> !existing.contains(size.name()))
+        .toList();
+    if (!missing.isEmpty()) {
+      final AvatarEntity original = avatarService.getRequiredAvatar(avatarHash);
+      for (ThumbnailProperties.Size size : missing) {
+        avatarService.saveThumbnail(
+            avatarHash,
+            size.name(),
+            contentTypes.get(size.format()),
+            new SmallPhoto(size, original.getData()).bytes()
+        );
+      }
+      LOG.info("### Thumbnails created for avatar: {}", avatarHash);
+    }
+    // also when thumbnails already exist: users may have got this avatar after the small one was created
+    avatarService.updateUsersSmallThumbnail(avatarHash);
+  }
+
+  private void work() {
+    while (!Thread.currentThread().isInterrupted()) {
+      final String avatarHash;
+      try {
+        avatarHash = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      try {
+        createThumbnails(avatarHash);
+      } catch (Exception e) {
+        LOG.error("### Error while creating thumbnails for avatar: {}", avatarHash, e);
+      } finally {
+        queued.remove(avatarHash);
+      }
+    }
+  }
+
+  private static @Nonnull String contentType(@Nonnull String format) {
+    Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+    if (!writers.hasNext()) {
+      throw new IllegalStateException("No ImageIO writer for thumbnail format: " + format);
+    }
+    return writers.next().getOriginatingProvider().getMIMETypes()[0];
+  }
+}
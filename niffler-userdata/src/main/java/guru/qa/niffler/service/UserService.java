@@ -1,13 +1,14 @@
 package guru.qa.niffler.service;
 
 import guru.qa.niffler.data.CurrencyValues;
-import guru.qa.niffler.data.FriendshipEntity;
 import guru.qa.niffler.data.FriendshipStatus;
 import guru.qa.niffler.data.UserEntity;
 import guru.qa.niffler.data.projection.UserWithStatus;
+import guru.qa.niffler.data.repository.FriendshipRepository;
 import guru.qa.niffler.data.repository.UserRepository;
 import guru.qa.niffler.ex.NotFoundException;
 import guru.qa.niffler.ex.SameUsernameException;
+import guru.qa.niffler.model.UserCurrencyJson;
 import guru.qa.niffler.model.UserJson;
 import guru.qa.niffler.model.UserJsonBulk;
 import jakarta.annotation.Nonnull;
@@ -23,10 +24,11 @@ import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
+import static guru.qa.niffler.config.ThumbnailProperties.SMALL;
 import static guru.qa.niffler.model.FriendState.FRIEND;
 import static guru.qa.niffler.model.FriendState.INVITE_SENT;
 
@@ -37,10 +39,19 @@ public class UserService {
 
   public static final CurrencyValues DEFAULT_USER_CURRENCY = CurrencyValues.RUB;
   private final UserRepository userRepository;
+  private final FriendshipRepository friendshipRepository;
+  private final AvatarService avatarService;
+  private final ThumbnailService thumbnailService;
 
   @Autowired
-  public UserService(UserRepository userRepository) {
+  public UserService(UserRepository userRepository,
+                     FriendshipRepository friendshipRepository,
+                     AvatarService avatarService,
+                     ThumbnailService thumbnailService) {
     this.userRepository = userRepository;
+    this.friendshipRepository = friendshipRepository;
+    this.avatarService = avatarService;
+    this.thumbnailService = thumbnailService;
   }
 
   @Transactional
@@ -80,17 +91,20 @@ public class UserService {
     userEntity.setFullname(user.fullname());
     userEntity.setCurrency(user.currency() == null ? DEFAULT_USER_CURRENCY : user.currency());
     if (isPhotoString(user.photo())) {
-      userEntity.setPhoto(user.photo().getBytes(StandardCharsets.UTF_8));
-      userEntity.setPhotoSmall(new SmallPhoto(100, 100, user.photo()).bytes());
+      final String avatarHash = avatarService.save(user.photo());
+      userEntity.setAvatarHash(avatarHash);
+      userEntity.setAvatarSmallHash(avatarService.thumbnailHash(avatarHash, SMALL));
+      thumbnailService.enqueueAfterCommit(avatarHash);
     }
     UserEntity saved = userRepository.save(userEntity);
-    return UserJson.fromEntity(saved);
+    return UserJson.fromEntity(saved, avatarService::url);
   }
 
   @Transactional(readOnly = true)
   public @Nonnull
   UserJson getCurrentUser(@Nonnull String username) {
-    return userRepository.findByUsername(username).map(UserJson::fromEntity)
+    return userRepository.findByUsername(username)
+        .map(entity -> UserJson.fromEntity(entity, avatarService::url))
         .orElseGet(() -> new UserJson(
             null,
             username,
@@ -104,6 +118,19 @@ public class UserService {
         ));
   }
 
+  /**
+   * Reads only id and currency, without photos
+   */
+  @Transactional(readOnly = true)
+  public @Nonnull
+  UserCurrencyJson getUserCurrency(@Nonnull String username) {
+    return userRepository.findCurrencyByUsername(username).map(UserCurrencyJson::fromProjection)
+        .orElseGet(() -> new UserCurrencyJson(
+            null,
+            DEFAULT_USER_CURRENCY
+        ));
+  }
+
   @Transactional(readOnly = true)
   public @Nonnull
   List<UserJsonBulk> allUsers(@Nonnull String username,
@@ -113,7 +140,7 @@ public class UserService {
         : userRepository.findByUsernameNot(username, searchQuery);
 
     return usersFromDb.stream()
-        .map(UserJsonBulk::fromUserEntityProjection)
+        .map(projection -> UserJsonBulk.fromUserEntityProjection(projection, avatarService::url))
         .toList();
   }
 
@@ -126,7 +153,7 @@ public class UserService {
         ? userRepository.findByUsernameNot(username, pageable)
         : userRepository.findByUsernameNot(username, searchQuery, pageable);
 
-    return usersFromDb.map(UserJsonBulk::fromUserEntityProjection);
+    return usersFromDb.map(projection -> UserJsonBulk.fromUserEntityProjection(projection, avatarService::url));
   }
 
   @Transactional(readOnly = true)
@@ -138,7 +165,7 @@ public class UserService {
         : userRepository.findFriends(getRequiredUser(username), searchQuery);
 
     return usersFromDb.stream()
-        .map(UserJsonBulk::fromFriendEntityProjection)
+        .map(projection -> UserJsonBulk.fromFriendEntityProjection(projection, avatarService::url))
         .toList();
   }
 
@@ -151,7 +178,7 @@ public class UserService {
         ? userRepository.findFriends(getRequiredUser(username), pageable)
         : userRepository.findFriends(getRequiredUser(username), searchQuery, pageable);
 
-    return usersFromDb.map(UserJsonBulk::fromFriendEntityProjection);
+    return usersFromDb.map(projection -> UserJsonBulk.fromFriendEntityProjection(projection, avatarService::url));
   }
 
   @Transactional
@@ -163,7 +190,7 @@ public class UserService {
     UserEntity targetUser = getRequiredUser(targetUsername);
     currentUser.addFriends(FriendshipStatus.PENDING, targetUser);
     userRepository.save(currentUser);
-    return UserJson.fromEntity(targetUser, INVITE_SENT);
+    return UserJson.fromEntity(targetUser, INVITE_SENT, avatarService::url);
   }
 
   @Transactional
@@ -175,16 +202,11 @@ public class UserService {
     UserEntity currentUser = getRequiredUser(username);
     UserEntity targetUser = getRequiredUser(targetUsername);
 
-    FriendshipEntity invite = currentUser.getFriendshipAddressees()
-        .stream()
-        .filter(fe -> fe.getRequester().equals(targetUser))
-        .findFirst()
-        .orElseThrow(() -> new NotFoundException("Can`t find invitation from username: '" + targetUsername + "'"));
-
-    invite.setStatus(FriendshipStatus.ACCEPTED);
-    currentUser.addFriends(FriendshipStatus.ACCEPTED, targetUser);
-    userRepository.save(currentUser);
-    return UserJson.fromEntity(targetUser, FRIEND);
+    if (friendshipRepository.updateStatus(targetUser.getId(), currentUser.getId(), FriendshipStatus.ACCEPTED) == 0) {
+      throw new NotFoundException("Can`t find invitation from username: '" + targetUsername + "'");
+    }
+    friendshipRepository.insert(currentUser.getId(), targetUser.getId(), FriendshipStatus.ACCEPTED, new Date());
+    return UserJson.fromEntity(targetUser, FRIEND, avatarService::url);
   }
 
   @Transactional
@@ -196,12 +218,8 @@ public class UserService {
     UserEntity currentUser = getRequiredUser(username);
     UserEntity targetUser = getRequiredUser(targetUsername);
 
-    currentUser.removeInvites(targetUser);
-    targetUser.removeFriends(currentUser);
-
-    userRepository.save(currentUser);
-    userRepository.save(targetUser);
-    return UserJson.fromEntity(targetUser);
+    friendshipRepository.delete(targetUser.getId(), currentUser.getId());
+    return UserJson.fromEntity(targetUser, avatarService::url);
   }
 
   @Transactional
@@ -212,13 +230,7 @@ public class UserService {
     UserEntity currentUser = getRequiredUser(username);
     UserEntity targetUser = getRequiredUser(targetUsername);
 
-    currentUser.removeFriends(targetUser);
-    currentUser.removeInvites(targetUser);
-    targetUser.removeFriends(currentUser);
-    targetUser.removeInvites(currentUser);
-
-    userRepository.save(currentUser);
-    userRepository.save(targetUser);
+    friendshipRepository.deleteBetween(currentUser.getId(), targetUser.getId());
   }
 
   public static boolean isPhotoString(String photo) {
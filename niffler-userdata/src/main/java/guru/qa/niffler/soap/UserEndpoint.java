@@ -7,6 +7,8 @@ import jaxb.userdata.AllUsersPageRequest;
 import jaxb.userdata.AllUsersRequest;
 import jaxb.userdata.CurrentUserRequest;
 import jaxb.userdata.UpdateUserRequest;
+import jaxb.userdata.UserCurrencyRequest;
+import jaxb.userdata.UserCurrencyResponse;
 import jaxb.userdata.UserResponse;
 import jaxb.userdata.UsersResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,6 +46,12 @@ public class UserEndpoint extends BaseEndpoint {
     return response;
   }
 
+  @PayloadRoot(namespace = NAMESPACE_URI, localPart = "userCurrencyRequest")
+  @ResponsePayload
+  public UserCurrencyResponse userCurrencyRq(@RequestPayload UserCurrencyRequest request) {
+    return userService.getUserCurrency(request.getUsername()).toJaxbResponse();
+  }
+
   @PayloadRoot(namespace = NAMESPACE_URI, localPart = "allUsersRequest")
   @ResponsePayload
   public UsersResponse allUsersRq(@RequestPayload AllUsersRequest request) {
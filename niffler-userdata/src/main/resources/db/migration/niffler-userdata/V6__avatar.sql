@@ -0,0 +1,17 @@
+create table if not exists "avatar"
+(
+    hash         varchar(64) not null,
+    content_type varchar(50) not null,
+    data         bytea       not null,
+    primary key (hash)
+);
+
+alter table "avatar"
+    owner to postgres;
+
+ALTER TABLE "user"
+    ADD avatar_hash       varchar(64) references "avatar" (hash),
+    ADD avatar_small_hash varchar(64) references "avatar" (hash);
+
+-- photo and photo_small are decoded into avatars in background by MigrationService (migration "V6__avatar"),
+-- a later migration drops them once the backfill is completed
@@ -0,0 +1,12 @@
+create table if not exists "avatar_thumbnail"
+(
+    avatar_hash    varchar(64) not null references "avatar" (hash),
+    name           varchar(50) not null,
+    thumbnail_hash varchar(64) not null references "avatar" (hash),
+    primary key (avatar_hash, name)
+);
+
+alter table "avatar_thumbnail"
+    owner to postgres;
+
+-- photo_small was always 100x100 png, the "V6__avatar" backfill links it as 'small' thumbnail
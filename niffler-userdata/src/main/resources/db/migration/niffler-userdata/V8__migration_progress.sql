@@ -0,0 +1,12 @@
+create table if not exists "migration_progress"
+(
+    name       varchar(100) not null,
+    last_id    UUID,
+    processed  bigint       not null default 0,
+    completed  boolean      not null default false,
+    updated_at timestamp    not null default now(),
+    primary key (name)
+);
+
+alter table "migration_progress"
+    owner to postgres;
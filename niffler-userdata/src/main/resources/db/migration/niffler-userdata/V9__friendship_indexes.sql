@@ -0,0 +1,11 @@
+-- executed outside of a transaction (see V9__friendship_indexes.sql.conf), so indexes are built without blocking writes
+
+-- primary key (requester_id, addressee_id) doesn't help lookups by addressee
+create index concurrently if not exists idx_friendship_addressee_status on "friendship" (addressee_id, status);
+
+-- allows index-only scans for username lookups and user lists, replaces the unique constraint from V1
+create unique index concurrently if not exists idx_user_username_covering on "user" (username)
+    include (id, currency, full_name, avatar_hash, avatar_small_hash);
+
+alter table "user"
+    drop constraint if exists users_username_key;
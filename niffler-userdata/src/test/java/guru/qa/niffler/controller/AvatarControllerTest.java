@@ -0,0 +1,60 @@
+package guru.qa.niffler.controller;
+
+import guru.qa.niffler.service.AvatarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AvatarControllerTest {
+
+  private static final String CACHE_CONTROL = "max-age=31536000, public, immutable";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private AvatarService avatarService;
+
+  @Test
+  void avatarShouldBeServedAsCacheableBytes() throws Exception {
+    final byte[] image = {(byte) 0x89, 'P', 'N', 'G', 1, 2, 3};
+    final String hash = avatarService.save("data:image/png;base64," + Base64.getEncoder().encodeToString(image));
+    assertEquals(hash, avatarService.save("image/png", image));
+
+    mockMvc.perform(get("/internal/avatars/" + hash))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("image/png"))
+        .andExpect(content().bytes(image))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL));
+
+    mockMvc.perform(get("/internal/avatars/" + hash)
+            .header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\"")
+        )
+        .andExpect(status().isNotModified())
+        .andExpect(content().bytes(new byte[0]))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL));
+  }
+
+  @Test
+  void unknownAvatarShouldNotBeFound() throws Exception {
+    mockMvc.perform(get("/internal/avatars/" + "0".repeat(64)))
+        .andExpect(status().isNotFound());
+  }
+}
@@ -40,4 +40,29 @@ class UserControllerTest {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.username").value("dima"));
   }
-}
\ No newline at end of file
+
+  @Test
+  void userCurrencyEndpointShouldReturnOnlyIdAndCurrency() throws Exception {
+    UserEntity userDataEntity = new UserEntity();
+    userDataEntity.setUsername("barsik");
+    userDataEntity.setCurrency(CurrencyValues.KZT);
+    userDataEntity.setAvatarHash("7a38bf81f383f69433ad6e900d35b3e2385593f76a7b7ab5d4355b8ba41ee24b");
+    userDataEntity = usersRepository.save(userDataEntity);
+
+    mockMvc.perform(get("/internal/users/currency")
+            .param("username", "barsik")
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(userDataEntity.getId().toString()))
+        .andExpect(jsonPath("$.currency").value("KZT"))
+        .andExpect(jsonPath("$.photo").doesNotExist())
+        .andExpect(jsonPath("$.username").doesNotExist());
+
+    mockMvc.perform(get("/internal/users/currency")
+            .param("username", "not_existing_user")
+        )
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").doesNotExist())
+        .andExpect(jsonPath("$.currency").value("RUB"));
+  }
+}
@@ -0,0 +1,71 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.data.CurrencyValues;
+import guru.qa.niffler.data.FriendShipId;
+import guru.qa.niffler.data.FriendshipEntity;
+import guru.qa.niffler.data.FriendshipStatus;
+import guru.qa.niffler.data.UserEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class FriendshipRepositoryTest {
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private FriendshipRepository friendshipRepository;
+
+  @Test
+  void friendshipShouldBeChangedByPrimaryKeyOnly() {
+    UUID requester = user("friendship_requester");
+    UUID addressee = user("friendship_addressee");
+    UUID other = user("friendship_other");
+    friendshipRepository.insert(requester, addressee, FriendshipStatus.PENDING, new Date());
+    friendshipRepository.insert(other, addressee, FriendshipStatus.PENDING, new Date());
+
+    assertEquals(1, friendshipRepository.updateStatus(requester, addressee, FriendshipStatus.ACCEPTED));
+    assertEquals(0, friendshipRepository.updateStatus(addressee, requester, FriendshipStatus.ACCEPTED));
+    friendshipRepository.insert(addressee, requester, FriendshipStatus.PENDING, new Date());
+    friendshipRepository.insert(addressee, requester, FriendshipStatus.ACCEPTED, new Date());
+    assertEquals(3, friendshipRepository.count());
+
+    assertEquals(FriendshipStatus.ACCEPTED, find(requester, addressee).getStatus());
+    assertEquals(FriendshipStatus.PENDING, find(other, addressee).getStatus());
+    assertEquals(FriendshipStatus.ACCEPTED, find(addressee, requester).getStatus());
+
+    assertEquals(2, friendshipRepository.deleteBetween(addressee, requester));
+    assertEquals(1, friendshipRepository.count());
+    assertEquals(1, friendshipRepository.delete(other, addressee));
+    assertEquals(0, friendshipRepository.count());
+  }
+
+  private UUID user(String username) {
+    UserEntity user = new UserEntity();
+    user.setUsername(username);
+    user.setCurrency(CurrencyValues.RUB);
+    return userRepository.saveAndFlush(user).getId();
+  }
+
+  private FriendshipEntity find(UUID requester, UUID addressee) {
+    return friendshipRepository.findById(id(requester, addressee)).orElseThrow();
+  }
+
+  private static FriendShipId id(UUID requester, UUID addressee) {
+    FriendShipId id = new FriendShipId();
+    id.setRequester(requester);
+    id.setAddressee(addressee);
+    return id;
+  }
+}
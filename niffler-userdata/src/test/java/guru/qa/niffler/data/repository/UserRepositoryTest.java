@@ -0,0 +1,165 @@
+package guru.qa.niffler.data.repository;
+
+import guru.qa.niffler.data.FriendshipStatus;
+import guru.qa.niffler.data.UserEntity;
+import guru.qa.niffler.data.projection.UserWithStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.EnabledIf;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Queries are checked on 1:10 users to friendships ratio, plans - by Postgres EXPLAIN of the SQL generated by Hibernate.
+ * Users and friendships are committed once for all tests and removed afterwards, the schema is left as is
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+    "guru.qa.niffler.data.repository.UserRepositoryTest$LastSelect")
+@ActiveProfiles("test")
+@Transactional
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserRepositoryTest {
+
+  private static final int USERS = 5_000;
+  private static final int FRIENDS_PER_USER = 10;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final List<UUID> ids = new ArrayList<>();
+
+  @BeforeAll
+  void fillUsersAndFriendships() {
+    List<Object[]> users = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      UUID id = UUID.randomUUID();
+      ids.add(id);
+      users.add(new Object[]{id, "explain_" + i, "RUB", "Full Name " + i});
+    }
+    jdbcTemplate.batchUpdate("insert into \"user\" (id, username, currency, full_name) values (?, ?, ?, ?)", users);
+    List<Object[]> friendships = new ArrayList<>();
+    for (int i = 0; i < USERS; i++) {
+      for (int j = 1; j <= FRIENDS_PER_USER; j++) {
+        friendships.add(new Object[]{
+            ids.get(i),
+            ids.get((i + j) % USERS),
+            (j % 2 == 0 ? FriendshipStatus.ACCEPTED : FriendshipStatus.PENDING).name()
+        });
+      }
+    }
+    jdbcTemplate.batchUpdate(
+        "insert into friendship (requester_id, addressee_id, status, created_date) values (?, ?, ?, current_date)",
+        friendships
+    );
+  }
+
+  @AfterAll
+  void removeUsersAndFriendships() {
+    jdbcTemplate.update("delete from friendship " +
+        "where requester_id in (select id from \"user\" where username like 'explain_%') " +
+        "or addressee_id in (select id from \"user\" where username like 'explain_%')");
+    jdbcTemplate.update("delete from \"user\" where username like 'explain_%'");
+  }
+
+  @Test
+  void friendsShouldBeReadWithoutDistinct() {
+    UserEntity addressee = userRepository.findById(ids.getFirst()).orElseThrow();
+
+    List<UserWithStatus> friends = userRepository.findFriends(addressee);
+
+    assertEquals(FRIENDS_PER_USER, friends.size());
+    assertEquals(FRIENDS_PER_USER, friends.stream().map(UserWithStatus::id).distinct().count());
+    assertEquals(
+        friends.stream().sorted(Comparator.comparing((UserWithStatus f) -> f.status().name()).reversed()).toList(),
+        friends
+    );
+    assertFalse(LastSelect.sql.contains("distinct"), LastSelect.sql);
+  }
+
+  @Test
+  void allUsersShouldJoinFriendshipWithoutDistinct() {
+    Page<UserWithStatus> page = userRepository.findByUsernameNot("explain_0", PageRequest.of(0, USERS));
+
+    // explain_0 has sent 5 accepted and 5 pending requests, accepted are not in the list
+    assertEquals(USERS - 1 - FRIENDS_PER_USER / 2, page.getTotalElements());
+    assertEquals(page.getTotalElements(), page.getContent().stream().map(UserWithStatus::id).distinct().count());
+    assertEquals(
+        FRIENDS_PER_USER / 2,
+        page.getContent().stream().filter(u -> u.status() == FriendshipStatus.PENDING).count()
+    );
+
+    assertFalse(LastSelect.sql.contains("distinct"), LastSelect.sql);
+  }
+
+  @Test
+  void allUsersShouldBeListedBeforeRequesterIsCreated() {
+    List<UserWithStatus> users = userRepository.findByUsernameNot("explain_not_created_yet");
+
+    assertEquals(USERS, users.stream().filter(u -> u.username().startsWith("explain_")).count());
+    assertTrue(users.stream().allMatch(u -> u.status() == null));
+  }
+
+  /**
+   * Run with SPRING_DATASOURCE_URL=jdbc:postgresql://..., SPRING_DATASOURCE_USERNAME, SPRING_DATASOURCE_PASSWORD
+   * and SPRING_JPA_DATABASE_PLATFORM=org.hibernate.dialect.PostgreSQLDialect
+   */
+  @Test
+  @EnabledIf(expression = "#{environment['spring.datasource.url'].startsWith('jdbc:postgresql')}", loadContext = true)
+  void friendsShouldBeReadByAddresseeIndex() {
+    UserEntity addressee = userRepository.findById(ids.getFirst()).orElseThrow();
+    userRepository.findFriends(addressee);
+    String plan = explain(addressee.getId());
+
+    assertTrue(plan.contains("idx_friendship_addressee_status"), plan);
+    assertFalse(plan.contains("seq scan on friendship"), plan);
+  }
+
+  @Test
+  @EnabledIf(expression = "#{environment['spring.datasource.url'].startsWith('jdbc:postgresql')}", loadContext = true)
+  void allUsersShouldJoinFriendshipByIndex() {
+    userRepository.findByUsernameNot("explain_0", PageRequest.of(0, USERS));
+    String plan = explain("explain_0", "explain_0", USERS);
+
+    assertFalse(plan.contains("seq scan on friendship"), plan);
+  }
+
+  private String explain(Object... params) {
+    jdbcTemplate.execute("analyze friendship");
+    jdbcTemplate.execute("analyze \"user\"");
+    return String.join("\n", jdbcTemplate.queryForList("explain " + LastSelect.sql, String.class, params))
+        .toLowerCase();
+  }
+
+  public static class LastSelect implements StatementInspector {
+
+    private static volatile String sql;
+
+    @Override
+    public String inspect(String sql) {
+      if (sql.startsWith("select") && !sql.startsWith("select count")) {
+        LastSelect.sql = sql;
+      }
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package guru.qa.niffler.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataUrlTest {
+
+  @ValueSource(ints = {0, 1, 2, 3, 4, 5, 1000, 100_001})
+  @ParameterizedTest
+  void payloadShouldBeDecodedWithAndWithoutPadding(int length) {
+    final byte[] data = new byte[length];
+    new Random(length).nextBytes(data);
+
+    final DataUrl padded = DataUrl.parse("data:image/png;base64," + Base64.getEncoder().encodeToString(data));
+    final DataUrl unpadded = DataUrl.parse("data:image/png;base64," + Base64.getEncoder().withoutPadding().encodeToString(data));
+
+    assertEquals("image/png", padded.contentType());
+    assertArrayEquals(data, padded.decode());
+    assertArrayEquals(data, unpadded.decode());
+  }
+
+  @Test
+  void invalidDataUrlShouldBeRejected() {
+    assertThrows(IllegalArgumentException.class, () -> DataUrl.parse("http://127.0.0.1/avatar.png"));
+    assertThrows(IllegalArgumentException.class, () -> DataUrl.parse("data:image/png,AAAA"));
+  }
+
+  @Test
+  void invalidPayloadShouldBeRejected() {
+    assertThrows(Exception.class, () -> DataUrl.parse("data:image/png;base64,AAAAA").decode());
+    assertThrows(Exception.class, () -> DataUrl.parse("data:image/png;base64,AA—A").decode());
+  }
+}
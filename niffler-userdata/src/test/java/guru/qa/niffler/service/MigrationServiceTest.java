@@ -0,0 +1,130 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.data.CurrencyValues;
+import guru.qa.niffler.data.MigrationProgressEntity;
+import guru.qa.niffler.data.UserEntity;
+import guru.qa.niffler.data.repository.MigrationProgressRepository;
+import guru.qa.niffler.data.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "niffler-userdata.migrations.chunk-size=2")
+@ActiveProfiles("test")
+class MigrationServiceTest {
+
+  @Autowired
+  private MigrationService migrationService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private MigrationProgressRepository migrationProgressRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void resetMigrations() {
+    // legacy photo columns are not mapped by UserEntity, so H2 schema doesn't have them
+    jdbcTemplate.execute("alter table \"user\" add column if not exists photo bytea");
+    jdbcTemplate.execute("alter table \"user\" add column if not exists photo_small bytea");
+    migrationProgressRepository.deleteAll();
+  }
+
+  @Test
+  void migrationsShouldProcessAllChunksOnlyOnce() {
+    List<UserEntity> users = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      UserEntity user = new UserEntity();
+      user.setUsername("migration_" + i);
+      user.setCurrency(CurrencyValues.USD);
+      user.setFirstname("Name" + i);
+      user.setSurname("Surname");
+      users.add(userRepository.save(user));
+    }
+
+    migrationService.migrate();
+
+    for (UserEntity user : users) {
+      UserEntity migrated = userRepository.findById(user.getId()).orElseThrow();
+      assertNotNull(migrated.getFullname());
+      assertEquals(CurrencyValues.USD, migrated.getCurrency());
+    }
+    MigrationProgressEntity progress = migrationProgressRepository.findById("V5__full_name").orElseThrow();
+    assertTrue(progress.isCompleted());
+    assertTrue(progress.getProcessed() >= users.size());
+
+    UserEntity registeredLater = new UserEntity();
+    registeredLater.setUsername("migration_later");
+    registeredLater.setCurrency(CurrencyValues.EUR);
+    registeredLater.setFirstname("Later");
+    registeredLater = userRepository.save(registeredLater);
+
+    migrationService.migrate();
+
+    assertNull(userRepository.findById(registeredLater.getId()).orElseThrow().getFullname());
+  }
+
+  @Test
+  void legacyPhotosShouldBecomeAvatars() throws Exception {
+    final byte[] photo = png(400, 300);
+    final byte[] photoSmall = png(100, 75);
+    final byte[] photoWithoutSmall = png(300, 300);
+    UserEntity withSmall = user("migration_photo_0");
+    UserEntity withoutSmall = user("migration_photo_1");
+    UserEntity withoutPhoto = user("migration_photo_2");
+    jdbcTemplate.update("update \"user\" set photo = ?, photo_small = ? where id = ?",
+        dataUrl(photo), dataUrl(photoSmall), withSmall.getId());
+    jdbcTemplate.update("update \"user\" set photo = ? where id = ?",
+        dataUrl(photoWithoutSmall), withoutSmall.getId());
+
+    migrationService.migrate();
+
+    withSmall = userRepository.findById(withSmall.getId()).orElseThrow();
+    assertEquals(AvatarService.sha256(photo), withSmall.getAvatarHash());
+    assertEquals(AvatarService.sha256(photoSmall), withSmall.getAvatarSmallHash());
+    assertEquals(
+        AvatarService.sha256(photoWithoutSmall),
+        userRepository.findById(withoutSmall.getId()).orElseThrow().getAvatarHash()
+    );
+    assertNull(userRepository.findById(withoutPhoto.getId()).orElseThrow().getAvatarHash());
+    assertTrue(migrationProgressRepository.findById("V6__avatar").orElseThrow().isCompleted());
+  }
+
+  private UserEntity user(String username) {
+    UserEntity user = new UserEntity();
+    user.setUsername(username);
+    user.setCurrency(CurrencyValues.RUB);
+    return userRepository.save(user);
+  }
+
+  private static byte[] dataUrl(byte[] png) {
+    return ("data:image/png;base64," + Base64.getEncoder().encodeToString(png)).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] png(int width, int height) throws IOException {
+    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", os);
+      return os.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package guru.qa.niffler.service;
+
+import guru.qa.niffler.config.ThumbnailProperties;
+import guru.qa.niffler.data.AvatarEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ThumbnailServiceTest {
+
+  private final String avatarHash = "7a38bf81f383f69433ad6e900d35b3e2385593f76a7b7ab5d4355b8ba41ee24b";
+
+  private final ThumbnailProperties properties = new ThumbnailProperties(
+      1,
+      10,
+      Duration.ofMillis(100),
+      List.of(
+          new ThumbnailProperties.Size("small", 100, 100, "png", 1.0),
+          new ThumbnailProperties.Size("medium", 400, 400, "jpeg", 0.85)
+      )
+  );
+
+  @Test
+  void onlyMissingThumbnailsShouldBeCreated(@Mock AvatarService avatarService) throws Exception {
+    AvatarEntity original = new AvatarEntity();
+    original.setHash(avatarHash);
+    original.setContentType("image/png");
+    original.setData(png(800, 600));
+    when(avatarService.thumbnailNames(eq(avatarHash))).thenReturn(List.of("small"));
+    when(avatarService.getRequiredAvatar(eq(avatarHash))).thenReturn(original);
+
+    new ThumbnailService(avatarService, properties).createThumbnails(avatarHash);
+
+    ArgumentCaptor<byte[]> thumbnail = ArgumentCaptor.forClass(byte[].class);
+    verify(avatarService).saveThumbnail(eq(avatarHash), eq("medium"), eq("image/jpeg"), thumbnail.capture());
+    verify(avatarService, never()).saveThumbnail(anyString(), eq("small"), anyString(), any());
+    verify(avatarService).updateUsersSmallThumbnail(eq(avatarHash));
+    BufferedImage medium = ImageIO.read(new ByteArrayInputStream(thumbnail.getValue()));
+    assertEquals(400, medium.getWidth());
+    assertEquals(300, medium.getHeight());
+  }
+
+  @Test
+  void avatarWithAllThumbnailsShouldNotBeReadButSetToUsers(@Mock AvatarService avatarService) {
+    when(avatarService.thumbnailNames(eq(avatarHash))).thenReturn(List.of("medium", "small"));
+
+    new ThumbnailService(avatarService, properties).createThumbnails(avatarHash);
+
+    verify(avatarService, never()).getRequiredAvatar(anyString());
+    verify(avatarService, never()).saveThumbnail(anyString(), anyString(), anyString(), any());
+    verify(avatarService).updateUsersSmallThumbnail(eq(avatarHash));
+  }
+
+  @Test
+  void fullQueueShouldDropRequestAvatarsButBlockBackgroundOnes(@Mock AvatarService avatarService) throws Exception {
+    ThumbnailService thumbnailService = new ThumbnailService(avatarService, new ThumbnailProperties(
+        1, 1, Duration.ofMillis(10), properties.sizes()
+    ));
+    thumbnailService.enqueueAfterCommit("first");
+    thumbnailService.enqueueAfterCommit("dropped");
+
+    Thread background = Thread.ofVirtual().start(() -> thumbnailService.putAfterCommit("waiting"));
+    background.join(200);
+    assertTrue(background.isAlive());
+
+    background.interrupt();
+    background.join();
+  }
+
+  @Test
+  void largeImageShouldBeSubsampledBeforeResize() throws Exception {
+    final ThumbnailProperties.Size small = properties.sizes().getFirst();
+    final SmallPhoto smallPhoto = new SmallPhoto(small, png(2000, 1000));
+
+    assertEquals(10, smallPhoto.subsampling(2000, 1000));
+    BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(smallPhoto.bytes()));
+    assertEquals(100, thumbnail.getWidth());
+    assertEquals(50, thumbnail.getHeight());
+  }
+
+  private static byte[] png(int width, int height) throws IOException {
+    try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
+      ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", os);
+      return os.toByteArray();
+    }
+  }
+}
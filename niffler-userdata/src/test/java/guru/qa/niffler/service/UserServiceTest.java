@@ -4,6 +4,9 @@ import guru.qa.niffler.data.CurrencyValues;
 import guru.qa.niffler.data.FriendshipStatus;
 import guru.qa.niffler.data.UserEntity;
 import guru.qa.niffler.data.projection.UserWithStatus;
+import guru.qa.niffler.data.repository.AvatarRepository;
+import guru.qa.niffler.data.repository.AvatarThumbnailRepository;
+import guru.qa.niffler.data.repository.FriendshipRepository;
 import guru.qa.niffler.data.repository.UserRepository;
 import guru.qa.niffler.ex.NotFoundException;
 import guru.qa.niffler.model.UserJson;
@@ -16,17 +19,23 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static guru.qa.niffler.model.FriendState.FRIEND;
 import static guru.qa.niffler.model.FriendState.INVITE_SENT;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,6 +57,7 @@ class UserServiceTest {
 
 
   private final String notExistingUser = "not_existing_user";
+  private final String avatarBaseUri = "http://127.0.0.1:8090/api/avatars";
 
 
   @BeforeEach
@@ -92,14 +102,24 @@ class UserServiceTest {
       ""
   })
   @ParameterizedTest
-  void userShouldBeUpdated(String photo, @Mock UserRepository userRepository) {
+  void userShouldBeUpdated(String photo,
+                           @Mock UserRepository userRepository,
+                           @Mock FriendshipRepository friendshipRepository,
+                           @Mock AvatarRepository avatarRepository,
+                           @Mock AvatarThumbnailRepository avatarThumbnailRepository,
+                           @Mock ThumbnailService thumbnailService) {
     when(userRepository.findByUsername(eq(mainTestUserName)))
         .thenReturn(Optional.of(mainTestUser));
 
     when(userRepository.save(any(UserEntity.class)))
         .thenAnswer(answer -> answer.getArguments()[0]);
 
-    testedObject = new UserService(userRepository);
+    testedObject = new UserService(
+        userRepository,
+        friendshipRepository,
+        new AvatarService(avatarRepository, avatarThumbnailRepository, userRepository, avatarBaseUri),
+        thumbnailService
+    );
 
     final String photoForTest = photo.isEmpty() ? null : photo;
 
@@ -118,17 +138,29 @@ class UserServiceTest {
     assertEquals(mainTestUserUuid, result.id());
     assertEquals("Test TestSurname", result.fullname());
     assertEquals(CurrencyValues.USD, result.currency());
-    assertEquals(photoForTest, result.photo());
+    if (photoForTest == null) {
+      assertNull(result.photo());
+      verifyNoInteractions(avatarRepository, thumbnailService);
+    } else {
+      final String hash = AvatarService.sha256(Base64.getDecoder().decode(photoForTest.substring(photoForTest.indexOf(',') + 1)));
+      assertEquals(avatarBaseUri + "/" + hash, result.photo());
+      assertEquals(result.photo(), result.photoSmall());
+      verify(avatarRepository, times(1)).insert(eq(hash), eq("image/png"), any(byte[].class));
+      verify(thumbnailService, times(1)).enqueueAfterCommit(eq(hash));
+    }
 
     verify(userRepository, times(1)).save(any(UserEntity.class));
   }
 
   @Test
-  void getRequiredUserShouldThrowNotFoundExceptionIfUserNotFound(@Mock UserRepository userRepository) {
+  void getRequiredUserShouldThrowNotFoundExceptionIfUserNotFound(@Mock UserRepository userRepository,
+                                                                 @Mock FriendshipRepository friendshipRepository,
+                                                                 @Mock AvatarService avatarService,
+                                                                 @Mock ThumbnailService thumbnailService) {
     when(userRepository.findByUsername(eq(notExistingUser)))
         .thenReturn(Optional.empty());
 
-    testedObject = new UserService(userRepository);
+    testedObject = new UserService(userRepository, friendshipRepository, avatarService, thumbnailService);
 
     final NotFoundException exception = assertThrows(NotFoundException.class,
         () -> testedObject.getRequiredUser(notExistingUser));
@@ -139,11 +171,14 @@ class UserServiceTest {
   }
 
   @Test
-  void allUsersShouldReturnCorrectUsersList(@Mock UserRepository userRepository) {
+  void allUsersShouldReturnCorrectUsersList(@Mock UserRepository userRepository,
+                                            @Mock FriendshipRepository friendshipRepository,
+                                            @Mock AvatarService avatarService,
+                                            @Mock ThumbnailService thumbnailService) {
     when(userRepository.findByUsernameNot(eq(mainTestUserName)))
         .thenReturn(getMockUsersMappingFromDb());
 
-    testedObject = new UserService(userRepository);
+    testedObject = new UserService(userRepository, friendshipRepository, avatarService, thumbnailService);
 
     final List<UserJsonBulk> users = testedObject.allUsers(mainTestUserName, null);
     assertEquals(2, users.size());
@@ -162,6 +197,50 @@ class UserServiceTest {
     assertEquals(thirdTestUserName, friend.username());
   }
 
+  @Test
+  void acceptFriendshipRequestShouldUpdateInvitationAndUpsertReverseFriendship(@Mock UserRepository userRepository,
+                                                                             @Mock FriendshipRepository friendshipRepository,
+                                                                             @Mock AvatarService avatarService,
+                                                                             @Mock ThumbnailService thumbnailService) {
+    when(userRepository.findByUsername(eq(mainTestUserName)))
+        .thenReturn(Optional.of(mainTestUser));
+    when(userRepository.findByUsername(eq(secondTestUserName)))
+        .thenReturn(Optional.of(secondTestUser));
+    when(friendshipRepository.updateStatus(secondTestUserUuid, mainTestUserUuid, FriendshipStatus.ACCEPTED))
+        .thenReturn(1);
+
+    testedObject = new UserService(userRepository, friendshipRepository, avatarService, thumbnailService);
+
+    final UserJson result = testedObject.acceptFriendshipRequest(mainTestUserName, secondTestUserName);
+    assertEquals(FRIEND, result.friendState());
+    verify(friendshipRepository, times(1))
+        .insert(eq(mainTestUserUuid), eq(secondTestUserUuid), eq(FriendshipStatus.ACCEPTED), any(Date.class));
+    verify(userRepository, never()).save(any(UserEntity.class));
+  }
+
+  @Test
+  void acceptFriendshipRequestShouldThrowNotFoundExceptionIfInvitationNotFound(@Mock UserRepository userRepository,
+                                                                            @Mock FriendshipRepository friendshipRepository,
+                                                                            @Mock AvatarService avatarService,
+                                                                            @Mock ThumbnailService thumbnailService) {
+    when(userRepository.findByUsername(eq(mainTestUserName)))
+        .thenReturn(Optional.of(mainTestUser));
+    when(userRepository.findByUsername(eq(secondTestUserName)))
+        .thenReturn(Optional.of(secondTestUser));
+    when(friendshipRepository.updateStatus(secondTestUserUuid, mainTestUserUuid, FriendshipStatus.ACCEPTED))
+        .thenReturn(0);
+
+    testedObject = new UserService(userRepository, friendshipRepository, avatarService, thumbnailService);
+
+    final NotFoundException exception = assertThrows(NotFoundException.class,
+        () -> testedObject.acceptFriendshipRequest(mainTestUserName, secondTestUserName));
+    assertEquals(
+        "Can`t find invitation from username: '" + secondTestUserName + "'",
+        exception.getMessage()
+    );
+    verify(friendshipRepository, never()).insert(any(), any(), any(), any());
+  }
+
   private List<UserWithStatus> getMockUsersMappingFromDb() {
     return List.of(
         new UserWithStatus(
@@ -169,7 +248,7 @@ class UserServiceTest {
             secondTestUser.getUsername(),
             secondTestUser.getCurrency(),
             secondTestUser.getFullname(),
-            secondTestUser.getPhotoSmall(),
+            secondTestUser.getAvatarSmallHash(),
             FriendshipStatus.PENDING
         ),
         new UserWithStatus(
@@ -177,7 +256,7 @@ class UserServiceTest {
             thirdTestUser.getUsername(),
             thirdTestUser.getCurrency(),
             thirdTestUser.getFullname(),
-            thirdTestUser.getPhotoSmall(),
+            thirdTestUser.getAvatarSmallHash(),
             FriendshipStatus.ACCEPTED
         )
     );